@@ -117,7 +117,7 @@ public class SparkBatchJobDeployFactory implements ILogger {
                         }
 
                         httpObservable = new SharedKeyHttpObservable(storageAccount.getName(), accessKey);
-                        jobDeploy = new ADLSGen2Deploy(httpObservable, destinationRootPath);
+                        jobDeploy = new ADLSGen2Deploy(httpObservable, destinationRootPath, ctrlSubject);
                     } else if (storageAccount.getAccountType() == StorageAccountType.BLOB ||
                             storageAccount.getAccountType() == StorageAccountType.ADLS) {
                         jobDeploy = new LegacySDKDeploy(storageAccount, ctrlSubject);
@@ -182,7 +182,7 @@ public class SparkBatchJobDeployFactory implements ILogger {
                 }
 
                 httpObservable = new SharedKeyHttpObservable(gen2StorageAccount, accessKey);
-                jobDeploy = new ADLSGen2Deploy(httpObservable, destinationRootPath);
+                jobDeploy = new ADLSGen2Deploy(httpObservable, destinationRootPath, ctrlSubject);
                 break;
             case WEBHDFS:
                 destinationRootPath = submitModel.getJobUploadStorageModel().getUploadPath();
@@ -99,6 +99,20 @@ open class SparkFailureTaskRunProfileState(val name: String,
         // Additional VM parameters
         additionalVmParameters.forEach { params.vmParametersList.add(it) }
 
+        // Runtime jars kept in the failure save store are listed in runtime.list as `<name>\t<hash>`,
+        // the store is the `.store` folder next to the failure context folder
+        failureContextPath?.let { File(it).parentFile }?.also { failureContextFolder ->
+            val runtimeList = File(failureContextFolder, "runtime.list")
+            val storeFolder = File(failureContextFolder.parentFile, ".store")
+
+            if (runtimeList.exists()) {
+                runtimeList.readLines()
+                        .filter { it.contains('\t') }
+                        .reversed()
+                        .forEach { params.classPath.addFirst(File(storeFolder, it.substringAfter('\t')).path) }
+            }
+        }
+
         // Put failure context runtime at beginning, after JDK6, the classpath support <dir>/*
         params.classPath.addFirst("${PathUtil.getCanonicalPath(settingsConfigModel.workingDirectory)}/runtime/*")
 
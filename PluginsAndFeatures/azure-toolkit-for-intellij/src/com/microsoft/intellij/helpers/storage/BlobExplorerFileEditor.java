@@ -42,15 +42,16 @@ import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
 import com.microsoft.azuretools.sdkmanage.AzureManager;
 import com.microsoft.azuretools.telemetry.TelemetryProperties;
 import com.microsoft.intellij.forms.UploadBlobFileForm;
-import com.microsoft.intellij.helpers.UIHelperImpl;
 import com.microsoft.intellij.util.PluginUtil;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.ParallelBlobTransfer;
 import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
 import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.BlobDirectory;
 import com.microsoft.tooling.msservices.model.storage.BlobFile;
 import com.microsoft.tooling.msservices.model.storage.BlobItem;
+import com.microsoft.tooling.msservices.model.storage.BlobItemPage;
 import com.microsoft.tooling.msservices.serviceexplorer.NodeActionEvent;
 import com.microsoft.tooling.msservices.serviceexplorer.NodeActionListener;
 import org.jetbrains.annotations.NotNull;
@@ -60,7 +61,6 @@ import org.apache.commons.io.IOUtils;
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableModel;
 import javax.swing.table.TableRowSorter;
@@ -71,7 +71,6 @@ import java.awt.event.*;
 import java.beans.PropertyChangeListener;
 import java.io.*;
 import java.net.SocketTimeoutException;
-import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -105,7 +104,7 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
     private Project project;
 
     private LinkedList<BlobDirectory> directoryQueue = new LinkedList<BlobDirectory>();
-    private List<BlobItem> blobItems;
+    private BlobItemTableModel blobItemTableModel = new BlobItemTableModel();
 
     private ISubscriptionSelectionListener subscriptionListener;
     private FileEditorVirtualNode fileEditorVirtualNode;
@@ -114,25 +113,7 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
         this.project = project;
         blobListTable.getSelectionModel().setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
-        DefaultTableModel model = new DefaultTableModel() {
-            @Override
-            public boolean isCellEditable(int i, int i1) {
-                return false;
-            }
-
-            public Class getColumnClass(int column) {
-                return (column == 0) ? Icon.class : String.class;
-            }
-        };
-
-        model.addColumn("");
-        model.addColumn("Name");
-        model.addColumn("Size");
-        model.addColumn("Last Modified (UTC)");
-        model.addColumn("Content Type");
-        model.addColumn("URL");
-
-        blobListTable.setModel(model);
+        blobListTable.setModel(blobItemTableModel);
         blobListTable.getColumnModel().getColumn(0).setMinWidth(20);
         blobListTable.getColumnModel().getColumn(0).setMaxWidth(20);
         blobListTable.getColumnModel().getColumn(1).setPreferredWidth(100);
@@ -160,7 +141,7 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
             }
         });
 
-        TableRowSorter<TableModel> sorter = new TableRowSorter<TableModel>(model);
+        TableRowSorter<TableModel> sorter = new TableRowSorter<TableModel>(blobItemTableModel);
 
         sorter.setComparator(2, new Comparator<String>() {
             @Override
@@ -210,6 +191,17 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
         sorter.setSortKeys(sortKeys);
         sorter.sort();
 
+        JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, blobListTable);
+
+        if (scrollPane != null) {
+            scrollPane.getVerticalScrollBar().addAdjustmentListener(new AdjustmentListener() {
+                @Override
+                public void adjustmentValueChanged(AdjustmentEvent adjustmentEvent) {
+                    loadMoreBlobsIfNeeded();
+                }
+            });
+        }
+
         backButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent actionEvent) {
@@ -313,6 +305,8 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
     public void fillGrid() {
         setUIState(true);
 
+        final String prefix = queryTextField.getText();
+
         ProgressManager.getInstance().run(new Task.Backgroundable(project, "Loading blobs...", false) {
             @Override
             public void run(@NotNull ProgressIndicator progressIndicator) {
@@ -323,56 +317,23 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                         directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
                     }
 
-                    blobItems = StorageClientSDKManager.getManager().getBlobItems(connectionString, directoryQueue.peekLast());
+                    final BlobDirectory blobDirectory = directoryQueue.peekLast();
 
-                    if (!queryTextField.getText().isEmpty()) {
-                        for (int i = blobItems.size() - 1; i >= 0; i--) {
-                            BlobItem blobItem = blobItems.get(i);
-
-                            if (blobItem instanceof BlobFile && !blobItem.getName().startsWith(queryTextField.getText())) {
-                                blobItems.remove(i);
-                            }
-                        }
-                    }
+                    // Only the first page is listed here, the following ones are listed as the table is scrolled
+                    final BlobItemPage firstPage = StorageClientSDKManager.getManager().getBlobItemsPage(
+                            connectionString, blobDirectory, prefix, BlobItemTableModel.PAGE_SIZE, null);
 
                     ApplicationManager.getApplication().invokeLater(new Runnable() {
                         @Override
                         public void run() {
-
-                            pathLabel.setText(directoryQueue.peekLast().getPath());
-                            DefaultTableModel model = (DefaultTableModel) blobListTable.getModel();
-
-                            while (model.getRowCount() > 0) {
-                                model.removeRow(0);
-                            }
-
-                            for (BlobItem blobItem : blobItems) {
-                                if (blobItem instanceof BlobDirectory) {
-                                    model.addRow(new Object[]{
-                                            UIHelperImpl.loadIcon("storagefolder.png"),
-                                            blobItem.getName(),
-                                            "",
-                                            "",
-                                            "",
-                                            blobItem.getUri()
-                                    });
-                                } else {
-                                    BlobFile blobFile = (BlobFile) blobItem;
-
-                                    model.addRow(new String[]{
-                                            "",
-                                            blobFile.getName(),
-                                            UIHelperImpl.readableFileSize(blobFile.getSize()),
-                                            new SimpleDateFormat().format(blobFile.getLastModified().getTime()),
-                                            blobFile.getContentType(),
-                                            blobFile.getUri()
-                                    });
-                                }
-                            }
+                            pathLabel.setText(blobDirectory.getPath());
+                            blobItemTableModel.setFirstPage(connectionString, blobDirectory, prefix, firstPage);
 
                             setUIState(false);
 
                             blobListTable.clearSelection();
+
+                            loadMoreBlobsIfNeeded();
                         }
                     });
                 } catch (AzureCmdException ex) {
@@ -383,6 +344,37 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
         });
     }
 
+    // List the next page when the table is scrolled near its end, or isn't long enough to scroll
+    private void loadMoreBlobsIfNeeded() {
+        if (!blobItemTableModel.hasMore()) {
+            return;
+        }
+
+        JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, blobListTable);
+
+        if (scrollPane == null) {
+            return;
+        }
+
+        JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+        int prefetchHeight = blobListTable.getRowHeight() * BlobItemTableModel.PAGE_SIZE / 5;
+
+        if (scrollBar.getValue() + scrollBar.getVisibleAmount() >= scrollBar.getMaximum() - prefetchHeight) {
+            // Check again once the page is laid out, since a short page may still leave the table too short to scroll
+            blobItemTableModel.loadNextPage(new Runnable() {
+                @Override
+                public void run() {
+                    SwingUtilities.invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            loadMoreBlobsIfNeeded();
+                        }
+                    });
+                }
+            });
+        }
+    }
+
     private void setUIState(boolean loading) {
         if (loading) {
             blobListTable.setEnabled(false);
@@ -406,32 +398,26 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
         }
     }
 
-    private BlobDirectory getFolderSelection() {
-        if (blobListTable.getSelectedRow() >= 0) {
-            String name = blobListTable.getValueAt(blobListTable.getSelectedRow(), 1).toString();
+    private BlobItem getSelection() {
+        int selectedRow = blobListTable.getSelectedRow();
 
-            for (BlobItem item : blobItems) {
-                if (item instanceof BlobDirectory && item.getName().equals(name)) {
-                    return (BlobDirectory) item;
-                }
-            }
+        if (selectedRow < 0) {
+            return null;
         }
 
-        return null;
+        return blobItemTableModel.getBlobItemAt(blobListTable.convertRowIndexToModel(selectedRow));
     }
 
-    private BlobFile getFileSelection() {
-        if (blobListTable.getSelectedRow() >= 0) {
-            String name = blobListTable.getValueAt(blobListTable.getSelectedRow(), 1).toString();
+    private BlobDirectory getFolderSelection() {
+        BlobItem item = getSelection();
 
-            for (BlobItem item : blobItems) {
-                if (item instanceof BlobFile && item.getName().equals(name)) {
-                    return (BlobFile) item;
-                }
-            }
-        }
+        return item instanceof BlobDirectory ? (BlobDirectory) item : null;
+    }
 
-        return null;
+    private BlobFile getFileSelection() {
+        BlobItem item = getSelection();
+
+        return item instanceof BlobFile ? (BlobFile) item : null;
     }
 
     private boolean isDirectorySelected() {
@@ -518,6 +504,8 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
 
         if (blobItem != null) {
             if (JOptionPane.showConfirmDialog(mainPanel, "Are you sure you want to delete this blob?", "Delete Blob", JOptionPane.YES_NO_OPTION, JOptionPane.INFORMATION_MESSAGE) == JOptionPane.OK_OPTION) {
+                final boolean isLastBlobItem = blobItemTableModel.getRowCount() <= 1 && !blobItemTableModel.hasMore();
+
                 setUIState(true);
 
                 ProgressManager.getInstance().run(new Task.Backgroundable(project, "Deleting blob...", false) {
@@ -527,7 +515,7 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                         try {
                             StorageClientSDKManager.getManager().deleteBlobFile(connectionString, blobItem);
 
-                            if (blobItems.size() <= 1) {
+                            if (isLastBlobItem) {
                                 directoryQueue.clear();
                                 directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
 
@@ -599,68 +587,72 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                             }
                         }
 
-                        final BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(new FileOutputStream(targetFile), 65536) {
-                            private long runningCount = 0;
-
+                        final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
                             @Override
-                            public synchronized void write(@NotNull byte[] bytes, int i, int i1) throws IOException {
-                                super.write(bytes, i, i1);
-
-                                runningCount += i1;
+                            public Void call(Long downloadedBytes) throws Exception {
+                                double progress = (double) downloadedBytes / fileSelection.getSize();
 
-                                double progress = (double) runningCount / fileSelection.getSize();
                                 progressIndicator.setFraction(progress);
                                 progressIndicator.setText2(String.format("%s%% downloaded", (int) (progress * 100)));
+
+                                return null;
                             }
                         };
 
-                        try {
-                            Future<?> future = ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
-                                @Override
-                                public void run() {
-                                    try {
-                                        StorageClientSDKManager.getManager().downloadBlobFileContent(connectionString, fileSelection, bufferedOutputStream);
+                        Future<?> future = ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+                            @Override
+                            public void run() {
+                                try {
+                                    StorageClientSDKManager.getManager().downloadBlobFileContent(
+                                            connectionString,
+                                            fileSelection,
+                                            targetFile,
+                                            callable,
+                                            ParallelBlobTransfer.DEFAULT_BLOCK_SIZE,
+                                            ParallelBlobTransfer.DEFAULT_CONCURRENCY);
 
-                                        if (open && targetFile.exists()) {
-                                            Desktop.getDesktop().open(targetFile);
-                                        }
-                                    } catch (AzureCmdException e) {
-                                        Throwable connectionFault = e.getCause().getCause();
-
-                                        progressIndicator.setText("Error downloading Blob");
-                                        progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ? "Connection timed out" : connectionFault.getMessage());
-                                    } catch (IOException ex) {
-                                        try {
-                                            final Process p;
-                                            Runtime runtime = Runtime.getRuntime();
-                                            p = runtime.exec(
-                                                    new String[]{"open", "-R", targetFile.getName()},
-                                                    null,
-                                                    targetFile.getParentFile());
-
-                                            InputStream errorStream = p.getErrorStream();
-                                            String errResponse = new String(IOUtils.readFully(errorStream, -1));
-
-                                            if (p.waitFor() != 0) {
-                                                throw new Exception(errResponse);
-                                            }
-                                        } catch (Exception e) {
-                                            progressIndicator.setText("Error openning file");
-                                            progressIndicator.setText2(ex.getMessage());
+                                    if (open && targetFile.exists()) {
+                                        Desktop.getDesktop().open(targetFile);
+                                    }
+                                } catch (AzureCmdException e) {
+                                    // The connection fault is wrapped by a different depth of causes for the stream and the parallel downloads
+                                    Throwable connectionFault = e;
+                                    while (connectionFault.getCause() != null && !(connectionFault instanceof SocketTimeoutException)) {
+                                        connectionFault = connectionFault.getCause();
+                                    }
+
+                                    progressIndicator.setText("Error downloading Blob");
+                                    progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ? "Connection timed out" :
+                                            (connectionFault.getMessage() != null ? connectionFault.getMessage() : e.getMessage()));
+                                } catch (IOException ex) {
+                                    try {
+                                        final Process p;
+                                        Runtime runtime = Runtime.getRuntime();
+                                        p = runtime.exec(
+                                                new String[]{"open", "-R", targetFile.getName()},
+                                                null,
+                                                targetFile.getParentFile());
+
+                                        InputStream errorStream = p.getErrorStream();
+                                        String errResponse = new String(IOUtils.readFully(errorStream, -1));
+
+                                        if (p.waitFor() != 0) {
+                                            throw new Exception(errResponse);
                                         }
+                                    } catch (Exception e) {
+                                        progressIndicator.setText("Error openning file");
+                                        progressIndicator.setText2(ex.getMessage());
                                     }
                                 }
-                            });
+                            }
+                        });
 
-                            while (!future.isDone()) {
-                                progressIndicator.checkCanceled();
+                        while (!future.isDone()) {
+                            progressIndicator.checkCanceled();
 
-                                if (progressIndicator.isCanceled()) {
-                                    future.cancel(true);
-                                }
+                            if (progressIndicator.isCanceled()) {
+                                future.cancel(true);
                             }
-                        } finally {
-                            bufferedOutputStream.close();
                         }
                     } catch (IOException e) {
                         PluginUtil.displayErrorDialogAndLog(message("errTtl"), "An error occurred while attempting to download Blob.", e);
@@ -701,8 +693,6 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                 try {
                     final BlobDirectory blobDirectory = directoryQueue.peekLast();
 
-                    final BufferedInputStream bufferedInputStream = new BufferedInputStream(new FileInputStream(selectedFile));
-
                     progressIndicator.setIndeterminate(false);
                     progressIndicator.setText("Uploading blob...");
                     progressIndicator.setText2("0% uploaded");
@@ -723,21 +713,14 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                         Future<Void> future = ApplicationManager.getApplication().executeOnPooledThread(new Callable<Void>() {
                             @Override
                             public Void call() throws AzureCmdException {
-                                try {
-                                    StorageClientSDKManager.getManager().uploadBlobFileContent(
-                                            connectionString,
-                                            blobContainer,
-                                            path,
-                                            bufferedInputStream,
-                                            callable,
-                                            1024 * 1024,
-                                            selectedFile.length());
-                                } finally {
-                                    try {
-                                        bufferedInputStream.close();
-                                    } catch (IOException ignored) {
-                                    }
-                                }
+                                StorageClientSDKManager.getManager().uploadBlobFileContent(
+                                        connectionString,
+                                        blobContainer,
+                                        path,
+                                        selectedFile,
+                                        callable,
+                                        ParallelBlobTransfer.DEFAULT_BLOCK_SIZE,
+                                        ParallelBlobTransfer.DEFAULT_CONCURRENCY);
 
                                 return null;
                             }
@@ -749,7 +732,6 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
 
                             if (progressIndicator.isCanceled()) {
                                 future.cancel(true);
-                                bufferedInputStream.close();
 
                                 for (BlobItem blobItem : StorageClientSDKManager.getManager().getBlobItems(connectionString, blobDirectory)) {
                                     if (blobItem instanceof BlobFile && blobItem.getPath().equals(path)) {
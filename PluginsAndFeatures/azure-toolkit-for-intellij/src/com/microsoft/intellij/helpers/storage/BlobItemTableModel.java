@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.intellij.helpers.storage;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
+import com.microsoft.intellij.helpers.UIHelperImpl;
+import com.microsoft.intellij.util.PluginUtil;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
+import com.microsoft.tooling.msservices.model.storage.BlobDirectory;
+import com.microsoft.tooling.msservices.model.storage.BlobFile;
+import com.microsoft.tooling.msservices.model.storage.BlobItem;
+import com.microsoft.tooling.msservices.model.storage.BlobItemPage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.microsoft.intellij.ui.messages.AzureBundle.message;
+
+/**
+ * The table model of the blob items in a directory, which has only the pages listed so far.
+ *
+ * The first page is listed when the directory is opened, and the next page is listed in background when the table
+ * is scrolled near its end, so a directory with millions of blobs is neither listed nor held at once.
+ */
+public class BlobItemTableModel extends AbstractTableModel {
+    private static final Logger LOG = Logger.getInstance(BlobItemTableModel.class);
+
+    static final int PAGE_SIZE = 500;
+
+    private static final String[] COLUMN_NAMES = {"", "Name", "Size", "Last Modified (UTC)", "Content Type", "URL"};
+
+    private final List<BlobItem> blobItems = new ArrayList<BlobItem>();
+    private final List<Object[]> rows = new ArrayList<Object[]>();
+
+    private String connectionString;
+    private BlobDirectory blobDirectory;
+    private String prefix;
+
+    @Nullable
+    private ResultContinuation continuationToken;
+    private boolean isLoading = false;
+    // The error dialog is shown for the first failure only, not again for every retry when scrolled
+    private boolean isLastLoadFailed = false;
+
+    // Increased for every directory opened, to drop the pages still being listed for the previous one
+    private int listingId = 0;
+
+    /**
+     * Show the first page of a directory, should be called on the UI thread
+     *
+     * @param connectionString the storage account connection string
+     * @param blobDirectory the directory listed
+     * @param prefix the prefix the directory is listed with
+     * @param firstPage the first page listed
+     */
+    public void setFirstPage(@NotNull String connectionString,
+                             @NotNull BlobDirectory blobDirectory,
+                             @Nullable String prefix,
+                             @NotNull BlobItemPage firstPage) {
+        this.connectionString = connectionString;
+        this.blobDirectory = blobDirectory;
+        this.prefix = prefix;
+        this.continuationToken = null;
+        this.isLoading = false;
+        this.isLastLoadFailed = false;
+        this.listingId++;
+
+        blobItems.clear();
+        rows.clear();
+        fireTableDataChanged();
+
+        appendPage(firstPage);
+    }
+
+    private void appendPage(@NotNull BlobItemPage page) {
+        int firstRow = rows.size();
+
+        for (BlobItem blobItem : page.getItems()) {
+            blobItems.add(blobItem);
+            rows.add(toRow(blobItem));
+        }
+
+        continuationToken = page.getContinuationToken();
+
+        if (rows.size() > firstRow) {
+            fireTableRowsInserted(firstRow, rows.size() - 1);
+        }
+    }
+
+    @NotNull
+    private static Object[] toRow(@NotNull BlobItem blobItem) {
+        if (blobItem instanceof BlobDirectory) {
+            return new Object[]{
+                    UIHelperImpl.loadIcon("storagefolder.png"),
+                    blobItem.getName(),
+                    "",
+                    "",
+                    "",
+                    blobItem.getUri()
+            };
+        }
+
+        BlobFile blobFile = (BlobFile) blobItem;
+
+        return new Object[]{
+                "",
+                blobFile.getName(),
+                UIHelperImpl.readableFileSize(blobFile.getSize()),
+                new SimpleDateFormat().format(blobFile.getLastModified().getTime()),
+                blobFile.getContentType(),
+                blobFile.getUri()
+        };
+    }
+
+    public boolean hasMore() {
+        return continuationToken != null;
+    }
+
+    /**
+     * List the next page in background if there is one and it isn't being listed, should be called on the UI thread.
+     * An empty page with a continuation token, which the service may return, is followed by the next one right away.
+     *
+     * @param onLoaded called on the UI thread after a page with blobs or the last page is shown
+     */
+    public void loadNextPage(@Nullable final Runnable onLoaded) {
+        if (!hasMore() || isLoading) {
+            return;
+        }
+
+        isLoading = true;
+
+        final int loadingListingId = listingId;
+        final String loadingConnectionString = connectionString;
+        final BlobDirectory loadingDirectory = blobDirectory;
+        final String loadingPrefix = prefix;
+        final ResultContinuation loadingToken = continuationToken;
+
+        ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final BlobItemPage page = StorageClientSDKManager.getManager().getBlobItemsPage(
+                            loadingConnectionString, loadingDirectory, loadingPrefix, PAGE_SIZE, loadingToken);
+
+                    SwingUtilities.invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (loadingListingId != listingId) {
+                                return;
+                            }
+
+                            isLoading = false;
+                            isLastLoadFailed = false;
+                            appendPage(page);
+
+                            if (page.getItems().isEmpty() && hasMore()) {
+                                loadNextPage(onLoaded);
+                            } else if (onLoaded != null) {
+                                onLoaded.run();
+                            }
+                        }
+                    });
+                } catch (final AzureCmdException ex) {
+                    SwingUtilities.invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (loadingListingId != listingId) {
+                                return;
+                            }
+
+                            isLoading = false;
+
+                            String msg = "An error occurred while attempting to query blob list." + "\n" + String.format(message("webappExpMsg"), ex.getMessage());
+                            if (isLastLoadFailed) {
+                                LOG.warn(msg, ex);
+                            } else {
+                                isLastLoadFailed = true;
+                                PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, ex);
+                            }
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    @NotNull
+    public BlobItem getBlobItemAt(int row) {
+        return blobItems.get(row);
+    }
+
+    /**
+     * Get the blob items listed so far
+     *
+     * @return the blob items of the pages listed
+     */
+    @NotNull
+    public List<BlobItem> getBlobItems() {
+        return Collections.unmodifiableList(blobItems);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return (column == 0) ? Icon.class : String.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return rows.get(row)[column];
+    }
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// runs the selected benchmarks once for each thread count, e.g. BenchmarkRunner TokenCache 1,4,16
+public final class BenchmarkRunner {
+	private BenchmarkRunner() {
+	}
+
+	public static void main(final String[] args) throws RunnerException {
+		final String include = args.length > 0 ? args[0] : ".*";
+		final String threadCounts = args.length > 1 ? args[1] : "1,4,16";
+		for (final String threadCount : threadCounts.split(",")) {
+			final Options options = new OptionsBuilder()
+					.include(BenchmarkRunner.class.getPackage().getName() + ".*" + include)
+					.threads(Integer.parseInt(threadCount.trim()))
+					.build();
+			new Runner(options).run();
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// SimpleAuthenticationFilter.doFilter end to end for the three common kinds of request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+	private final HttpServletResponse httpResponse = MockServlets.createResponse();
+
+	private final FilterChain chain = MockServlets.createFilterChain();
+
+	private HttpServletRequest authorisedRequest;
+	private HttpServletRequest excludedRequest;
+	private HttpServletRequest unauthenticatedRequest;
+
+	@Setup
+	public void setUp(final FilterState filterState) {
+		authorisedRequest = MockServlets.createRequest("/authorised/report.xhtml",
+				new Cookie("id_token", filterState.tokenString));
+		excludedRequest = MockServlets.createRequest("/static/application.js");
+		unauthenticatedRequest = MockServlets.createRequest("/private/index.xhtml");
+	}
+
+	// cached token, matching authorisation rule and cached role membership
+	@Benchmark
+	public void authorised(final FilterState filterState) throws IOException, ServletException {
+		filterState.filter.doFilter(authorisedRequest, httpResponse, chain);
+	}
+
+	@Benchmark
+	public void excluded(final FilterState filterState) throws IOException, ServletException {
+		filterState.filter.doFilter(excludedRequest, httpResponse, chain);
+	}
+
+	// no token, so the filter builds the redirect to the authorize end-point
+	@Benchmark
+	public void unauthenticated(final FilterState filterState) throws IOException, ServletException {
+		filterState.filter.doFilter(unauthenticatedRequest, httpResponse, chain);
+	}
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletException;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.configuration.Configuration;
+import com.microsoft.azure.oidc.filter.configuration.authentication.impl.SimpleAuthenticationConfigurationService;
+import com.microsoft.azure.oidc.filter.impl.SimpleAuthenticationFilter;
+
+// an initialised filter whose configuration and role caches are primed locally, so no request leaves the machine
+@State(Scope.Benchmark)
+public class FilterState {
+	static final String USER_ID = "00000000-0000-0000-0000-0000000000aa";
+
+	// the key SimpleConfigurationCache stores its single configuration under
+	private static final String CONFIGURATION_KEY = "SINGLE";
+
+	private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
+
+	SimpleAuthenticationFilter filter;
+	LocalKeyStore keyStore;
+	Configuration configuration;
+	String applicationId;
+	String tokenString;
+
+	@Setup(Level.Trial)
+	public void setUp() throws ServletException {
+		applicationId = System.getenv("AAD_APPLICATION_ID");
+		if (applicationId == null) {
+			throw new IllegalStateException("AAD_APPLICATION_ID is not set, run the benchmarks with gradle jmh");
+		}
+		final Map<String, String> initParameters = new HashMap<String, String>();
+		initParameters.put("authenticationConfiguration", "/configuration/authentication.json");
+		initParameters.put("algorithmConfiguration", "/configuration/algorithm.json");
+		initParameters.put("tokenCacheSize", "1000");
+		initParameters.put("securityCacheSize", "1000");
+		filter = new SimpleAuthenticationFilter();
+		filter.init(MockServlets.createFilterConfig(initParameters));
+
+		keyStore = new LocalKeyStore();
+		configuration = keyStore.createConfiguration();
+		concurrentCacheService.getCache(Configuration.class, "configurationCache").putIfAbsent(CONFIGURATION_KEY,
+				configuration);
+		final ConcurrentCache<String, Boolean> roleCache = concurrentCacheService.getCache(Boolean.class,
+				"roleCache");
+		for (final String role : SimpleAuthenticationConfigurationService.getInstance().get()
+				.getAuthorisationRoleSet()) {
+			roleCache.putIfAbsent(String.format("%s:%s", USER_ID, role), Boolean.TRUE);
+		}
+		tokenString = createToken(USER_ID);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		filter.destroy();
+	}
+
+	String createToken(final String userID) {
+		return keyStore.createToken(applicationId, userID, System.currentTimeMillis() / 1000 + 3600);
+	}
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.benchmark;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.codec.binary.Base64;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.microsoft.azure.oidc.common.algorithm.Algorithm;
+import com.microsoft.azure.oidc.common.algorithm.impl.SimpleAlgorithmFactory;
+import com.microsoft.azure.oidc.common.issuer.impl.SimpleIssuerFactory;
+import com.microsoft.azure.oidc.common.mapper.impl.SimpleMapperHelper;
+import com.microsoft.azure.oidc.common.name.Name;
+import com.microsoft.azure.oidc.configuration.Configuration;
+import com.microsoft.azure.oidc.configuration.endpoint.impl.SimpleEndPointFactory;
+import com.microsoft.azure.oidc.configuration.impl.SimpleConfigurationFactory;
+import com.microsoft.azure.oidc.configuration.key.Key;
+import com.microsoft.azure.oidc.configuration.key.impl.SimplePublicKeyFactory;
+import com.microsoft.azure.oidc.exception.GeneralException;
+import com.microsoft.azure.oidc.openid.keystore.impl.SimpleKeyStoreParser;
+
+// stands in for the B2C JWKS end-point: an RSA key generated at start-up signs the benchmark tokens
+final class LocalKeyStore {
+	static final String KEY_NAME = "benchmark-key";
+	static final String ALGORITHM_NAME = "RS256";
+	static final String ISSUER = "https://login.microsoftonline.com/benchmark/v2.0/";
+
+	private static final String JAVA_ALGORITHM_NAME = "SHA256withRSA";
+
+	private final ObjectMapper mapper = SimpleMapperHelper.getInstance().getObjectMapper();
+
+	private final KeyPair keyPair;
+
+	LocalKeyStore() {
+		try {
+			final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+			generator.initialize(2048);
+			keyPair = generator.generateKeyPair();
+		} catch (GeneralSecurityException e) {
+			throw new GeneralException("Error generating key pair", e);
+		}
+	}
+
+	JsonNode getKeyStore() {
+		final RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+		final ObjectNode key = mapper.createObjectNode();
+		key.put("kid", KEY_NAME);
+		key.put("kty", "RSA");
+		key.put("use", "sig");
+		key.put("n", encode(publicKey.getModulus()));
+		key.put("e", encode(publicKey.getPublicExponent()));
+		final ObjectNode keyStore = mapper.createObjectNode();
+		keyStore.putArray("keys").add(key);
+		return keyStore;
+	}
+
+	// built the same way SimpleConfigurationLoader builds it from the well known and JWKS end-points
+	Configuration createConfiguration() {
+		final Map<Name, Key> keys = SimpleKeyStoreParser.getInstance().getKeys(getKeyStore());
+		final Map<Name, PublicKey> publicKeys = new HashMap<Name, PublicKey>();
+		for (final Map.Entry<Name, Key> entry : keys.entrySet()) {
+			publicKeys.put(entry.getKey(), SimplePublicKeyFactory.getInstance().createPublicKey(entry.getValue()));
+		}
+		final List<Algorithm> algorithms = Arrays
+				.asList(SimpleAlgorithmFactory.getInstanc().createAlgorithm(ALGORITHM_NAME));
+		return SimpleConfigurationFactory.getInstance().createConfiguration(algorithms, keys, publicKeys,
+				SimpleIssuerFactory.getInstance().createIssuer(ISSUER),
+				SimpleEndPointFactory.getInstance().createEndPoint(ISSUER + "authorize"),
+				SimpleEndPointFactory.getInstance().createEndPoint(ISSUER + "logout"));
+	}
+
+	String createToken(final String audience, final String userID, final long expiration) {
+		final long now = System.currentTimeMillis() / 1000;
+		final ObjectNode header = mapper.createObjectNode();
+		header.put("typ", "JWT");
+		header.put("alg", ALGORITHM_NAME);
+		header.put("kid", KEY_NAME);
+		final ObjectNode body = mapper.createObjectNode();
+		body.put("iss", ISSUER);
+		body.put("aud", audience);
+		body.put("oid", userID);
+		body.put("iat", now);
+		body.put("nbf", now);
+		body.put("exp", expiration);
+		final ArrayNode emails = body.putArray("emails");
+		emails.add(userID + "@benchmark.onmicrosoft.com");
+		try {
+			final String payload = Base64.encodeBase64URLSafeString(mapper.writeValueAsBytes(header)) + "."
+					+ Base64.encodeBase64URLSafeString(mapper.writeValueAsBytes(body));
+			final Signature signature = Signature.getInstance(JAVA_ALGORITHM_NAME);
+			signature.initSign(keyPair.getPrivate());
+			signature.update(payload.getBytes("UTF-8"));
+			return payload + "." + Base64.encodeBase64URLSafeString(signature.sign());
+		} catch (GeneralSecurityException | IOException e) {
+			throw new GeneralException("Error signing token", e);
+		}
+	}
+
+	private static String encode(final BigInteger value) {
+		final byte[] bytes = value.toByteArray();
+		if (bytes[0] == 0 && bytes.length > 1) {
+			return Base64.encodeBase64URLSafeString(Arrays.copyOfRange(bytes, 1, bytes.length));
+		}
+		return Base64.encodeBase64URLSafeString(bytes);
+	}
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// servlet objects backed by dynamic proxies; methods the filter does not use return null, false or zero
+final class MockServlets {
+	private static final String SERVER_NAME = "localhost";
+
+	private MockServlets() {
+	}
+
+	static HttpServletRequest createRequest(final String requestURI, final Cookie... cookies) {
+		return createProxy(HttpServletRequest.class, new InvocationHandler() {
+			@Override
+			public Object invoke(final Object proxy, final Method method, final Object[] args) {
+				switch (method.getName()) {
+				case "getRequestURI":
+					return requestURI;
+				case "getContextPath":
+					return "";
+				case "getServerName":
+					return SERVER_NAME;
+				case "getCookies":
+					return cookies.length == 0 ? null : cookies;
+				default:
+					return getDefaultValue(method.getReturnType());
+				}
+			}
+		});
+	}
+
+	static HttpServletResponse createResponse() {
+		return createProxy(HttpServletResponse.class, new InvocationHandler() {
+			@Override
+			public Object invoke(final Object proxy, final Method method, final Object[] args) {
+				return getDefaultValue(method.getReturnType());
+			}
+		});
+	}
+
+	static FilterChain createFilterChain() {
+		return new FilterChain() {
+			@Override
+			public void doFilter(final ServletRequest request, final ServletResponse response) {
+			}
+		};
+	}
+
+	// resources are read from the benchmark classpath instead of the web application
+	static FilterConfig createFilterConfig(final Map<String, String> initParameters) {
+		final ServletContext servletContext = createProxy(ServletContext.class, new InvocationHandler() {
+			@Override
+			public Object invoke(final Object proxy, final Method method, final Object[] args) {
+				if ("getResourceAsStream".equals(method.getName())) {
+					return MockServlets.class.getResourceAsStream((String) args[0]);
+				}
+				return getDefaultValue(method.getReturnType());
+			}
+		});
+		return createProxy(FilterConfig.class, new InvocationHandler() {
+			@Override
+			public Object invoke(final Object proxy, final Method method, final Object[] args) {
+				switch (method.getName()) {
+				case "getInitParameter":
+					return initParameters.get(args[0]);
+				case "getInitParameterNames":
+					return Collections.enumeration(initParameters.keySet());
+				case "getServletContext":
+					return servletContext;
+				case "getFilterName":
+					return "authenticationFilter";
+				default:
+					return getDefaultValue(method.getReturnType());
+				}
+			}
+		});
+	}
+
+	private static <T> T createProxy(final Class<T> clazz, final InvocationHandler handler) {
+		return clazz.cast(Proxy.newProxyInstance(MockServlets.class.getClassLoader(), new Class<?>[] { clazz }, handler));
+	}
+
+	private static Object getDefaultValue(final Class<?> clazz) {
+		if (!clazz.isPrimitive() || clazz == void.class) {
+			return null;
+		}
+		if (clazz == boolean.class) {
+			return Boolean.FALSE;
+		}
+		if (clazz == long.class) {
+			return 0L;
+		}
+		return 0;
+	}
+}
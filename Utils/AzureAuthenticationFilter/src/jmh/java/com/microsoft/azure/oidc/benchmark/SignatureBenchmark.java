@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.benchmark;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.binary.Base64;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.microsoft.azure.oidc.configuration.key.Key;
+import com.microsoft.azure.oidc.token.Token;
+import com.microsoft.azure.oidc.token.TokenValidator;
+import com.microsoft.azure.oidc.token.impl.SimpeTokenParser;
+import com.microsoft.azure.oidc.token.impl.SimpleTokenValidator;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureBenchmark {
+	private final TokenValidator tokenValidator = SimpleTokenValidator.getInstance();
+
+	private Token token;
+	private Key key;
+
+	@Setup
+	public void setUp(final FilterState filterState) {
+		token = SimpeTokenParser.getInstance().getToken(filterState.tokenString);
+		key = filterState.configuration.getKey(token.getKeyName());
+	}
+
+	@Benchmark
+	public Boolean validateSignature() {
+		return tokenValidator.validateSignature(token);
+	}
+
+	// the verification as it was before public keys were cached: key and Signature rebuilt for every token
+	@Benchmark
+	public Boolean validateSignatureRebuildingKey() throws GeneralSecurityException {
+		final BigInteger exponent = new BigInteger(1, Base64.decodeBase64(key.getExponent().getValue()));
+		final BigInteger modulus = new BigInteger(1, Base64.decodeBase64(key.getSecret().getValue()));
+		final PublicKey pubKey = KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(modulus, exponent));
+		final Signature sig = Signature.getInstance("SHA256withRSA");
+		sig.initVerify(pubKey);
+		sig.update(token.getPayload().getValue().getBytes());
+		return sig.verify(Base64.decodeBase64(token.getSignature().getValue()));
+	}
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.microsoft.azure.oidc.filter.helper.AuthenticationHelper;
+import com.microsoft.azure.oidc.filter.helper.impl.SimpleAuthenticationHelper;
+import com.microsoft.azure.oidc.token.Token;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenCacheBenchmark {
+	// more tokens per thread than the token cache holds, so cycling through them always misses
+	private static final int MISS_TOKEN_COUNT = 2048;
+
+	private final AuthenticationHelper authenticationHelper = SimpleAuthenticationHelper.getInstance();
+
+	@State(Scope.Thread)
+	public static class MissTokens {
+		private String[] tokenStrings;
+		private int next;
+
+		@Setup
+		public void setUp(final FilterState filterState) {
+			tokenStrings = new String[MISS_TOKEN_COUNT];
+			for (int i = 0; i < tokenStrings.length; i++) {
+				tokenStrings[i] = filterState.createToken(UUID.randomUUID().toString());
+			}
+		}
+
+		String next() {
+			final String tokenString = tokenStrings[next];
+			next = (next + 1) % tokenStrings.length;
+			return tokenString;
+		}
+	}
+
+	@Benchmark
+	public Token hit(final FilterState filterState) {
+		return authenticationHelper.getValidToken(filterState.tokenString);
+	}
+
+	@Benchmark
+	public Token miss(final MissTokens missTokens) {
+		return authenticationHelper.getValidToken(missTokens.next());
+	}
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfiguration;
+import com.microsoft.azure.oidc.filter.configuration.authentication.impl.SimpleAuthenticationConfigurationFactory;
+
+// compares the precompiled matcher with testing each rule's regex in turn, as the filter used to
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UriMatcherBenchmark {
+	@Param({ "10", "100", "1000" })
+	private int ruleCount;
+
+	@Param({ "first", "last", "none" })
+	private String target;
+
+	private AuthenticationConfiguration authenticationConfiguration;
+	private String uriString;
+
+	// a mix of literal, trailing wildcard and inner wildcard rules, roughly as a real application would have
+	@Setup
+	public void setUp() {
+		final List<String> authorisationUriPatternList = new ArrayList<String>();
+		final Map<String, List<String>> authorisationRoleMap = new HashMap<String, List<String>>();
+		for (int i = 0; i < ruleCount; i++) {
+			final String pattern;
+			switch (i % 3) {
+			case 0:
+				pattern = String.format("/page%d.xhtml", i);
+				break;
+			case 1:
+				pattern = String.format("/area%d/*", i);
+				break;
+			default:
+				pattern = String.format("/reports%d/*/summary", i);
+				break;
+			}
+			authorisationUriPatternList.add(pattern);
+			authorisationRoleMap.put(pattern, Arrays.asList("JavaEEManagers"));
+		}
+		authenticationConfiguration = SimpleAuthenticationConfigurationFactory.getInstance()
+				.createAuthenticationConfiguration(new ArrayList<String>(), authorisationUriPatternList,
+						authorisationRoleMap);
+		switch (target) {
+		case "first":
+			uriString = "/page0.xhtml";
+			break;
+		case "last":
+			uriString = String.format("/area%d/index.xhtml", ruleCount - ruleCount % 3 - 2);
+			break;
+		default:
+			uriString = "/unmatched/index.xhtml";
+			break;
+		}
+	}
+
+	@Benchmark
+	public int uriMatcher() {
+		return authenticationConfiguration.getAuthorisationUriMatcher().getFirstMatchIndex(uriString);
+	}
+
+	@Benchmark
+	public int linearRegex() {
+		int index = 0;
+		for (final Pattern pattern : authenticationConfiguration.getAuthorisationRegexPatternList()) {
+			if (pattern.matcher(uriString).matches()) {
+				return index;
+			}
+			index++;
+		}
+		return -1;
+	}
+}
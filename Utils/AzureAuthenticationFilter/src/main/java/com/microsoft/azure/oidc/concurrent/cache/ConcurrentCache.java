@@ -27,6 +27,18 @@ public interface ConcurrentCache<K, V> {
 
 	V putIfAbsent(K key, V value);
 
+	V remove(Object key);
+
+	Long size();
+
+	Long getHitCount();
+
+	Long getMissCount();
+
+	Long getEvictionCount();
+
+	Long getExpirationCount();
+
 	void shutdownNow();
 
 }
\ No newline at end of file
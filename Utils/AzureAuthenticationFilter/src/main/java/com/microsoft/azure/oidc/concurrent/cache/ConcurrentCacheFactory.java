@@ -24,4 +24,6 @@ package com.microsoft.azure.oidc.concurrent.cache;
 public interface ConcurrentCacheFactory<K, V> {
 
 	ConcurrentCache<K, V> createConcurrentCache(Long ttl, Long maxSize);
+
+	ConcurrentCache<K, V> createConcurrentCache(String implementation, Long ttl, Long maxSize);
 }
@@ -25,6 +25,9 @@ public interface ConcurrentCacheService {
 
 	<V> ConcurrentCache<String, V> createCache(Class<V> clazzV, String name, Long ttl, Long maxSize);
 
+	<V> ConcurrentCache<String, V> createCache(Class<V> clazzV, String name, String implementation, Long ttl,
+			Long maxSize);
+
 	<V> ConcurrentCache<String, V> getCache(Class<V> clazzV, String name);
 
 	void shutdownNow();
@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.concurrent.cache.impl;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+import com.microsoft.azure.oidc.exception.PreconditionException;
+
+/**
+ * A cache with lock-free reads and writes. Once the cache is over its maximum size the oldest entries are evicted in
+ * insertion order (FIFO), reads don't change that order. Entries are also dropped by a background sweep once their
+ * TTL has passed.
+ */
+public final class LockFreeConcurrentCache<K, V> implements ConcurrentCache<K, V> {
+	private final ConcurrentMap<K, Entry<K, V>> storeMap = new ConcurrentHashMap<K, Entry<K, V>>();
+	private final Queue<Entry<K, V>> insertionQueue = new ConcurrentLinkedQueue<Entry<K, V>>();
+	private final AtomicLong size = new AtomicLong();
+	// entries still queued after being removed or replaced in the store map
+	private final AtomicLong deadEntryCount = new AtomicLong();
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+	private final AtomicLong expirationCount = new AtomicLong();
+	private final ScheduledExecutorService scheduledExecutorService;
+	private final Long ttl;
+	private final Long maxSize;
+	private final long maxDeadEntryCount;
+
+	public LockFreeConcurrentCache(final Long ttl, final Long maxSize) {
+		if (ttl == null || maxSize == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		this.ttl = ttl * 60000;
+		this.maxSize = maxSize;
+		this.maxDeadEntryCount = Math.max(16L, maxSize / 2);
+		this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable runnable) {
+				final Thread thread = new Thread(runnable, "oidc-cache-expiry");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		final long period = Math.max(1000L, Math.min(this.ttl, 60000L));
+		scheduledExecutorService.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				removeExpired();
+			}
+		}, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public V get(final Object key) {
+		final Entry<K, V> entry = storeMap.get(key);
+		if (entry == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+		if (entry.isExpired(System.currentTimeMillis())) {
+			if (storeMap.remove(key, entry)) {
+				size.decrementAndGet();
+				expirationCount.incrementAndGet();
+				markDead();
+			}
+			missCount.incrementAndGet();
+			return null;
+		}
+		hitCount.incrementAndGet();
+		return entry.getValue();
+	}
+
+	@Override
+	public V putIfAbsent(final K key, final V value) {
+		final Entry<K, V> entry = new Entry<K, V>(key, value, System.currentTimeMillis() + ttl);
+		boolean added;
+		while (true) {
+			final Entry<K, V> existing = storeMap.putIfAbsent(key, entry);
+			if (existing == null) {
+				added = true;
+				break;
+			}
+			if (!existing.isExpired(System.currentTimeMillis())) {
+				return existing.getValue();
+			}
+			if (storeMap.replace(key, existing, entry)) {
+				expirationCount.incrementAndGet();
+				markDead();
+				added = false;
+				break;
+			}
+		}
+		// queue the entry before counting it, so an over-sized cache always has an entry to evict
+		insertionQueue.offer(entry);
+		if (added) {
+			size.incrementAndGet();
+		}
+		evictOverflow();
+		return null;
+	}
+
+	@Override
+	public V remove(final Object key) {
+		final Entry<K, V> entry = storeMap.remove(key);
+		if (entry == null) {
+			return null;
+		}
+		size.decrementAndGet();
+		markDead();
+		return entry.getValue();
+	}
+
+	@Override
+	public Long size() {
+		return size.get();
+	}
+
+	@Override
+	public Long getHitCount() {
+		return hitCount.get();
+	}
+
+	@Override
+	public Long getMissCount() {
+		return missCount.get();
+	}
+
+	@Override
+	public Long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	@Override
+	public Long getExpirationCount() {
+		return expirationCount.get();
+	}
+
+	@Override
+	public void shutdownNow() {
+		scheduledExecutorService.shutdownNow();
+	}
+
+	private void evictOverflow() {
+		while (size.get() > maxSize) {
+			final Entry<K, V> oldest = insertionQueue.poll();
+			if (oldest == null) {
+				return;
+			}
+			if (!oldest.dequeue()) {
+				continue;
+			}
+			if (storeMap.remove(oldest.getKey(), oldest)) {
+				size.decrementAndGet();
+				evictionCount.incrementAndGet();
+			} else {
+				deadEntryCount.decrementAndGet();
+			}
+		}
+	}
+
+	// removed and replaced entries stay queued until they reach the head of the queue, so once there are too many of
+	// them they are unlinked in one pass. That keeps the queue within maxSize plus maxDeadEntryCount entries, at an
+	// amortized O(1) cost per removal
+	private void markDead() {
+		if (deadEntryCount.incrementAndGet() <= maxDeadEntryCount) {
+			return;
+		}
+		for (final Iterator<Entry<K, V>> iterator = insertionQueue.iterator(); iterator.hasNext();) {
+			final Entry<K, V> entry = iterator.next();
+			if (storeMap.get(entry.getKey()) != entry && entry.dequeue()) {
+				iterator.remove();
+				deadEntryCount.decrementAndGet();
+			}
+		}
+	}
+
+	// every entry shares the same ttl, so insertion order is also expiry order and the sweep can stop at the
+	// first live entry
+	private void removeExpired() {
+		final long now = System.currentTimeMillis();
+		for (Entry<K, V> oldest = insertionQueue.peek(); oldest != null
+				&& oldest.isExpired(now); oldest = insertionQueue.peek()) {
+			if (insertionQueue.remove(oldest) && oldest.dequeue()) {
+				if (storeMap.remove(oldest.getKey(), oldest)) {
+					size.decrementAndGet();
+					expirationCount.incrementAndGet();
+				} else {
+					deadEntryCount.decrementAndGet();
+				}
+			}
+		}
+	}
+
+	private static final class Entry<K, V> {
+		private final K key;
+		private final V value;
+		private final long expiryTime;
+		private final AtomicBoolean dequeued = new AtomicBoolean();
+
+		Entry(final K key, final V value, final long expiryTime) {
+			this.key = key;
+			this.value = value;
+			this.expiryTime = expiryTime;
+		}
+
+		K getKey() {
+			return key;
+		}
+
+		V getValue() {
+			return value;
+		}
+
+		boolean isExpired(final long now) {
+			return expiryTime < now;
+		}
+
+		// only the first of the threads taking the entry off the queue accounts for it
+		boolean dequeue() {
+			return dequeued.compareAndSet(false, true);
+		}
+	}
+}
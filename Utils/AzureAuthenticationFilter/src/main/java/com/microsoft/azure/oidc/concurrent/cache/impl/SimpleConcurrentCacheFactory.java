@@ -23,14 +23,29 @@ package com.microsoft.azure.oidc.concurrent.cache.impl;
 
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheFactory;
+import com.microsoft.azure.oidc.exception.PreconditionException;
 
 public class SimpleConcurrentCacheFactory<K, V> implements ConcurrentCacheFactory<K, V> {
+	public static final String TTL = "ttl";
+	public static final String LOCK_FREE = "lockFree";
+
 	@SuppressWarnings("rawtypes")
 	private static final ConcurrentCacheFactory INSTANCE = new SimpleConcurrentCacheFactory();
 
 	@Override
 	public ConcurrentCache<K, V> createConcurrentCache(Long ttl, Long maxSize) {
-		return new TTLConcurrentCache<K, V>(ttl, maxSize);
+		return createConcurrentCache(LOCK_FREE, ttl, maxSize);
+	}
+
+	@Override
+	public ConcurrentCache<K, V> createConcurrentCache(String implementation, Long ttl, Long maxSize) {
+		if (implementation == null || LOCK_FREE.equals(implementation)) {
+			return new LockFreeConcurrentCache<K, V>(ttl, maxSize);
+		}
+		if (TTL.equals(implementation)) {
+			return new TTLConcurrentCache<K, V>(ttl, maxSize);
+		}
+		throw new PreconditionException(String.format("Unknown cache implementation: %s", implementation));
 	}
 
 	@SuppressWarnings("unchecked")
@@ -36,10 +36,17 @@ public class SimpleConcurrentCacheService implements ConcurrentCacheService {
 
 	private final Map<String, ConcurrentCache<String, Object>> cacheMap = new HashMap<String, ConcurrentCache<String, Object>>();
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public <V> ConcurrentCache<String, V> createCache(Class<V> clazzV, String name, Long ttl, Long maxSize) {
-		final ConcurrentCache<String, Object> concurrentCache = concurrentCacheFactory.createConcurrentCache(ttl, maxSize);
+		return createCache(clazzV, name, null, ttl, maxSize);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <V> ConcurrentCache<String, V> createCache(Class<V> clazzV, String name, String implementation, Long ttl,
+			Long maxSize) {
+		final ConcurrentCache<String, Object> concurrentCache = concurrentCacheFactory
+				.createConcurrentCache(implementation, ttl, maxSize);
 		cacheMap.put(name, concurrentCache);
 		return (ConcurrentCache<String, V>) concurrentCache;
 	}
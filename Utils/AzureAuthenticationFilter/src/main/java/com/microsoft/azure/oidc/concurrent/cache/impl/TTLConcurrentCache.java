@@ -29,6 +29,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
 
@@ -37,6 +38,10 @@ public final class TTLConcurrentCache<K, V> implements ConcurrentCache<K, V> {
 	private final ConcurrentMap<K, Long> timestampMap = new ConcurrentHashMap<K, Long>();
 	private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
 	private final List<K> oldestKey = new LinkedList<K>();
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+	private final AtomicLong expirationCount = new AtomicLong();
 	private final Long ttl;
 	private final Long maxSize;
 
@@ -54,6 +59,7 @@ public final class TTLConcurrentCache<K, V> implements ConcurrentCache<K, V> {
 							timestampMap.remove(key);
 							storeMap.remove(key);
 							iterator.remove();
+							expirationCount.incrementAndGet();
 						}
 						break;
 					}
@@ -65,7 +71,13 @@ public final class TTLConcurrentCache<K, V> implements ConcurrentCache<K, V> {
 	@Override
 	public V get(Object key) {
 		removeIfExpired(key);
-		return storeMap.get(key);
+		final V value = storeMap.get(key);
+		if (value == null) {
+			missCount.incrementAndGet();
+		} else {
+			hitCount.incrementAndGet();
+		}
+		return value;
 	}
 
 	@Override
@@ -76,6 +88,7 @@ public final class TTLConcurrentCache<K, V> implements ConcurrentCache<K, V> {
 				timestampMap.remove(oldest);
 				storeMap.remove(oldest);
 				oldestKey.remove(0);
+				evictionCount.incrementAndGet();
 			}
 			if (!oldestKey.contains(key)) {
 				oldestKey.add(key);
@@ -85,6 +98,40 @@ public final class TTLConcurrentCache<K, V> implements ConcurrentCache<K, V> {
 		}
 	}
 
+	@Override
+	public V remove(Object key) {
+		synchronized (timestampMap) {
+			timestampMap.remove(key);
+			oldestKey.remove(key);
+			return storeMap.remove(key);
+		}
+	}
+
+	@Override
+	public Long size() {
+		return Long.valueOf(storeMap.size());
+	}
+
+	@Override
+	public Long getHitCount() {
+		return hitCount.get();
+	}
+
+	@Override
+	public Long getMissCount() {
+		return missCount.get();
+	}
+
+	@Override
+	public Long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	@Override
+	public Long getExpirationCount() {
+		return expirationCount.get();
+	}
+
 	@Override
 	public void shutdownNow() {
 		scheduledExecutorService.shutdownNow();
@@ -96,6 +143,7 @@ public final class TTLConcurrentCache<K, V> implements ConcurrentCache<K, V> {
 				timestampMap.remove(key);
 				storeMap.remove(key);
 				oldestKey.remove(key);
+				expirationCount.incrementAndGet();
 			}
 		}
 	}
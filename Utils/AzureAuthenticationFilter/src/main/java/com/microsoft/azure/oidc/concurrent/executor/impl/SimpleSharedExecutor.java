@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.concurrent.executor.impl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.microsoft.azure.oidc.concurrent.executor.SharedExecutor;
+import com.microsoft.azure.oidc.exception.PreconditionException;
+
+public final class SimpleSharedExecutor implements SharedExecutor {
+	private static final SharedExecutor INSTANCE = new SimpleSharedExecutor();
+	private static final Integer DEFAULT_CONCURRENCY = 10;
+	private static final Integer QUEUE_CAPACITY = 1000;
+
+	private ThreadPoolExecutor executorService;
+
+	@Override
+	public synchronized void initialise(final Integer concurrency) {
+		if (concurrency == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		if (concurrency < 1) {
+			throw new PreconditionException("Concurrency must be at least 1");
+		}
+		if (executorService != null) {
+			executorService.shutdown();
+		}
+		executorService = createExecutorService(concurrency);
+	}
+
+	@Override
+	public <T> Future<T> submit(final Callable<T> callable) {
+		if (callable == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		return getExecutorService().submit(callable);
+	}
+
+	@Override
+	public void execute(final Runnable runnable) {
+		if (runnable == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		getExecutorService().execute(runnable);
+	}
+
+	@Override
+	public synchronized void shutdownNow() {
+		if (executorService != null) {
+			executorService.shutdownNow();
+			executorService = null;
+		}
+	}
+
+	private synchronized ThreadPoolExecutor getExecutorService() {
+		if (executorService == null) {
+			executorService = createExecutorService(DEFAULT_CONCURRENCY);
+		}
+		return executorService;
+	}
+
+	// a full queue runs the task on the requesting thread rather than failing the request
+	private ThreadPoolExecutor createExecutorService(final Integer concurrency) {
+		final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(concurrency, concurrency, 60L,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(QUEUE_CAPACITY), new ThreadFactory() {
+					private final AtomicInteger threadNumber = new AtomicInteger();
+
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						final Thread thread = new Thread(runnable,
+								String.format("oidc-loader-%d", threadNumber.incrementAndGet()));
+						thread.setDaemon(true);
+						return thread;
+					}
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+		threadPoolExecutor.allowCoreThreadTimeOut(true);
+		return threadPoolExecutor;
+	}
+
+	public static SharedExecutor getInstance() {
+		return INSTANCE;
+	}
+}
@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.concurrent.flight.impl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import com.microsoft.azure.oidc.concurrent.executor.SharedExecutor;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleSharedExecutor;
+import com.microsoft.azure.oidc.concurrent.flight.SingleFlight;
+import com.microsoft.azure.oidc.exception.PreconditionException;
+
+public final class SimpleSingleFlight<K, V> implements SingleFlight<K, V> {
+	private final ConcurrentMap<K, FutureTask<V>> inFlightMap = new ConcurrentHashMap<K, FutureTask<V>>();
+
+	private final SharedExecutor sharedExecutor = SimpleSharedExecutor.getInstance();
+
+	@Override
+	public Future<V> execute(final K key, final Callable<V> callable) {
+		if (key == null || callable == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		final FutureTask<V> task = new FutureTask<V>(callable) {
+			@Override
+			protected void done() {
+				inFlightMap.remove(key, this);
+			}
+		};
+		final FutureTask<V> inFlight = inFlightMap.putIfAbsent(key, task);
+		if (inFlight != null) {
+			return inFlight;
+		}
+		sharedExecutor.execute(task);
+		return task;
+	}
+
+	@Override
+	public Boolean isInFlight(final K key) {
+		return inFlightMap.containsKey(key);
+	}
+}
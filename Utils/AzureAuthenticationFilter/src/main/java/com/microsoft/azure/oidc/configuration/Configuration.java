@@ -21,6 +21,7 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.configuration;
 
+import java.security.PublicKey;
 import java.util.List;
 import java.util.Map;
 
@@ -38,6 +39,10 @@ public interface Configuration {
 
 	Key getKey(Name name);
 
+	Map<Name, PublicKey> getPublicKeys();
+
+	PublicKey getPublicKey(Name name);
+
 	Issuer getIssuer();
 	
 	EndPoint getAuthenticationEndPoint();
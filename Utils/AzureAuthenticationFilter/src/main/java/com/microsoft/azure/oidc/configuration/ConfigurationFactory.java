@@ -21,6 +21,7 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.configuration;
 
+import java.security.PublicKey;
 import java.util.List;
 import java.util.Map;
 
@@ -32,7 +33,7 @@ import com.microsoft.azure.oidc.configuration.key.Key;
 
 public interface ConfigurationFactory {
 
-	Configuration createConfiguration(List<Algorithm> algorithms, Map<Name, Key> keys, Issuer issuer,
-			EndPoint authenticationEndPoint, EndPoint logoutEndPoint);
+	Configuration createConfiguration(List<Algorithm> algorithms, Map<Name, Key> keys,
+			Map<Name, PublicKey> publicKeys, Issuer issuer, EndPoint authenticationEndPoint, EndPoint logoutEndPoint);
 
 }
\ No newline at end of file
@@ -21,8 +21,13 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.configuration.impl;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
 import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.flight.SingleFlight;
+import com.microsoft.azure.oidc.concurrent.flight.impl.SimpleSingleFlight;
 import com.microsoft.azure.oidc.configuration.Configuration;
 import com.microsoft.azure.oidc.configuration.ConfigurationCache;
 import com.microsoft.azure.oidc.configuration.ConfigurationLoader;
@@ -31,6 +36,7 @@ import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
 
 public class SimpleConfigurationCache implements ConfigurationCache {
 	private static final ConfigurationCache INSTANCE = new SimpleConfigurationCache();
+	private static final String KEY = "SINGLE";
 
 	private final ConfigurationLoader configurationLoader = SimpleConfigurationLoader.getInstance();
 
@@ -38,19 +44,38 @@ public class SimpleConfigurationCache implements ConfigurationCache {
 
 	private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
 
+	private final SingleFlight<String, Configuration> singleFlight = new SimpleSingleFlight<String, Configuration>();
+
+	private volatile Configuration lastConfiguration;
+
+	// once a configuration has been loaded an expired entry is served stale while a single background reload
+	// replaces it, so requests only wait on the very first load
 	@Override
 	public Configuration load() {
-		final String key = "SINGLE";
-		final Configuration entry = concurrentCacheService.getCache(Configuration.class, "configurationCache").get(key);
+		final Configuration entry = concurrentCacheService.getCache(Configuration.class, "configurationCache").get(KEY);
 		if (entry != null) {
 			return entry;
 		}
-		final Configuration result = futureHelper.getResult(configurationLoader.loadAsync());
-		if (result == null) {
-			return result;
+		final Future<Configuration> future = reload();
+		final Configuration staleEntry = lastConfiguration;
+		if (staleEntry != null) {
+			return staleEntry;
 		}
-		concurrentCacheService.getCache(Configuration.class, "configurationCache").putIfAbsent(key, result);
-		return result;
+		return futureHelper.getResult(future);
+	}
+
+	private Future<Configuration> reload() {
+		return singleFlight.execute(KEY, new Callable<Configuration>() {
+			public Configuration call() throws Exception {
+				final Configuration result = configurationLoader.load();
+				if (result == null) {
+					return lastConfiguration;
+				}
+				concurrentCacheService.getCache(Configuration.class, "configurationCache").putIfAbsent(KEY, result);
+				lastConfiguration = result;
+				return result;
+			}
+		});
 	}
 
 	public static ConfigurationCache getInstance() {
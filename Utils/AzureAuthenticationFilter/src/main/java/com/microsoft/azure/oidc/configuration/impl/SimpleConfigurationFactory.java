@@ -21,6 +21,7 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.configuration.impl;
 
+import java.security.PublicKey;
 import java.util.List;
 import java.util.Map;
 
@@ -38,15 +39,16 @@ public final class SimpleConfigurationFactory implements ConfigurationFactory {
 
 	@Override
 	public Configuration createConfiguration(final List<Algorithm> algorithms, final Map<Name, Key> keys,
-			final Issuer issuer, final EndPoint authenticationEndPoint, final EndPoint logoutEndPoint) {
-		if (algorithms == null || keys == null || issuer == null || authenticationEndPoint == null
+			final Map<Name, PublicKey> publicKeys, final Issuer issuer, final EndPoint authenticationEndPoint,
+			final EndPoint logoutEndPoint) {
+		if (algorithms == null || keys == null || publicKeys == null || issuer == null || authenticationEndPoint == null
 				|| logoutEndPoint == null) {
 			throw new PreconditionException("Required parameter is null");
 		}
 		if (algorithms.isEmpty()) {
 			throw new PreconditionException("Algorithm list is empty");
 		}
-		return new SimpleConfiguration(algorithms, keys, issuer, authenticationEndPoint, logoutEndPoint);
+		return new SimpleConfiguration(algorithms, keys, publicKeys, issuer, authenticationEndPoint, logoutEndPoint);
 	}
 
 	public static ConfigurationFactory getInstance() {
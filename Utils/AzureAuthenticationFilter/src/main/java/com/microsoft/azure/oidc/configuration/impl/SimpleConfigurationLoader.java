@@ -21,11 +21,11 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.configuration.impl;
 
+import java.security.PublicKey;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
@@ -35,13 +35,16 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.microsoft.azure.oidc.common.algorithm.Algorithm;
 import com.microsoft.azure.oidc.common.issuer.Issuer;
 import com.microsoft.azure.oidc.common.name.Name;
+import com.microsoft.azure.oidc.concurrent.executor.SharedExecutor;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleSharedExecutor;
 import com.microsoft.azure.oidc.configuration.Configuration;
 import com.microsoft.azure.oidc.configuration.ConfigurationFactory;
 import com.microsoft.azure.oidc.configuration.ConfigurationLoader;
 import com.microsoft.azure.oidc.configuration.endpoint.EndPoint;
 import com.microsoft.azure.oidc.configuration.key.Key;
-import com.microsoft.azure.oidc.future.FutureHelper;
-import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
+import com.microsoft.azure.oidc.configuration.key.PublicKeyFactory;
+import com.microsoft.azure.oidc.configuration.key.impl.SimplePublicKeyFactory;
+import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.openid.keystore.KeyStoreLoader;
 import com.microsoft.azure.oidc.openid.keystore.KeyStoreParser;
 import com.microsoft.azure.oidc.openid.keystore.impl.SimpleKeyStoreLoader;
@@ -65,23 +68,25 @@ public final class SimpleConfigurationLoader implements ConfigurationLoader {
 
 	private final ConfigurationFactory configurationFactory = SimpleConfigurationFactory.getInstance();
 
-	private final FutureHelper futureHelper = SimpleFutureHelper.getInstance();
+	private final PublicKeyFactory publicKeyFactory = SimplePublicKeyFactory.getInstance();
+
+	private final SharedExecutor sharedExecutor = SimpleSharedExecutor.getInstance();
 
 	@Override
 	public Future<Configuration> loadAsync() {
-		final ExecutorService executorService = Executors.newSingleThreadExecutor();
-		final Future<Configuration> future = executorService.submit(new Callable<Configuration>() {
+		return sharedExecutor.submit(new Callable<Configuration>() {
 			public Configuration call() throws Exception {
 				return load();
 			}
 		});
-		executorService.shutdown();
-		return future;
 	}
 
+	// runs on a shared executor thread, so the nested loads are made synchronously rather than queued behind it
+
+	@Override
 	public Configuration load() {
 		try {
-			final JsonNode wellKnownNode = futureHelper.getResult(wellKnownLoader.loadAsync());
+			final JsonNode wellKnownNode = wellKnownLoader.load();
 			if (wellKnownNode == null) {
 				LOGGER.error("Error loading metadata");
 				return null;
@@ -91,20 +96,33 @@ public final class SimpleConfigurationLoader implements ConfigurationLoader {
 			final EndPoint keyStoreEndPoint = wellKnownParser.getKeyStoreEndPoint(wellKnownNode);
 			final EndPoint logoutEndPoint = wellKnownParser.getLogoutEndPoint(wellKnownNode);
 			final Issuer issuer = wellKnownParser.getIssuer(wellKnownNode);
-			final JsonNode keyStoreNode = futureHelper.getResult(keyStoreLoader.loadAsync(keyStoreEndPoint));
+			final JsonNode keyStoreNode = keyStoreLoader.load(keyStoreEndPoint);
 			if (keyStoreNode == null) {
 				LOGGER.error("Error loading keystore");
 				return null;
 			}
 			final Map<Name, Key> keys = keyStoreParser.getKeys(keyStoreNode);
-			return configurationFactory.createConfiguration(algorithms, keys, issuer, authenticationEndPoint,
-					logoutEndPoint);
+			final Map<Name, PublicKey> publicKeys = getPublicKeys(keys);
+			return configurationFactory.createConfiguration(algorithms, keys, publicKeys, issuer,
+					authenticationEndPoint, logoutEndPoint);
 		} catch (RuntimeException e) {
 			LOGGER.error(e.getMessage(), e);
 			return null;
 		}
 	}
 
+	private Map<Name, PublicKey> getPublicKeys(final Map<Name, Key> keys) {
+		final Map<Name, PublicKey> publicKeys = new HashMap<Name, PublicKey>();
+		for (final Map.Entry<Name, Key> entry : keys.entrySet()) {
+			try {
+				publicKeys.put(entry.getKey(), publicKeyFactory.createPublicKey(entry.getValue()));
+			} catch (GeneralException e) {
+				LOGGER.error(String.format("Skipping key %s", entry.getKey()), e);
+			}
+		}
+		return publicKeys;
+	}
+
 	public static ConfigurationLoader getInstance() {
 		return INSTANCE;
 	}
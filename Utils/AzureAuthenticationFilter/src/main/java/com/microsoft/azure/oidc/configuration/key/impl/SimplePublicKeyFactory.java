@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.configuration.key.impl;
+
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.RSAPublicKeySpec;
+
+import org.apache.commons.codec.binary.Base64;
+
+import com.microsoft.azure.oidc.configuration.key.Key;
+import com.microsoft.azure.oidc.configuration.key.PublicKeyFactory;
+import com.microsoft.azure.oidc.exception.GeneralException;
+import com.microsoft.azure.oidc.exception.PreconditionException;
+
+public final class SimplePublicKeyFactory implements PublicKeyFactory {
+	private static final PublicKeyFactory INSTANCE = new SimplePublicKeyFactory();
+	private static final String KEY_ALGORITHM = "RSA";
+
+	@Override
+	public PublicKey createPublicKey(final Key key) {
+		if (key == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		try {
+			final BigInteger exponent = new BigInteger(1, Base64.decodeBase64(key.getExponent().getValue()));
+			final BigInteger modulus = new BigInteger(1, Base64.decodeBase64(key.getSecret().getValue()));
+			final RSAPublicKeySpec pubKeySpec = new RSAPublicKeySpec(modulus, exponent);
+			return KeyFactory.getInstance(KEY_ALGORITHM).generatePublic(pubKeySpec);
+		} catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+			throw new GeneralException("Error creating public key", e);
+		}
+	}
+
+	public static PublicKeyFactory getInstance() {
+		return INSTANCE;
+	}
+}
@@ -23,18 +23,27 @@ package com.microsoft.azure.oidc.filter.configuration.authentication;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
+import com.microsoft.azure.oidc.filter.matcher.UriMatcher;
+
 public interface AuthenticationConfiguration {
 
 	List<String> getExclusionUriPatternList();
 
 	List<Pattern> getExclusionRegexPatternList();
 
+	UriMatcher getExclusionUriMatcher();
+
 	List<String> getAuthorisationUriPatternList();
 
 	List<Pattern> getAuthorisationRegexPatternList();
 
+	UriMatcher getAuthorisationUriMatcher();
+
 	Map<String, List<String>> getAuthorisationRoleMap();
 
+	Set<String> getAuthorisationRoleSet();
+
 }
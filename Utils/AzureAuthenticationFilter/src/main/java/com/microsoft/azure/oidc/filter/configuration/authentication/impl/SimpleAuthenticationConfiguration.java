@@ -22,20 +22,33 @@
 package com.microsoft.azure.oidc.filter.configuration.authentication.impl;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfiguration;
+import com.microsoft.azure.oidc.filter.matcher.UriMatcher;
+import com.microsoft.azure.oidc.filter.matcher.UriMatcherFactory;
+import com.microsoft.azure.oidc.filter.matcher.impl.SimpleUriMatcherFactory;
 
 final class SimpleAuthenticationConfiguration implements AuthenticationConfiguration {
+	private static final String FACES_RESOURCE_PATTERN = "/javax.faces.resource/*";
+
+	private final UriMatcherFactory uriMatcherFactory = SimpleUriMatcherFactory.getInstance();
+
 	private List<String> exclusionUriPatternList;
 	private List<String> authorisationUriPatternList;
 	private Map<String, List<String>> authorisationRoleMap;
+	private Set<String> authorisationRoleSet;
 
 	private List<Pattern> exclusionRegexPatternList;
 	private List<Pattern> authorisationRegexPatternList;
 
+	private UriMatcher exclusionUriMatcher;
+	private UriMatcher authorisationUriMatcher;
+
 	public SimpleAuthenticationConfiguration(final List<String> exclusionUriPatternList,
 			final List<String> authorisationUriPatternList, final Map<String, List<String>> authorisationRoleMap) {
 		setExclusionUriPatternList(exclusionUriPatternList);
@@ -46,13 +59,18 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 	private void setExclusionUriPatternList(List<String> exclusionUriPatternList) {
 		this.exclusionUriPatternList = exclusionUriPatternList;
 		exclusionRegexPatternList = new ArrayList<Pattern>();
+		final List<String> exclusionMatcherPatternList = new ArrayList<String>();
+		exclusionMatcherPatternList.add(FACES_RESOURCE_PATTERN);
 		exclusionRegexPatternList.add(Pattern.compile(
-				"/javax.faces.resource/*".replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
-		if (exclusionRegexPatternList == null) {
+				FACES_RESOURCE_PATTERN.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
+		if (exclusionUriPatternList == null) {
+			exclusionUriMatcher = uriMatcherFactory.createUriMatcher(exclusionMatcherPatternList,
+					exclusionRegexPatternList);
 			return;
 		}
 		for (final String pattern : exclusionUriPatternList) {
 			final String localPattern = pattern.trim();
+			exclusionMatcherPatternList.add(localPattern);
 			if (localPattern.endsWith("*")) {
 				exclusionRegexPatternList.add(Pattern
 						.compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
@@ -64,16 +82,22 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 						.compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
 			}
 		}
+		exclusionUriMatcher = uriMatcherFactory.createUriMatcher(exclusionMatcherPatternList,
+				exclusionRegexPatternList);
 	}
 
 	private void setAuthorisationUriPatternList(List<String> authorisationUriPatternList) {
 		this.authorisationUriPatternList = authorisationUriPatternList;
 		authorisationRegexPatternList = new ArrayList<Pattern>();
+		final List<String> authorisationMatcherPatternList = new ArrayList<String>();
 		if (authorisationUriPatternList == null) {
+			authorisationUriMatcher = uriMatcherFactory.createUriMatcher(authorisationMatcherPatternList,
+					authorisationRegexPatternList);
 			return;
 		}
 		for (final String pattern : authorisationUriPatternList) {
 			final String localPattern = pattern.trim();
+			authorisationMatcherPatternList.add(localPattern);
 			if (localPattern.endsWith("*")) {
 				authorisationRegexPatternList.add(Pattern
 						.compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
@@ -85,10 +109,19 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 						.compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
 			}
 		}
+		authorisationUriMatcher = uriMatcherFactory.createUriMatcher(authorisationMatcherPatternList,
+				authorisationRegexPatternList);
 	}
 
 	private void setAuthorisationRoleMap(Map<String, List<String>> authorisationRoleMap) {
 		this.authorisationRoleMap = authorisationRoleMap;
+		authorisationRoleSet = new LinkedHashSet<String>();
+		if (authorisationRoleMap == null) {
+			return;
+		}
+		for (final List<String> roles : authorisationRoleMap.values()) {
+			authorisationRoleSet.addAll(roles);
+		}
 	}
 
 	@Override
@@ -101,6 +134,11 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 		return exclusionRegexPatternList;
 	}
 
+	@Override
+	public UriMatcher getExclusionUriMatcher() {
+		return exclusionUriMatcher;
+	}
+
 	@Override
 	public List<String> getAuthorisationUriPatternList() {
 		return authorisationUriPatternList;
@@ -111,8 +149,18 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 		return authorisationRegexPatternList;
 	}
 
+	@Override
+	public UriMatcher getAuthorisationUriMatcher() {
+		return authorisationUriMatcher;
+	}
+
 	@Override
 	public Map<String, List<String>> getAuthorisationRoleMap() {
 		return authorisationRoleMap;
 	}
+
+	@Override
+	public Set<String> getAuthorisationRoleSet() {
+		return authorisationRoleSet;
+	}
 }
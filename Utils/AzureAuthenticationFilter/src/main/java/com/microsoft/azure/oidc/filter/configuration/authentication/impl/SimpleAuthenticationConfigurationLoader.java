@@ -30,12 +30,15 @@ import javax.servlet.FilterConfig;
 import javax.servlet.ServletException;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.oidc.common.mapper.MapperHelper;
+import com.microsoft.azure.oidc.common.mapper.impl.SimpleMapperHelper;
 import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfigurationLoader;
 
 public final class SimpleAuthenticationConfigurationLoader implements AuthenticationConfigurationLoader {
 	private static final AuthenticationConfigurationLoader INSTANCE = new SimpleAuthenticationConfigurationLoader();
 
+	private final MapperHelper mapperHelper = SimpleMapperHelper.getInstance();
+
 	@Override
 	public JsonNode load(final FilterConfig filterConfig, final String parameterName) throws ServletException {
 		final String authenticationConfigurationFileName = filterConfig.getInitParameter(parameterName);
@@ -46,8 +49,7 @@ public final class SimpleAuthenticationConfigurationLoader implements Authentica
 			for (String line = in.readLine(); line != null; line = in.readLine()) {
 				builder.append(line);
 			}
-			final ObjectMapper mapper = new ObjectMapper();
-			return mapper.readValue(builder.toString(), JsonNode.class);
+			return mapperHelper.getObjectMapper().readValue(builder.toString(), JsonNode.class);
 		} catch (final IOException e) {
 			throw new ServletException(e.getMessage(), e);
 		}
@@ -54,6 +54,8 @@ public interface AuthenticationHelper {
 
 	Boolean isValidToken(Token token);
 
+	Token getValidToken(String tokenString);
+
 	Boolean isActiveToken(Token token);
 
 	Boolean isAuthenticationError(String errorString);
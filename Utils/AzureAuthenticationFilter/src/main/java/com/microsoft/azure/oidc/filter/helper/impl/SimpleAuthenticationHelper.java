@@ -25,8 +25,6 @@ import java.io.IOException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -41,10 +39,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettings;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettingsLoader;
 import com.microsoft.azure.oidc.application.settings.impl.SimpleApplicationSettingsLoader;
+import com.microsoft.azure.oidc.common.mapper.MapperHelper;
+import com.microsoft.azure.oidc.common.mapper.impl.SimpleMapperHelper;
 import com.microsoft.azure.oidc.common.state.State;
 import com.microsoft.azure.oidc.common.state.StateFactory;
 import com.microsoft.azure.oidc.common.state.impl.SimpleStateFactory;
@@ -53,6 +52,7 @@ import com.microsoft.azure.oidc.configuration.ConfigurationCache;
 import com.microsoft.azure.oidc.configuration.impl.SimpleConfigurationCache;
 import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.exception.PreconditionException;
+import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfiguration;
 import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfigurationService;
 import com.microsoft.azure.oidc.filter.configuration.authentication.impl.SimpleAuthenticationConfigurationService;
 import com.microsoft.azure.oidc.filter.helper.AuthenticationHelper;
@@ -61,9 +61,11 @@ import com.microsoft.azure.oidc.filter.request.impl.SandboxRequestWrapper;
 import com.microsoft.azure.oidc.graph.GraphCache;
 import com.microsoft.azure.oidc.graph.impl.SimpleGraphCache;
 import com.microsoft.azure.oidc.token.Token;
+import com.microsoft.azure.oidc.token.TokenCache;
 import com.microsoft.azure.oidc.token.TokenParser;
 import com.microsoft.azure.oidc.token.TokenValidator;
 import com.microsoft.azure.oidc.token.impl.SimpeTokenParser;
+import com.microsoft.azure.oidc.token.impl.SimpleTokenCache;
 import com.microsoft.azure.oidc.token.impl.SimpleTokenValidator;
 
 public final class SimpleAuthenticationHelper implements AuthenticationHelper {
@@ -76,6 +78,8 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
 
 	private final TokenValidator tokenValidator = SimpleTokenValidator.getInstance();
 
+	private final TokenCache tokenCache = SimpleTokenCache.getInstance();
+
 	private final GraphCache graphCache = SimpleGraphCache.getInstance();
 
 	private final ApplicationSettingsLoader applicationSettingsLoader = SimpleApplicationSettingsLoader.getInstance();
@@ -84,6 +88,8 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
 
 	private final StateFactory stateFactory = SimpleStateFactory.getInstance();
 
+	private final MapperHelper mapperHelper = SimpleMapperHelper.getInstance();
+
 	private final AuthenticationConfigurationService authenticationConfigurationService = SimpleAuthenticationConfigurationService
 			.getInstance();
 
@@ -177,6 +183,23 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
 		return tokenValidator.validateCommon(token);
 	}
 
+	@Override
+	public Token getValidToken(final String tokenString) {
+		if (tokenString == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		final Token entry = tokenCache.get(tokenString);
+		if (entry != null) {
+			return entry;
+		}
+		final Token token = getToken(tokenString);
+		if (!isValidToken(token)) {
+			return null;
+		}
+		tokenCache.putIfAbsent(tokenString, token);
+		return token;
+	}
+
 	@Override
 	public Boolean isActiveToken(final Token token) {
 		return tokenValidator.validateExpiration(token);
@@ -218,52 +241,35 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
 	}
 
 	private Boolean isExcluded(final HttpServletRequest httpRequest) {
-		String uriString = null;
-		final Boolean isRootContext = "".equals(httpRequest.getContextPath());
-		if (isRootContext) {
-			uriString = httpRequest.getRequestURI();
-		} else {
-			final int length = httpRequest.getRequestURI().length();
-			uriString = httpRequest.getRequestURI().substring(length);
+		final String uriString = getMatchUriString(httpRequest);
+		return authenticationConfigurationService.get().getExclusionUriMatcher().matches(uriString);
+	}
+
+	private Boolean isAuthorised(final HttpServletRequest httpRequest, final Token token) {
+		final String uriString = getMatchUriString(httpRequest);
+		final AuthenticationConfiguration authenticationConfiguration = authenticationConfigurationService.get();
+		final int index = authenticationConfiguration.getAuthorisationUriMatcher().getFirstMatchIndex(uriString);
+		if (index == -1) {
+			return Boolean.TRUE;
 		}
-		for (final Pattern pattern : authenticationConfigurationService.get().getExclusionRegexPatternList()) {
-			final Matcher matcher = pattern.matcher(uriString);
-			final Boolean isMatchFound = matcher.matches();
-			if (isMatchFound) {
+		final String urlPattern = authenticationConfiguration.getAuthorisationUriPatternList().get(index);
+		final HttpServletRequest authRequest = getAuthenticationWrapper(httpRequest, token);
+		for (final String roleName : authenticationConfiguration.getAuthorisationRoleMap().get(urlPattern)) {
+			final Boolean isUserInRole = authRequest.isUserInRole(roleName);
+			if (isUserInRole) {
 				return Boolean.TRUE;
 			}
 		}
 		return Boolean.FALSE;
 	}
 
-	private Boolean isAuthorised(final HttpServletRequest httpRequest, final Token token) {
-		String uriString = null;
+	private String getMatchUriString(final HttpServletRequest httpRequest) {
 		final Boolean isRootContext = "".equals(httpRequest.getContextPath());
 		if (isRootContext) {
-			uriString = httpRequest.getRequestURI();
-		} else {
-			final int length = httpRequest.getRequestURI().length();
-			uriString = httpRequest.getRequestURI().substring(length);
-		}
-		int index = 0;
-		for (final String urlPattern : authenticationConfigurationService.get().getAuthorisationUriPatternList()) {
-			final Pattern pattern = authenticationConfigurationService.get().getAuthorisationRegexPatternList()
-					.get(index++);
-			final Matcher matcher = pattern.matcher(uriString);
-			final Boolean isMatchFound = matcher.matches();
-			if (isMatchFound) {
-				final HttpServletRequest authRequest = getAuthenticationWrapper(httpRequest, token);
-				for (final String roleName : authenticationConfigurationService.get().getAuthorisationRoleMap()
-						.get(urlPattern)) {
-					final Boolean isUserInRole = authRequest.isUserInRole(roleName);
-					if (isUserInRole) {
-						return Boolean.TRUE;
-					}
-				}
-				return Boolean.FALSE;
-			}
+			return httpRequest.getRequestURI();
 		}
-		return Boolean.TRUE;
+		final int length = httpRequest.getRequestURI().length();
+		return httpRequest.getRequestURI().substring(length);
 	}
 
 	private String addCookie(final HttpServletRequest httpRequest, final HttpServletResponse httpResponse,
@@ -324,8 +330,7 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
 
 			final String userID = token == null ? "" : token.getUserID().getValue();
 			final State state = stateFactory.createState(userID, sessionName, uriStringBuilder.toString());
-			final ObjectMapper mapper = new ObjectMapper();
-			final String stateString = mapper.writeValueAsString(state);
+			final String stateString = mapperHelper.getObjectMapper().writeValueAsString(state);
 			final String urlString = String.format(
 					"%s%sclient_Id=%s&state=%s&nonce=defaultNonce&redirect_uri=%s&scope=openid%%20offline_access&response_type=code+id_token&prompt=%s&response_mode=form_post",
 					configuration.getAuthenticationEndPoint(), 
@@ -371,8 +376,7 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
 			if (stateString == null || stateString.equals("")) {
 				return null;
 			}
-			final ObjectMapper mapper = new ObjectMapper();
-			final JsonNode stateNode = mapper.readValue(stateString, JsonNode.class);
+			final JsonNode stateNode = mapperHelper.getObjectMapper().readValue(stateString, JsonNode.class);
 			final State state = stateFactory.createState(stateNode.get("userID").asText(""),
 					stateNode.get("sessionName").asText(""), stateNode.get("requestURI").asText());
 			return state;
@@ -34,6 +34,8 @@ import javax.servlet.http.HttpServletResponse;
 
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
 import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.executor.SharedExecutor;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleSharedExecutor;
 import com.microsoft.azure.oidc.configuration.Configuration;
 import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.exception.PreconditionException;
@@ -64,9 +66,12 @@ public final class SimpleAuthenticationFilter implements Filter {
 
 	private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
 
+	private final SharedExecutor sharedExecutor = SimpleSharedExecutor.getInstance();
+
 	@Override
 	public void destroy() {
 		concurrentCacheService.shutdownNow();
+		sharedExecutor.shutdownNow();
 	}
 
 	@Override
@@ -83,8 +88,8 @@ public final class SimpleAuthenticationFilter implements Filter {
 				getHelper().doUnauthenticatedAction(chain, httpRequest, httpResponse, NO_TOKEN, isAuthenticationError);
 				return;
 			}
-			final Token token = getHelper().getToken(tokenString);
-			final Boolean isInvalidToken = !getHelper().isValidToken(token);
+			final Token token = getHelper().getValidToken(tokenString);
+			final Boolean isInvalidToken = token == NO_TOKEN;
 			if (isInvalidToken) {
 				getHelper().doInvalidTokenAction(httpResponse);
 				return;
@@ -102,14 +107,29 @@ public final class SimpleAuthenticationFilter implements Filter {
 
 	@Override
 	public void init(final FilterConfig filterConfig) throws ServletException {
+		final String cacheImplementation = filterConfig.getInitParameter("cacheImplementation");
 		final String securityCacheSizeString = filterConfig.getInitParameter("securityCacheSize");
 		if (securityCacheSizeString == null) {
-			concurrentCacheService.createCache(Boolean.class, "roleCache", 30L, 1000L);
+			concurrentCacheService.createCache(Boolean.class, "roleCache", cacheImplementation, 30L, 1000L);
 		} else {
-			concurrentCacheService.createCache(Boolean.class, "roleCache", 30L,
+			concurrentCacheService.createCache(Boolean.class, "roleCache", cacheImplementation, 30L,
 					Long.parseLong(securityCacheSizeString));
 		}
-		concurrentCacheService.createCache(Configuration.class, "configurationCache", 60L, 1L);
+		final String tokenCacheSizeString = filterConfig.getInitParameter("tokenCacheSize");
+		if (tokenCacheSizeString == null) {
+			concurrentCacheService.createCache(Token.class, "tokenCache", cacheImplementation, 60L, 1000L);
+		} else {
+			concurrentCacheService.createCache(Token.class, "tokenCache", cacheImplementation, 60L,
+					Long.parseLong(tokenCacheSizeString));
+		}
+		concurrentCacheService.createCache(Configuration.class, "configurationCache", cacheImplementation, 60L, 1L);
+		concurrentCacheService.createCache(String.class, "groupCache", cacheImplementation, 60L, 1000L);
+		final String loaderConcurrencyString = filterConfig.getInitParameter("loaderConcurrency");
+		if (loaderConcurrencyString == null) {
+			sharedExecutor.initialise(10);
+		} else {
+			sharedExecutor.initialise(Integer.parseInt(loaderConcurrencyString));
+		}
 		authenticationConfigurationService.initialise(filterConfig, AUTHENTICATION_CONFIGURATION);
 		algorithmConfigurationService.initialise(filterConfig, ALGORITHM_CONFIGURATION);
 	}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.filter.matcher.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.microsoft.azure.oidc.filter.matcher.UriMatcher;
+
+// Rules are split by shape when the configuration loads: literal rules go into a hash map, rules with a single
+// trailing '*' into a prefix trie, and everything else stays a regex. The first matching rule in configuration
+// order still wins, so the result is the same as testing each regex in turn.
+final class SimpleUriMatcher implements UriMatcher {
+	private static final int NO_MATCH = -1;
+
+	private final Map<String, Integer> exactMap = new HashMap<String, Integer>();
+	private final Node prefixRoot = new Node();
+	private final List<Integer> regexIndexList = new ArrayList<Integer>();
+	private final List<Pattern> regexPatternList = new ArrayList<Pattern>();
+
+	SimpleUriMatcher(final List<String> uriPatternList, final List<Pattern> regexPatternList) {
+		for (int index = 0; index < uriPatternList.size(); index++) {
+			final String pattern = uriPatternList.get(index).trim();
+			final int wildcardIndex = pattern.indexOf('*');
+			if (wildcardIndex == -1) {
+				if (!exactMap.containsKey(pattern)) {
+					exactMap.put(pattern, index);
+				}
+			} else if (wildcardIndex == pattern.length() - 1) {
+				addPrefix(pattern.substring(0, wildcardIndex), index);
+			} else {
+				this.regexIndexList.add(index);
+				this.regexPatternList.add(regexPatternList.get(index));
+			}
+		}
+	}
+
+	@Override
+	public int getFirstMatchIndex(final String uriString) {
+		int firstMatchIndex = NO_MATCH;
+		final Integer exactIndex = exactMap.get(uriString);
+		if (exactIndex != null) {
+			firstMatchIndex = exactIndex;
+		}
+		final int prefixIndex = getPrefixIndex(uriString);
+		if (prefixIndex != NO_MATCH && (firstMatchIndex == NO_MATCH || prefixIndex < firstMatchIndex)) {
+			firstMatchIndex = prefixIndex;
+		}
+		for (int i = 0; i < regexIndexList.size(); i++) {
+			final int regexIndex = regexIndexList.get(i);
+			if (firstMatchIndex != NO_MATCH && regexIndex > firstMatchIndex) {
+				break;
+			}
+			if (regexPatternList.get(i).matcher(uriString).matches()) {
+				return regexIndex;
+			}
+		}
+		return firstMatchIndex;
+	}
+
+	@Override
+	public Boolean matches(final String uriString) {
+		return getFirstMatchIndex(uriString) != NO_MATCH;
+	}
+
+	private void addPrefix(final String prefix, final int index) {
+		Node node = prefixRoot;
+		for (int i = 0; i < prefix.length(); i++) {
+			final Character c = prefix.charAt(i);
+			Node child = node.children.get(c);
+			if (child == null) {
+				child = new Node();
+				node.children.put(c, child);
+			}
+			node = child;
+		}
+		if (node.index == NO_MATCH || index < node.index) {
+			node.index = index;
+		}
+	}
+
+	// the trailing '*' of a prefix rule compiles to "(.*)", which does not match line terminators
+	private int getPrefixIndex(final String uriString) {
+		final int lastLineTerminator = getLastLineTerminator(uriString);
+		int prefixIndex = NO_MATCH;
+		Node node = prefixRoot;
+		for (int i = 0; node != null; i++) {
+			if (node.index != NO_MATCH && (prefixIndex == NO_MATCH || node.index < prefixIndex)
+					&& lastLineTerminator < i) {
+				prefixIndex = node.index;
+			}
+			if (i == uriString.length()) {
+				break;
+			}
+			node = node.children.get(uriString.charAt(i));
+		}
+		return prefixIndex;
+	}
+
+	// index of the last line terminator, or -1 when there is none
+	private int getLastLineTerminator(final String uriString) {
+		for (int i = uriString.length() - 1; i >= 0; i--) {
+			final char c = uriString.charAt(i);
+			if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static final class Node {
+		private final Map<Character, Node> children = new HashMap<Character, Node>();
+		private int index = NO_MATCH;
+	}
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.filter.matcher.impl;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.microsoft.azure.oidc.exception.PreconditionException;
+import com.microsoft.azure.oidc.filter.matcher.UriMatcher;
+import com.microsoft.azure.oidc.filter.matcher.UriMatcherFactory;
+
+public final class SimpleUriMatcherFactory implements UriMatcherFactory {
+	private static final UriMatcherFactory INSTANCE = new SimpleUriMatcherFactory();
+
+	@Override
+	public UriMatcher createUriMatcher(final List<String> uriPatternList, final List<Pattern> regexPatternList) {
+		if (uriPatternList == null || regexPatternList == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		if (uriPatternList.size() != regexPatternList.size()) {
+			throw new PreconditionException("Pattern lists differ in size");
+		}
+		return new SimpleUriMatcher(uriPatternList, regexPatternList);
+	}
+
+	public static UriMatcherFactory getInstance() {
+		return INSTANCE;
+	}
+}
@@ -21,8 +21,11 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.future.impl;
 
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +36,8 @@ import com.microsoft.azure.oidc.future.FutureHelper;
 public class SimpleFutureHelper implements FutureHelper {
 	private static final FutureHelper INSTANCE = new SimpleFutureHelper();
 	private static final Logger LOGGER = LoggerFactory.getLogger(SimpleFutureHelper.class);
+	// long enough for a token request followed by a graph request, each within the HTTP client timeouts
+	private static final long TIMEOUT_SECONDS = 90;
 
 	@Override
 	public <T> T getResult(Future<T> future) {
@@ -40,13 +45,16 @@ public class SimpleFutureHelper implements FutureHelper {
 			throw new PreconditionException("Required parameter is null");
 		}
 		try {
-			while (!future.isDone() && !future.isCancelled()) {
-				Thread.sleep(10);
-			}
-			if (!future.isCancelled()) {
-				return future.get();
-			}
-		} catch (InterruptedException | ExecutionException e) {
+			return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (CancellationException e) {
+			LOGGER.error(e.getMessage(), e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.error(e.getMessage(), e);
+		} catch (TimeoutException e) {
+			// the future may be shared with other requests, so it is left running for them
+			LOGGER.error("No result after " + TIMEOUT_SECONDS + " seconds", e);
+		} catch (ExecutionException e) {
 			LOGGER.error(e.getMessage(), e);
 		}
 		return null;
@@ -21,10 +21,16 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.graph;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.Future;
 
 public interface GraphService {
 
 	Future<Boolean> isUserInRoleAsync(String userID, String role);
+
+	Boolean isUserInRole(String userID, String role);
+
+	Map<String, Boolean> isUserInRoles(String userID, Collection<String> roles);
 	
 }
@@ -21,8 +21,17 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.graph.impl;
 
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
 import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.flight.SingleFlight;
+import com.microsoft.azure.oidc.concurrent.flight.impl.SimpleSingleFlight;
+import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfigurationService;
+import com.microsoft.azure.oidc.filter.configuration.authentication.impl.SimpleAuthenticationConfigurationService;
 import com.microsoft.azure.oidc.future.FutureHelper;
 import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
 import com.microsoft.azure.oidc.graph.GraphCache;
@@ -37,21 +46,64 @@ public class SimpleGraphCache implements GraphCache {
 
 	private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
 
+	private final AuthenticationConfigurationService authenticationConfigurationService = SimpleAuthenticationConfigurationService
+			.getInstance();
+
+	private final SingleFlight<String, Map<String, Boolean>> userFlight = new SimpleSingleFlight<String, Map<String, Boolean>>();
+
+	private final SingleFlight<String, Boolean> roleFlight = new SimpleSingleFlight<String, Boolean>();
+
+	// a miss loads every role the authorisation rules refer to in one batch, so the rules that follow hit the cache
 	@Override
-	public Boolean isUserInRole(String userID, String role) {
-		final String key = String.format("%s:%s", userID, role);
-		final Boolean entry = concurrentCacheService.getCache(Boolean.class, "roleCache").get(key);
+	public Boolean isUserInRole(final String userID, final String role) {
+		final Boolean entry = concurrentCacheService.getCache(Boolean.class, "roleCache").get(getKey(userID, role));
 		if (entry != null) {
 			return entry;
 		}
-		final Boolean result = futureHelper.getResult(springGraphService.isUserInRoleAsync(userID, role));
-		if (result == null) {
-			return result;
+		final Set<String> roles = getConfiguredRoles();
+		if (roles.contains(role)) {
+			final Map<String, Boolean> result = futureHelper.getResult(userFlight.execute(userID,
+					new Callable<Map<String, Boolean>>() {
+						public Map<String, Boolean> call() throws Exception {
+							return loadRoles(userID, roles);
+						}
+					}));
+			if (result != null && result.containsKey(role)) {
+				return result.get(role);
+			}
+		}
+		final String key = getKey(userID, role);
+		return futureHelper.getResult(roleFlight.execute(key, new Callable<Boolean>() {
+			public Boolean call() throws Exception {
+				final Boolean result = springGraphService.isUserInRole(userID, role);
+				if (result != null) {
+					concurrentCacheService.getCache(Boolean.class, "roleCache").putIfAbsent(key, result);
+				}
+				return result;
+			}
+		}));
+	}
+
+	private Map<String, Boolean> loadRoles(final String userID, final Set<String> roles) {
+		final Map<String, Boolean> result = springGraphService.isUserInRoles(userID, roles);
+		for (final Map.Entry<String, Boolean> entry : result.entrySet()) {
+			concurrentCacheService.getCache(Boolean.class, "roleCache").putIfAbsent(getKey(userID, entry.getKey()),
+					entry.getValue());
 		}
-		concurrentCacheService.getCache(Boolean.class, "roleCache").putIfAbsent(key, result);
 		return result;
 	}
 
+	private Set<String> getConfiguredRoles() {
+		if (authenticationConfigurationService.get() == null) {
+			return new LinkedHashSet<String>();
+		}
+		return authenticationConfigurationService.get().getAuthorisationRoleSet();
+	}
+
+	private String getKey(final String userID, final String role) {
+		return String.format("%s:%s", userID, role);
+	}
+
 	public static GraphCache getInstance() {
 		return INSTANCE;
 	}
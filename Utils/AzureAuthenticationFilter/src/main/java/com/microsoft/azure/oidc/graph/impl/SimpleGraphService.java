@@ -21,55 +21,78 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.graph.impl;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.URL;
+import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
-import javax.net.ssl.HttpsURLConnection;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettings;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettingsLoader;
 import com.microsoft.azure.oidc.application.settings.Secret;
 import com.microsoft.azure.oidc.application.settings.Tenant;
 import com.microsoft.azure.oidc.application.settings.impl.SimpleApplicationSettingsLoader;
 import com.microsoft.azure.oidc.common.id.ID;
+import com.microsoft.azure.oidc.common.mapper.MapperHelper;
+import com.microsoft.azure.oidc.common.mapper.impl.SimpleMapperHelper;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.executor.SharedExecutor;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleSharedExecutor;
 import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.graph.GraphService;
+import com.microsoft.azure.oidc.http.HttpClient;
+import com.microsoft.azure.oidc.http.impl.SimpleHttpClient;
 
 public final class SimpleGraphService implements GraphService {
 	private static final GraphService INSTANCE = new SimpleGraphService();
 	private static final Logger LOGGER = LoggerFactory.getLogger(SimpleGraphService.class);
+	private static final long TOKEN_REFRESH_MARGIN = 300000L;
+	private static final int MAX_GROUPS_PER_CHECK = 20;
 
 	private final ApplicationSettingsLoader applicationSettingsLoader = SimpleApplicationSettingsLoader.getInstance();
 
+	private final SharedExecutor sharedExecutor = SimpleSharedExecutor.getInstance();
+
+	private final HttpClient httpClient = SimpleHttpClient.getInstance();
+
+	private final MapperHelper mapperHelper = SimpleMapperHelper.getInstance();
+
+	private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
+
+	private final Object bearerTokenLock = new Object();
+
+	private volatile String bearerToken;
+
+	private volatile long bearerTokenExpiry;
+
 	@Override
 	public Future<Boolean> isUserInRoleAsync(final String userID, final String role) {
-		final ExecutorService executorService = Executors.newSingleThreadExecutor();
-		final Future<Boolean> future = executorService.submit(new Callable<Boolean>() {
+		return sharedExecutor.submit(new Callable<Boolean>() {
 			public Boolean call() throws Exception {
 				return isUserInRole(userID, role);
 			}
 		});
-		executorService.shutdown();
-		return future;
 	}
 
-	private Boolean isUserInRole(final String userID, final String role) {
+	@Override
+	public Boolean isUserInRole(final String userID, final String role) {
 		try {
 			final ApplicationSettings applicationSettings = applicationSettingsLoader.load();
-			final String bearerToken = getBearerToken(applicationSettings.getTenant(),
-					applicationSettings.getPrincipalId(), applicationSettings.getPrincipalSecret());
+			final String bearerToken = getBearerToken(applicationSettings);
 			final String roleID = getGroupID(applicationSettings.getTenant(), role, bearerToken);
 			if (roleID == null) {
 				return Boolean.FALSE;
@@ -84,32 +107,45 @@ public final class SimpleGraphService implements GraphService {
 		}
 	}
 
+	@Override
+	public Map<String, Boolean> isUserInRoles(final String userID, final Collection<String> roles) {
+		final Map<String, Boolean> result = new HashMap<String, Boolean>();
+		try {
+			final ApplicationSettings applicationSettings = applicationSettingsLoader.load();
+			final String bearerToken = getBearerToken(applicationSettings);
+			final Map<String, String> roleIDs = new HashMap<String, String>();
+			for (final String role : roles) {
+				final String roleID = getGroupID(applicationSettings.getTenant(), role, bearerToken);
+				if (roleID == null) {
+					result.put(role, Boolean.FALSE);
+				} else {
+					roleIDs.put(role, roleID);
+				}
+			}
+			final Set<String> memberGroupIDs = getMemberGroups(applicationSettings.getTenant(), userID,
+					new ArrayList<String>(new HashSet<String>(roleIDs.values())), bearerToken);
+			for (final Map.Entry<String, String> entry : roleIDs.entrySet()) {
+				result.put(entry.getKey(), memberGroupIDs.contains(entry.getValue()));
+			}
+			return result;
+		} catch (GeneralException e) {
+			LOGGER.error("General Exception", e);
+			return new HashMap<String, Boolean>();
+		} catch (RuntimeException e) {
+			LOGGER.error(e.getMessage(), e);
+			return new HashMap<String, Boolean>();
+		}
+	}
+
 	private Boolean isUserInGroup(final Tenant tenant, final String userID, final String groupID,
 			final String bearerToken) {
 		try {
 			final String urlString = String.format("https://graph.windows.net/%s/isMemberOf?api-version=1.6",
 					tenant.getName());
 			final String payload = String.format("{\"groupId\":\"%s\",\"memberId\":\"%s\"}", groupID, userID);
-			final URL url = new URL(urlString);
-			final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-			connection.setRequestProperty("Host", "graph.windows.net");
-			connection.setRequestProperty("Content-Type", "application/json");
-			connection.setRequestProperty("Accept", "application/json");
-			connection.setRequestProperty("Authorization", "Bearer " + bearerToken);
-			connection.setRequestMethod("POST");
-			connection.setDoOutput(true);
-			connection.getOutputStream().write(payload.getBytes());
-			connection.getOutputStream().flush();
-			final StringBuilder result = new StringBuilder();
-			try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-				for (String line = in.readLine(); line != null; line = in.readLine()) {
-					result.append(line);
-				}
-			}
-			final ObjectMapper mapper = new ObjectMapper();
-			final JsonNode node = mapper.readValue(result.toString().getBytes(), JsonNode.class);
+			final JsonNode node = httpClient.post(urlString, getHeaders(bearerToken), payload);
 			return node.get("value").asBoolean();
-		} catch (IOException e) {
+		} catch (GeneralException e) {
 			LOGGER.error("IO Exception", e);
 			return Boolean.FALSE;
 		} catch (RuntimeException e) {
@@ -118,29 +154,53 @@ public final class SimpleGraphService implements GraphService {
 		}
 	}
 
+	// checkMemberGroups accepts at most 20 group ids per call
+	private Set<String> getMemberGroups(final Tenant tenant, final String userID, final List<String> groupIDs,
+			final String bearerToken) {
+		final Set<String> memberGroupIDs = new HashSet<String>();
+		try {
+			final String urlString = String.format(
+					"https://graph.windows.net/%s/users/%s/checkMemberGroups?api-version=1.6", tenant.getName(),
+					URLEncoder.encode(userID, "UTF-8"));
+			for (int index = 0; index < groupIDs.size(); index += MAX_GROUPS_PER_CHECK) {
+				final ObjectNode payloadNode = mapperHelper.getObjectMapper().createObjectNode();
+				final ArrayNode groupIDsNode = payloadNode.putArray("groupIds");
+				for (final String groupID : groupIDs.subList(index,
+						Math.min(index + MAX_GROUPS_PER_CHECK, groupIDs.size()))) {
+					groupIDsNode.add(groupID);
+				}
+				final String payload = mapperHelper.getObjectMapper().writeValueAsString(payloadNode);
+				final JsonNode node = httpClient.post(urlString, getHeaders(bearerToken), payload);
+				for (final JsonNode groupNode : node.get("value")) {
+					memberGroupIDs.add(groupNode.asText());
+				}
+			}
+			return memberGroupIDs;
+		} catch (UnsupportedEncodingException | JsonProcessingException e) {
+			throw new GeneralException("IO Exception", e);
+		}
+	}
+
 	private String getGroupID(final Tenant tenant, final String group, final String bearerToken) {
+		final String cachedGroupID = concurrentCacheService.getCache(String.class, "groupCache").get(group);
+		if (cachedGroupID != null) {
+			return cachedGroupID;
+		}
 		try {
 			final String urlString = String.format(
 					"https://graph.windows.net/%s/groups?$filter=displayName%%20eq%%20'%s'&api-version=1.6",
 					tenant.getName(), URLEncoder.encode(group, "UTF-8"));
-			final URL url = new URL(urlString);
-			final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-			connection.setRequestProperty("Host", "graph.windows.net");
-			connection.setRequestProperty("Accept", "application/json");
-			connection.setRequestProperty("Authorization", "Bearer " + bearerToken);
-			final StringBuilder result = new StringBuilder();
-			try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-				for (String line = in.readLine(); line != null; line = in.readLine()) {
-					result.append(line);
-				}
-			}
-			final ObjectMapper mapper = new ObjectMapper();
-			final JsonNode node = mapper.readValue(result.toString().getBytes(), JsonNode.class);
+			final Map<String, String> headers = new HashMap<String, String>();
+			headers.put("Accept", "application/json");
+			headers.put("Authorization", "Bearer " + bearerToken);
+			final JsonNode node = httpClient.get(urlString, headers);
 			for (final JsonNode groupNode : node.get("value")) {
-				return groupNode.get("objectId").asText();
+				final String groupID = groupNode.get("objectId").asText();
+				concurrentCacheService.getCache(String.class, "groupCache").putIfAbsent(group, groupID);
+				return groupID;
 			}
 			return null;
-		} catch (IOException e) {
+		} catch (UnsupportedEncodingException | GeneralException e) {
 			LOGGER.error("IO Exception", e);
 			return null;
 		} catch (RuntimeException e) {
@@ -149,32 +209,43 @@ public final class SimpleGraphService implements GraphService {
 		}
 	}
 
-	private String getBearerToken(final Tenant tenant, final ID principal, final Secret secret) {
+	// the client credentials token is reused until shortly before it expires
+	private String getBearerToken(final ApplicationSettings applicationSettings) {
+		if (bearerToken != null && System.currentTimeMillis() < bearerTokenExpiry) {
+			return bearerToken;
+		}
+		synchronized (bearerTokenLock) {
+			if (bearerToken != null && System.currentTimeMillis() < bearerTokenExpiry) {
+				return bearerToken;
+			}
+			final JsonNode node = getBearerTokenNode(applicationSettings.getTenant(),
+					applicationSettings.getPrincipalId(), applicationSettings.getPrincipalSecret());
+			if (node == null) {
+				return null;
+			}
+			if (!node.hasNonNull("access_token")) {
+				throw new GeneralException("The token response has no access_token: " + node);
+			}
+			final long expiresIn = node.has("expires_in") ? node.get("expires_in").asLong() * 1000 : 0L;
+			bearerTokenExpiry = System.currentTimeMillis() + expiresIn - TOKEN_REFRESH_MARGIN;
+			bearerToken = node.get("access_token").asText();
+			return bearerToken;
+		}
+	}
+
+	private JsonNode getBearerTokenNode(final Tenant tenant, final ID principal, final Secret secret) {
 		try {
 			final String payload = String.format(
 					"grant_type=client_credentials&client_id=%s&client_secret=%s&resource=%s", principal.getValue(),
 					URLEncoder.encode(secret.getValue(), "UTF-8"),
 					URLEncoder.encode("https://graph.windows.net", "UTF-8"));
-			final URL url = new URL(
-					String.format("https://login.microsoftonline.com/%s/oauth2/token", tenant.getName()));
-			final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-			connection.setRequestMethod("POST");
-			connection.setRequestProperty("Host", "login.microsoftonline.com");
-			connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-			connection.setRequestProperty("Accept", "application/json");
-			connection.setDoOutput(true);
-			connection.getOutputStream().write(payload.getBytes());
-			connection.getOutputStream().flush();
-			final StringBuilder result = new StringBuilder();
-			try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-				for (String line = in.readLine(); line != null; line = in.readLine()) {
-					result.append(line);
-				}
-			}
-			final ObjectMapper mapper = new ObjectMapper();
-			final JsonNode node = mapper.readValue(result.toString().getBytes(), JsonNode.class);
-			return node.get("access_token").asText();
-		} catch (IOException e) {
+			final String urlString = String.format("https://login.microsoftonline.com/%s/oauth2/token",
+					tenant.getName());
+			final Map<String, String> headers = new HashMap<String, String>();
+			headers.put("Content-Type", "application/x-www-form-urlencoded");
+			headers.put("Accept", "application/json");
+			return httpClient.post(urlString, headers, payload);
+		} catch (UnsupportedEncodingException | GeneralException e) {
 			LOGGER.error("IO Exception", e);
 			return null;
 		} catch (RuntimeException e) {
@@ -183,6 +254,14 @@ public final class SimpleGraphService implements GraphService {
 		}
 	}
 
+	private Map<String, String> getHeaders(final String bearerToken) {
+		final Map<String, String> headers = new HashMap<String, String>();
+		headers.put("Content-Type", "application/json");
+		headers.put("Accept", "application/json");
+		headers.put("Authorization", "Bearer " + bearerToken);
+		return headers;
+	}
+
 	public static GraphService getInstance() {
 		return INSTANCE;
 	}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.http.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.microsoft.azure.oidc.common.mapper.MapperHelper;
+import com.microsoft.azure.oidc.common.mapper.impl.SimpleMapperHelper;
+import com.microsoft.azure.oidc.exception.GeneralException;
+import com.microsoft.azure.oidc.exception.PreconditionException;
+import com.microsoft.azure.oidc.http.HttpClient;
+
+public final class SimpleHttpClient implements HttpClient {
+	private static final HttpClient INSTANCE = new SimpleHttpClient();
+	private static final int CONNECT_TIMEOUT = 10000;
+	private static final int READ_TIMEOUT = 30000;
+	private static final int MAX_ERROR_BODY_LENGTH = 4096;
+
+	private final MapperHelper mapperHelper = SimpleMapperHelper.getInstance();
+
+	@Override
+	public JsonNode get(final String urlString, final Map<String, String> headers) {
+		return execute("GET", urlString, headers, null);
+	}
+
+	@Override
+	public JsonNode post(final String urlString, final Map<String, String> headers, final String payload) {
+		if (payload == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		return execute("POST", urlString, headers, payload);
+	}
+
+	private JsonNode execute(final String method, final String urlString, final Map<String, String> headers,
+			final String payload) {
+		if (urlString == null || headers == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		HttpURLConnection connection = null;
+		try {
+			connection = (HttpURLConnection) new URL(urlString).openConnection();
+			connection.setConnectTimeout(CONNECT_TIMEOUT);
+			connection.setReadTimeout(READ_TIMEOUT);
+			connection.setRequestMethod(method);
+			for (final Map.Entry<String, String> header : headers.entrySet()) {
+				connection.setRequestProperty(header.getKey(), header.getValue());
+			}
+			if (payload != null) {
+				connection.setDoOutput(true);
+				try (final OutputStream out = connection.getOutputStream()) {
+					out.write(payload.getBytes("UTF-8"));
+				}
+			}
+			try (final InputStream in = connection.getInputStream()) {
+				return mapperHelper.getObjectMapper().readTree(in);
+			}
+		} catch (IOException e) {
+			final String errorBody = drainErrorStream(connection);
+			throw new GeneralException(errorBody.isEmpty() ? "IO Exception" : "IO Exception: " + errorBody, e);
+		}
+	}
+
+	// responses are always read to the end and closed so the JDK keep-alive cache can reuse the connection, the
+	// start of an error body is returned for the exception message
+	private String drainErrorStream(final HttpURLConnection connection) {
+		if (connection == null) {
+			return "";
+		}
+		final ByteArrayOutputStream errorBody = new ByteArrayOutputStream();
+		try (final InputStream err = connection.getErrorStream()) {
+			if (err == null) {
+				return "";
+			}
+			final byte[] buffer = new byte[4096];
+			for (int read = err.read(buffer); read != -1; read = err.read(buffer)) {
+				errorBody.write(buffer, 0, Math.max(0, Math.min(read, MAX_ERROR_BODY_LENGTH - errorBody.size())));
+			}
+		} catch (IOException e) {
+			// the connection will not be reused
+		}
+		try {
+			return errorBody.toString("UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			return "";
+		}
+	}
+
+	public static HttpClient getInstance() {
+		return INSTANCE;
+	}
+}
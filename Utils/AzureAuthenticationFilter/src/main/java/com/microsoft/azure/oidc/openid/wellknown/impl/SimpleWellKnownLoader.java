@@ -21,24 +21,22 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.openid.wellknown.impl;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.URL;
-import java.net.URLConnection;
+import java.util.Collections;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettings;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettingsLoader;
 import com.microsoft.azure.oidc.application.settings.impl.SimpleApplicationSettingsLoader;
+import com.microsoft.azure.oidc.concurrent.executor.SharedExecutor;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleSharedExecutor;
+import com.microsoft.azure.oidc.exception.GeneralException;
+import com.microsoft.azure.oidc.http.HttpClient;
+import com.microsoft.azure.oidc.http.impl.SimpleHttpClient;
 import com.microsoft.azure.oidc.openid.wellknown.WellKnownLoader;
 
 public final class SimpleWellKnownLoader implements WellKnownLoader {
@@ -47,34 +45,28 @@ public final class SimpleWellKnownLoader implements WellKnownLoader {
 
 	private final ApplicationSettingsLoader applicationSettingsLoader = SimpleApplicationSettingsLoader.getInstance();
 
+	private final SharedExecutor sharedExecutor = SimpleSharedExecutor.getInstance();
+
+	private final HttpClient httpClient = SimpleHttpClient.getInstance();
+
 	@Override
 	public Future<JsonNode> loadAsync() {
-		final ExecutorService executorService = Executors.newSingleThreadExecutor();
-		final Future<JsonNode> future = executorService.submit(new Callable<JsonNode>() {
+		return sharedExecutor.submit(new Callable<JsonNode>() {
 			public JsonNode call() throws Exception {
 				return load();
 			}
 		});
-		executorService.shutdown();
-		return future;
 	}
 
+	@Override
 	public JsonNode load() {
 		try {
 			final ApplicationSettings applicationSettings = applicationSettingsLoader.load();
-			final StringBuilder builder = new StringBuilder();
-			final URL url = new URL(
-					String.format("https://login.microsoftonline.com/%s/v2.0/.well-known/openid-configuration?p=%s",
-							applicationSettings.getTenant(), applicationSettings.getOIDCPolicy()));
-			final URLConnection connection = url.openConnection();
-			try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-				for (String line = in.readLine(); line != null; line = in.readLine()) {
-					builder.append(line);
-				}
-			}
-			final ObjectMapper mapper = new ObjectMapper();
-			return mapper.readValue(builder.toString(), JsonNode.class);
-		} catch (IOException e) {
+			final String urlString = String.format(
+					"https://login.microsoftonline.com/%s/v2.0/.well-known/openid-configuration?p=%s",
+					applicationSettings.getTenant(), applicationSettings.getOIDCPolicy());
+			return httpClient.get(urlString, Collections.<String, String> emptyMap());
+		} catch (GeneralException e) {
 			LOGGER.error("IO Exception", e);
 		} catch (RuntimeException e) {
 			LOGGER.error(e.getMessage(), e);
@@ -29,7 +29,6 @@ import java.util.List;
 import org.apache.commons.codec.binary.Base64;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.oidc.common.algorithm.Algorithm;
 import com.microsoft.azure.oidc.common.algorithm.AlgorithmFactory;
 import com.microsoft.azure.oidc.common.algorithm.impl.SimpleAlgorithmFactory;
@@ -39,6 +38,8 @@ import com.microsoft.azure.oidc.common.id.impl.SimpleIDFactory;
 import com.microsoft.azure.oidc.common.issuer.Issuer;
 import com.microsoft.azure.oidc.common.issuer.IssuerFactory;
 import com.microsoft.azure.oidc.common.issuer.impl.SimpleIssuerFactory;
+import com.microsoft.azure.oidc.common.mapper.MapperHelper;
+import com.microsoft.azure.oidc.common.mapper.impl.SimpleMapperHelper;
 import com.microsoft.azure.oidc.common.name.Name;
 import com.microsoft.azure.oidc.common.name.NameFactory;
 import com.microsoft.azure.oidc.common.name.impl.SimpleNameFactory;
@@ -81,6 +82,8 @@ public final class SimpeTokenParser implements TokenParser {
 
 	private final EmailFactory emailFactory = SimpleEmailFactory.getInstance();
 
+	private final MapperHelper mapperHelper = SimpleMapperHelper.getInstance();
+
 	@Override
 	public Token getToken(String value) {
 		final String[] parts = value.split("\\.");
@@ -184,8 +187,7 @@ public final class SimpeTokenParser implements TokenParser {
 			throw new PreconditionException("Required parameter is null");
 		}
 		try {
-			final ObjectMapper mapper = new ObjectMapper();
-			return mapper.readValue(part, JsonNode.class);
+			return mapperHelper.getObjectMapper().readValue(part, JsonNode.class);
 		} catch (IOException e) {
 			throw new GeneralException("IO Exception", e);
 		}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.token.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import com.microsoft.azure.oidc.common.timestamp.TimeStamp;
+import com.microsoft.azure.oidc.common.timestamp.TimeStampFactory;
+import com.microsoft.azure.oidc.common.timestamp.impl.SimpleTimeStampFactory;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.exception.PreconditionException;
+import com.microsoft.azure.oidc.token.Token;
+import com.microsoft.azure.oidc.token.TokenCache;
+
+public final class SimpleTokenCache implements TokenCache {
+	private static final TokenCache INSTANCE = new SimpleTokenCache();
+
+	private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
+
+	private final TimeStampFactory timeStampFactory = SimpleTimeStampFactory.getInstance();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	@Override
+	public Token get(final String tokenString) {
+		if (tokenString == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		final String key = getKey(tokenString);
+		final Token entry = getCache().get(key);
+		if (entry == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+		if (isExpired(entry)) {
+			getCache().remove(key);
+			missCount.incrementAndGet();
+			return null;
+		}
+		hitCount.incrementAndGet();
+		return entry;
+	}
+
+	@Override
+	public Token putIfAbsent(final String tokenString, final Token token) {
+		if (tokenString == null || token == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		if (isExpired(token)) {
+			return null;
+		}
+		return getCache().putIfAbsent(getKey(tokenString), token);
+	}
+
+	@Override
+	public Long getHitCount() {
+		return hitCount.get();
+	}
+
+	@Override
+	public Long getMissCount() {
+		return missCount.get();
+	}
+
+	private Boolean isExpired(final Token token) {
+		final TimeStamp now = timeStampFactory.createTimeStamp(System.currentTimeMillis() / 1000);
+		return token.getExpiration().compareTo(now) <= 0;
+	}
+
+	private String getKey(final String tokenString) {
+		return DigestUtils.sha256Hex(tokenString);
+	}
+
+	private ConcurrentCache<String, Token> getCache() {
+		return concurrentCacheService.getCache(Token.class, "tokenCache");
+	}
+
+	public static TokenCache getInstance() {
+		return INSTANCE;
+	}
+}
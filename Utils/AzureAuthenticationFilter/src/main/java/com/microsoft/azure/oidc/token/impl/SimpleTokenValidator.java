@@ -21,15 +21,13 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.token.impl;
 
-import java.math.BigInteger;
 import java.security.InvalidKeyException;
-import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.Signature;
 import java.security.SignatureException;
-import java.security.spec.InvalidKeySpecException;
-import java.security.spec.RSAPublicKeySpec;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.commons.codec.binary.Base64;
 import org.slf4j.Logger;
@@ -63,12 +61,21 @@ public class SimpleTokenValidator implements TokenValidator {
 
 	private final AlgorithmConfigurationService algorithmConfigurationService = SimpleAlgorithmConfigurationService.getInstance();
 
+	private final ThreadLocal<Map<String, Signature>> signatureMap = new ThreadLocal<Map<String, Signature>>() {
+		@Override
+		protected Map<String, Signature> initialValue() {
+			return new HashMap<String, Signature>();
+		}
+	};
+
 	@Override
 	public Boolean validateSignature(final Token token) {
 		if (token == null) {
 			throw new PreconditionException("Required parameter is null");
 		}
-		if (algorithmConfigurationService.get().getAlgorithmClassMap().get(token.getAlgorithm().getName()).equals("HMAC")) {
+		final String algorithmName = token.getAlgorithm().getName();
+		final String algorithmClass = algorithmConfigurationService.get().getAlgorithmClassMap().get(algorithmName);
+		if (algorithmClass.equals("HMAC")) {
 			return Boolean.FALSE;
 		}
 		final Configuration configuration = configurationCache.load();
@@ -80,21 +87,15 @@ public class SimpleTokenValidator implements TokenValidator {
 			if (configuration.getKey(token.getKeyName()).getNotBefore().compareTo(now) > 0) {
 				return Boolean.FALSE;
 			}
-			final Base64 decoder = new Base64();
-			final BigInteger exponent = new BigInteger(1,
-					decoder.decode(configuration.getKey(token.getKeyName()).getExponent().getValue()));
-			final BigInteger modulus = new BigInteger(1,
-					decoder.decode(configuration.getKey(token.getKeyName()).getSecret().getValue()));
-			final RSAPublicKeySpec pubKeySpec = new RSAPublicKeySpec(modulus, exponent);
-			final KeyFactory keyFactory = KeyFactory
-					.getInstance(algorithmConfigurationService.get().getAlgorithmClassMap().get(token.getAlgorithm().getName()));
-			final PublicKey pubKey = keyFactory.generatePublic(pubKeySpec);
-			final Signature sig = Signature
-					.getInstance(algorithmConfigurationService.get().getAlgorithmMap().get(token.getAlgorithm().getName()));
+			final PublicKey pubKey = configuration.getPublicKey(token.getKeyName());
+			if (pubKey == null || !pubKey.getAlgorithm().equals(algorithmClass)) {
+				return Boolean.FALSE;
+			}
+			final Signature sig = getSignature(algorithmConfigurationService.get().getAlgorithmMap().get(algorithmName));
 			sig.initVerify(pubKey);
 			sig.update(token.getPayload().getValue().getBytes());
-			return sig.verify(decoder.decode(token.getSignature().getValue()));
-		} catch (NoSuchAlgorithmException | InvalidKeySpecException | SignatureException | InvalidKeyException e) {
+			return sig.verify(Base64.decodeBase64(token.getSignature().getValue()));
+		} catch (NoSuchAlgorithmException | SignatureException | InvalidKeyException e) {
 			LOGGER.error(e.getMessage(), e);
 			return Boolean.FALSE;
 		}
@@ -186,6 +187,16 @@ public class SimpleTokenValidator implements TokenValidator {
 		return Boolean.TRUE;
 	}
 
+	private Signature getSignature(final String javaAlgorithmName) throws NoSuchAlgorithmException {
+		final Map<String, Signature> signatures = signatureMap.get();
+		Signature signature = signatures.get(javaAlgorithmName);
+		if (signature == null) {
+			signature = Signature.getInstance(javaAlgorithmName);
+			signatures.put(javaAlgorithmName, signature);
+		}
+		return signature;
+	}
+
 	public static TokenValidator getInstance() {
 		return INSTANCE;
 	}
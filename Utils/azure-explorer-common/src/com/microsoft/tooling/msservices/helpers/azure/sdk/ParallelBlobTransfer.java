@@ -0,0 +1,265 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockSearchMode;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves a local file to or from a blob as independent blocks (ranges for downloads) handled by a bounded
+ * number of threads. Every block is read or written at its own file position, so the transfer needs no shared
+ * stream, and a failed block is retried on its own instead of restarting the whole file.
+ */
+public class ParallelBlobTransfer {
+    public static final long DEFAULT_BLOCK_SIZE = 4L * 1024 * 1024;
+    public static final int DEFAULT_CONCURRENCY = 4;
+
+    // a block blob accepts up to 100 MB per block, a single range read is kept to the same bound
+    private static final long MAX_BLOCK_SIZE = 100L * 1024 * 1024;
+    private static final int MAX_BLOCK_ATTEMPTS = 3;
+    private static final long RETRY_INTERVAL_MILLIS = 1000;
+
+    private final long blockSize;
+    private final int concurrency;
+    @Nullable
+    private final CallableSingleArg<Void, Long> progress;
+    private final AtomicLong transferredBytes = new AtomicLong();
+
+    /**
+     * @param progress called with the total number of bytes transferred so far each time a block completes
+     */
+    public ParallelBlobTransfer(long blockSize, int concurrency, @Nullable CallableSingleArg<Void, Long> progress) {
+        if (blockSize <= 0 || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("Block size must be between 1 and " + MAX_BLOCK_SIZE + " bytes");
+        }
+
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive");
+        }
+
+        this.blockSize = blockSize;
+        this.concurrency = concurrency;
+        this.progress = progress;
+    }
+
+    public void upload(@NotNull final CloudBlockBlob blob, @NotNull File file) throws Exception {
+        final long length = file.length();
+        final List<BlockEntry> blockEntries = new ArrayList<BlockEntry>();
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            for (long offset = 0; offset < length; offset += blockSize) {
+                final long position = offset;
+                final int size = (int) Math.min(blockSize, length - offset);
+                final BlockEntry entry = new BlockEntry(
+                        Base64.encode(UUID.randomUUID().toString().getBytes()), BlockSearchMode.UNCOMMITTED);
+                entry.setSize(size);
+                blockEntries.add(entry);
+
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        final byte[] buffer = new byte[size];
+                        readFully(channel, ByteBuffer.wrap(buffer), position);
+
+                        withRetries(new Callable<Void>() {
+                            @Override
+                            public Void call() throws Exception {
+                                blob.uploadBlock(entry.getId(), new ByteArrayInputStream(buffer), size);
+                                return null;
+                            }
+                        });
+
+                        onBlockTransferred(size);
+                        return null;
+                    }
+                });
+            }
+
+            runAll(tasks);
+        }
+
+        blob.commitBlockList(blockEntries);
+    }
+
+    /**
+     * Download the blob to the file, the file is deleted if the download fails not to leave a partial file
+     */
+    public void download(@NotNull final CloudBlob blob, @NotNull File file) throws Exception {
+        boolean isDownloaded = false;
+
+        try {
+            downloadBlocks(blob, file);
+            isDownloaded = true;
+        } finally {
+            if (!isDownloaded) {
+                file.delete();
+            }
+        }
+    }
+
+    private void downloadBlocks(@NotNull final CloudBlob blob, @NotNull File file) throws Exception {
+        blob.downloadAttributes();
+        final long length = blob.getProperties().getLength();
+        // every range must come from the same version of the blob
+        final AccessCondition sameVersion = AccessCondition.generateIfMatchCondition(blob.getProperties().getEtag());
+
+        try (final RandomAccessFile target = new RandomAccessFile(file, "rw")) {
+            target.setLength(length);
+        }
+
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            for (long offset = 0; offset < length; offset += blockSize) {
+                final long position = offset;
+                final int size = (int) Math.min(blockSize, length - offset);
+
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        final byte[] buffer = new byte[size];
+
+                        withRetries(new Callable<Void>() {
+                            @Override
+                            public Void call() throws Exception {
+                                int read = blob.downloadRangeToByteArray(
+                                        position, (long) size, buffer, 0, sameVersion, null, null);
+
+                                if (read != size) {
+                                    throw new EOFException(String.format(
+                                            "Expected %d bytes at offset %d, got %d", size, position, read));
+                                }
+
+                                return null;
+                            }
+                        });
+
+                        writeFully(channel, ByteBuffer.wrap(buffer), position);
+                        onBlockTransferred(size);
+                        return null;
+                    }
+                });
+            }
+
+            runAll(tasks);
+        }
+    }
+
+    private void runAll(@NotNull List<Callable<Void>> tasks) throws Exception {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(concurrency, tasks.size()),
+                new ThreadFactoryBuilder().setNameFormat("blob-transfer-%d").setDaemon(true).build());
+
+        try {
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        } finally {
+            // stops the remaining blocks if one of them failed for good
+            executor.shutdownNow();
+        }
+    }
+
+    private void onBlockTransferred(long size) throws Exception {
+        final long transferred = transferredBytes.addAndGet(size);
+
+        if (progress != null) {
+            synchronized (progress) {
+                progress.call(transferred);
+            }
+        }
+    }
+
+    private static void withRetries(@NotNull Callable<Void> block) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                block.call();
+                return;
+            } catch (Exception e) {
+                if (attempt >= MAX_BLOCK_ATTEMPTS || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+
+                Thread.sleep(RETRY_INTERVAL_MILLIS * attempt);
+            }
+        }
+    }
+
+    private static void readFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+
+            if (read < 0) {
+                throw new EOFException("File was truncated while uploading at offset " + (position + buffer.position()));
+            }
+        }
+    }
+
+    private static void writeFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
@@ -23,6 +23,8 @@ package com.microsoft.tooling.msservices.helpers.azure.sdk;
 
 import com.google.common.base.Strings;
 import com.microsoft.azure.storage.CloudStorageAccount;
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultSegment;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.blob.*;
 import com.microsoft.azure.storage.core.Base64;
@@ -37,6 +39,7 @@ import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.BlobDirectory;
 import com.microsoft.tooling.msservices.model.storage.BlobFile;
 import com.microsoft.tooling.msservices.model.storage.BlobItem;
+import com.microsoft.tooling.msservices.model.storage.BlobItemPage;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
 import com.microsoft.tooling.msservices.model.storage.Queue;
 import com.microsoft.tooling.msservices.model.storage.QueueMessage;
@@ -50,6 +53,7 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.utils.StorageAccoutUtils;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URISyntaxException;
@@ -239,53 +243,10 @@ public class StorageClientSDKManager {
             CloudBlobDirectory directory = container.getDirectoryReference(blobDirectory.getPath());
 
             for (ListBlobItem item : directory.listBlobs()) {
-                String uri = item.getUri() != null ? item.getUri().toString() : "";
-
-                if (item instanceof CloudBlobDirectory) {
-                    CloudBlobDirectory subDirectory = (CloudBlobDirectory) item;
-
-                    String name = extractBlobItemName(subDirectory.getPrefix(), delimiter);
-                    String path = Strings.nullToEmpty(subDirectory.getPrefix());
-
-                    biList.add(new BlobDirectory(name, uri, containerName, path));
-                } else if (item instanceof CloudBlob) {
-                    CloudBlob blob = (CloudBlob) item;
-
-                    String name = extractBlobItemName(blob.getName(), delimiter);
-                    String path = Strings.nullToEmpty(blob.getName());
-                    String type = "";
-                    String cacheControlHeader = "";
-                    String contentEncoding = "";
-                    String contentLanguage = "";
-                    String contentType = "";
-                    String contentMD5Header = "";
-                    String eTag = "";
-                    Calendar lastModified = new GregorianCalendar();
-                    long size = 0;
-
-                    BlobProperties properties = blob.getProperties();
-
-                    if (properties != null) {
-                        if (properties.getBlobType() != null) {
-                            type = properties.getBlobType().toString();
-                        }
-
-                        cacheControlHeader = Strings.nullToEmpty(properties.getCacheControl());
-                        contentEncoding = Strings.nullToEmpty(properties.getContentEncoding());
-                        contentLanguage = Strings.nullToEmpty(properties.getContentLanguage());
-                        contentType = Strings.nullToEmpty(properties.getContentType());
-                        contentMD5Header = Strings.nullToEmpty(properties.getContentMD5());
-                        eTag = Strings.nullToEmpty(properties.getEtag());
-
-                        if (properties.getLastModified() != null) {
-                            lastModified.setTime(properties.getLastModified());
-                        }
-
-                        size = properties.getLength();
-                    }
+                BlobItem blobItem = toBlobItem(item, containerName, delimiter);
 
-                    biList.add(new BlobFile(name, uri, containerName, path, type, cacheControlHeader, contentEncoding,
-                            contentLanguage, contentType, contentMD5Header, eTag, lastModified, size));
+                if (blobItem != null) {
+                    biList.add(blobItem);
                 }
             }
 
@@ -295,6 +256,111 @@ public class StorageClientSDKManager {
         }
     }
 
+    /**
+     * List one page of the blob items in a directory, so that a directory with lots of blobs can be shown page by
+     * page instead of being listed at once
+     *
+     * @param connectionString the storage account connection string
+     * @param blobDirectory the directory to list
+     * @param prefix the prefix of the item names to list, relative to the directory, null or empty for all items
+     * @param pageSize the max count of items in the page, up to 5000 by the service
+     * @param continuationToken the token of the previous page to list the next one, null for the first page
+     * @return the page listed
+     */
+    @NotNull
+    public BlobItemPage getBlobItemsPage(@NotNull String connectionString,
+                                         @NotNull BlobDirectory blobDirectory,
+                                         @Nullable String prefix,
+                                         int pageSize,
+                                         @Nullable ResultContinuation continuationToken)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(connectionString);
+            String containerName = blobDirectory.getContainerName();
+            String delimiter = client.getDirectoryDelimiter();
+
+            CloudBlobContainer container = client.getContainerReference(containerName);
+            CloudBlobDirectory directory = container.getDirectoryReference(blobDirectory.getPath());
+
+            ResultSegment<ListBlobItem> segment = directory.listBlobsSegmented(
+                    Strings.nullToEmpty(prefix),
+                    false,
+                    EnumSet.noneOf(BlobListingDetails.class),
+                    pageSize,
+                    continuationToken,
+                    null,
+                    null);
+
+            List<BlobItem> biList = new ArrayList<BlobItem>(segment.getResults().size());
+
+            for (ListBlobItem item : segment.getResults()) {
+                BlobItem blobItem = toBlobItem(item, containerName, delimiter);
+
+                if (blobItem != null) {
+                    biList.add(blobItem);
+                }
+            }
+
+            return new BlobItemPage(biList, segment.getHasMoreResults() ? segment.getContinuationToken() : null);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error retrieving the Blob Item list", t);
+        }
+    }
+
+    @Nullable
+    private static BlobItem toBlobItem(@NotNull ListBlobItem item, @NotNull String containerName, @NotNull String delimiter) {
+        String uri = item.getUri() != null ? item.getUri().toString() : "";
+
+        if (item instanceof CloudBlobDirectory) {
+            CloudBlobDirectory subDirectory = (CloudBlobDirectory) item;
+
+            String name = extractBlobItemName(subDirectory.getPrefix(), delimiter);
+            String path = Strings.nullToEmpty(subDirectory.getPrefix());
+
+            return new BlobDirectory(name, uri, containerName, path);
+        } else if (item instanceof CloudBlob) {
+            CloudBlob blob = (CloudBlob) item;
+
+            String name = extractBlobItemName(blob.getName(), delimiter);
+            String path = Strings.nullToEmpty(blob.getName());
+            String type = "";
+            String cacheControlHeader = "";
+            String contentEncoding = "";
+            String contentLanguage = "";
+            String contentType = "";
+            String contentMD5Header = "";
+            String eTag = "";
+            Calendar lastModified = new GregorianCalendar();
+            long size = 0;
+
+            BlobProperties properties = blob.getProperties();
+
+            if (properties != null) {
+                if (properties.getBlobType() != null) {
+                    type = properties.getBlobType().toString();
+                }
+
+                cacheControlHeader = Strings.nullToEmpty(properties.getCacheControl());
+                contentEncoding = Strings.nullToEmpty(properties.getContentEncoding());
+                contentLanguage = Strings.nullToEmpty(properties.getContentLanguage());
+                contentType = Strings.nullToEmpty(properties.getContentType());
+                contentMD5Header = Strings.nullToEmpty(properties.getContentMD5());
+                eTag = Strings.nullToEmpty(properties.getEtag());
+
+                if (properties.getLastModified() != null) {
+                    lastModified.setTime(properties.getLastModified());
+                }
+
+                size = properties.getLength();
+            }
+
+            return new BlobFile(name, uri, containerName, path, type, cacheControlHeader, contentEncoding,
+                    contentLanguage, contentType, contentMD5Header, eTag, lastModified, size);
+        }
+
+        return null;
+    }
+
     @NotNull
     public BlobDirectory createBlobDirectory(@NotNull StorageAccount storageAccount,
                                              @NotNull BlobDirectory parentBlobDirectory,
@@ -404,6 +470,29 @@ public class StorageClientSDKManager {
         }
     }
 
+    /**
+     * Uploads a local file as blocks read from their own file positions by up to {@code concurrency} threads.
+     * {@code processBlock} receives the total number of bytes uploaded each time a block is done.
+     */
+    public void uploadBlobFileContent(@NotNull String connectionString,
+                                      @NotNull BlobContainer blobContainer,
+                                      @NotNull String filePath,
+                                      @NotNull File file,
+                                      @Nullable CallableSingleArg<Void, Long> processBlock,
+                                      long blockSize,
+                                      int concurrency)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(connectionString);
+            CloudBlobContainer container = client.getContainerReference(blobContainer.getName());
+            CloudBlockBlob blob = container.getBlockBlobReference(filePath);
+
+            new ParallelBlobTransfer(blockSize, concurrency, processBlock).upload(blob, file);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error uploading the Blob File content", t);
+        }
+    }
+
     public void downloadBlobFileContent(@NotNull String connectionString,
                                         @NotNull BlobFile blobFile,
                                         @NotNull OutputStream content)
@@ -422,6 +511,30 @@ public class StorageClientSDKManager {
         }
     }
 
+    /**
+     * Downloads a blob into {@code targetFile}, which is first extended to the blob length, by fetching ranges of
+     * {@code blockSize} bytes on up to {@code concurrency} threads.
+     * {@code processBlock} receives the total number of bytes downloaded each time a range is written.
+     * {@code targetFile} is deleted if the download fails, not to leave a partial file looking complete.
+     */
+    public void downloadBlobFileContent(@NotNull String connectionString,
+                                        @NotNull BlobFile blobFile,
+                                        @NotNull File targetFile,
+                                        @Nullable CallableSingleArg<Void, Long> processBlock,
+                                        long blockSize,
+                                        int concurrency)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(connectionString);
+            CloudBlobContainer container = client.getContainerReference(blobFile.getContainerName());
+            CloudBlob blob = getCloudBlob(container, blobFile);
+
+            new ParallelBlobTransfer(blockSize, concurrency, processBlock).download(blob, targetFile);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error downloading the Blob File content", t);
+        }
+    }
+
     @NotNull
     public List<Queue> getQueues(@NotNull StorageAccount storageAccount)
             throws AzureCmdException {
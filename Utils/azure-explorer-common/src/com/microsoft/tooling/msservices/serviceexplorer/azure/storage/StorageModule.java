@@ -21,11 +21,11 @@
  */
 package com.microsoft.tooling.msservices.serviceexplorer.azure.storage;
 
-import com.microsoft.azure.management.Azure;
 import com.microsoft.azure.management.storage.StorageAccount;
 import com.microsoft.azuretools.authmanage.AuthMethodManager;
 import com.microsoft.azuretools.authmanage.SubscriptionManager;
 import com.microsoft.azuretools.sdkmanage.AzureManager;
+import com.microsoft.azuretools.utils.SubscriptionFetcher;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.helpers.ExternalStorageHelper;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
@@ -63,17 +63,17 @@ public class StorageModule extends AzureRefreshableNode {
 
             SubscriptionManager subscriptionManager = azureManager.getSubscriptionManager();
             Set<String> sidList = subscriptionManager.getAccountSidList();
-            for (String sid : sidList) {
-                try {
-                    Azure azure = azureManager.getAzure(sid);
-                    List<com.microsoft.azure.management.storage.StorageAccount> storageAccounts = azure.storageAccounts().list();
-                    for (StorageAccount sm : storageAccounts) {
-                        addChildNode(new StorageNode(this, sid, sm));
-                    }
-
-                } catch (Exception ex) {
-                    failedSubscriptions.add(new ImmutablePair<>(sid, ex.getMessage()));
-                    continue;
+            List<SubscriptionFetcher.Result> results = SubscriptionFetcher.fetch(
+                    sidList,
+                    (sid) -> azureManager.getAzure(sid).storageAccounts().list(),
+                    (sid, storageAccounts) -> {
+                        for (StorageAccount sm : storageAccounts) {
+                            addChildNode(new StorageNode(this, sid, sm));
+                        }
+                    });
+            for (SubscriptionFetcher.Result result : results) {
+                if (result.isFailed()) {
+                    failedSubscriptions.add(new ImmutablePair<>(result.getSubscriptionId(), result.getError().getMessage()));
                 }
             }
         } catch (Exception ex) {
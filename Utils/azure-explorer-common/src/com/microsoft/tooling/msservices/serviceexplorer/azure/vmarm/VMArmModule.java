@@ -21,11 +21,11 @@
  */
 package com.microsoft.tooling.msservices.serviceexplorer.azure.vmarm;
 
-import com.microsoft.azure.management.Azure;
 import com.microsoft.azure.management.compute.VirtualMachine;
 import com.microsoft.azuretools.authmanage.AuthMethodManager;
 import com.microsoft.azuretools.authmanage.SubscriptionManager;
 import com.microsoft.azuretools.sdkmanage.AzureManager;
+import com.microsoft.azuretools.utils.SubscriptionFetcher;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
 import com.microsoft.tooling.msservices.serviceexplorer.AzureRefreshableNode;
@@ -58,18 +58,17 @@ public class VMArmModule extends AzureRefreshableNode {
 
             SubscriptionManager subscriptionManager = azureManager.getSubscriptionManager();
             Set<String> sidList = subscriptionManager.getAccountSidList();
-            for (String sid : sidList) {
-                try {
-                    Azure azure = azureManager.getAzure(sid);
-                    List<VirtualMachine> virtualMachines = azure.virtualMachines().list();
-
-                    for (VirtualMachine vm : virtualMachines) {
-                        addChildNode(new VMNode(this, sid, vm));
-                    }
-
-                } catch (Exception ex) {
-                    failedSubscriptions.add(new ImmutablePair<>(sid, ex.getMessage()));
-                    continue;
+            List<SubscriptionFetcher.Result> results = SubscriptionFetcher.fetch(
+                    sidList,
+                    (sid) -> azureManager.getAzure(sid).virtualMachines().list(),
+                    (sid, virtualMachines) -> {
+                        for (VirtualMachine vm : virtualMachines) {
+                            addChildNode(new VMNode(this, sid, vm));
+                        }
+                    });
+            for (SubscriptionFetcher.Result result : results) {
+                if (result.isFailed()) {
+                    failedSubscriptions.add(new ImmutablePair<>(result.getSubscriptionId(), result.getError().getMessage()));
                 }
             }
         } catch (Exception ex) {
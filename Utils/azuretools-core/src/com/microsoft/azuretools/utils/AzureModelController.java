@@ -40,6 +40,7 @@ import com.microsoft.azuretools.utils.WebAppUtils.WebAppDetails;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -101,7 +102,7 @@ public class AzureModelController {
         AzureUIRefreshCore.removeAll();
     }
 
-    private static synchronized void subscriptionSelectionChanged(IProgressIndicator progressIndicator) throws IOException, AuthException {
+    private static synchronized void subscriptionSelectionChanged(IProgressIndicator progressIndicator) throws IOException, AuthException, InterruptedException {
         System.out.println("AzureModelController.subscriptionSelectionChanged: starting");
         AzureManager azureManager = AuthMethodManager.getInstance().getAzureManager();
         // not signed in
@@ -134,38 +135,11 @@ public class AzureModelController {
             return;
         }
 
+        Map<String, SubscriptionDetail> sidToNewSubscriptionMap = new LinkedHashMap<>();
         for (SubscriptionDetail sd : sdl) {
             if (!srgMap.containsKey(sd)) {
                 if (!sd.isSelected()) continue;
-
-                if(progressIndicator != null && progressIndicator.isCanceled()) {
-                    progressIndicator.setText("Cancelling...");
-                    clearAll();
-                    return;
-                    // FIXME: throw exception?
-                }
-
-                Azure azure = azureManager.getAzure(sd.getSubscriptionId());
-                // subscription locations
-                List<Subscription> sl = azureManager.getSubscriptions();
-                System.out.println("Updating subscription locations");
-                Subscription subscription = sidToSubscriptionMap.get(sd.getSubscriptionId());
-                if(progressIndicator != null) progressIndicator.setText(String.format("Updating subscription '%s' locations...", subscription.displayName()));
-                List<Location> locl = subscription.listLocations();
-                Collections.sort(locl, new Comparator<Location>() {
-                    @Override
-                    public int compare(Location lhs, Location rhs) {
-                        return lhs.displayName().compareTo(rhs.displayName());
-                    }
-                });
-
-                Map<SubscriptionDetail, List<Location>> sdlocMap = azureModel.getSubscriptionToLocationMap();
-                sdlocMap.put(sd, locl);
-
-                // resource group maps
-                List<ResourceGroup> rgList = azure.resourceGroups().list();
-                srgMap.put(sd, rgList);
-                updateResGrDependency(azure, rgList, progressIndicator, rgwaMap, rgspMap);
+                sidToNewSubscriptionMap.put(sd.getSubscriptionId(), sd);
             } else {
                 // find and modify the key
                 for (SubscriptionDetail sdk : srgMap.keySet()) {
@@ -175,6 +149,51 @@ public class AzureModelController {
                 }
             }
         }
+
+        if(progressIndicator != null) progressIndicator.setText("Updating subscription locations and resource groups...");
+        Map<SubscriptionDetail, List<Location>> sdlocMap = azureModel.getSubscriptionToLocationMap();
+        List<SubscriptionFetcher.Result> results = SubscriptionFetcher.fetch(sidToNewSubscriptionMap.keySet(),
+            (sid) -> {
+                if (progressIndicator != null && progressIndicator.isCanceled()) {
+                    throw new CanceledByUserException();
+                }
+                Azure azure = azureManager.getAzure(sid);
+                // subscription locations
+                List<Location> locl = sidToSubscriptionMap.get(sid).listLocations();
+                Collections.sort(locl, Comparator.comparing(Location::displayName));
+
+                // resource group maps
+                List<ResourceGroup> rgList = azure.resourceGroups().list();
+                updateResGrDependency(azure, rgList, progressIndicator, rgwaMap, rgspMap);
+                return new SubscriptionDepParams(locl, rgList);
+            },
+            (sid, params) -> {
+                SubscriptionDetail sd = sidToNewSubscriptionMap.get(sid);
+                sdlocMap.put(sd, params.locl);
+                srgMap.put(sd, params.rgList);
+            });
+
+        if (progressIndicator != null && progressIndicator.isCanceled()) {
+            progressIndicator.setText("Cancelling...");
+            clearAll();
+            return;
+        }
+
+        for (SubscriptionFetcher.Result result : results) {
+            if (result.isFailed()) {
+                LOGGER.log(Level.WARNING, "Failed to update subscription " + result.getSubscriptionId(), result.getError());
+            }
+        }
+    }
+
+    static class SubscriptionDepParams {
+        List<Location> locl;
+        List<ResourceGroup> rgList;
+
+        public SubscriptionDepParams(List<Location> locl, List<ResourceGroup> rgList) {
+            this.locl = locl;
+            this.rgList = rgList;
+        }
     }
 
     static class RgDepParams {
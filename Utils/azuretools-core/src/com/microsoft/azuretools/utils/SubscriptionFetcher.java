@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *   <p/>
+ *  All rights reserved.
+ *   <p/>
+ *  MIT License
+ *   <p/>
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ *  to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  <p/>
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *   <p/>
+ *  THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ *  THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ *  TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package com.microsoft.azuretools.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs one ARM list call per subscription on a shared, bounded pool. Results are handed back on the calling thread
+ * in the order the subscriptions complete, so callers can update their (non thread-safe) model or node tree as each
+ * one arrives instead of waiting for the slowest subscription.
+ */
+public class SubscriptionFetcher {
+    private final static Logger LOGGER = Logger.getLogger(SubscriptionFetcher.class.getName());
+    public static final int MAX_CONCURRENT_SUBSCRIPTIONS = 8;
+
+    private static final ThreadPoolExecutor executor;
+
+    static {
+        final AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(MAX_CONCURRENT_SUBSCRIPTIONS, MAX_CONCURRENT_SUBSCRIPTIONS,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), (runnable) -> {
+                    Thread thread = new Thread(runnable, "subscription-fetcher-" + threadCount.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load(String sid) throws Exception;
+    }
+
+    public static class Result {
+        private final String sid;
+        private final long elapsedMillis;
+        private final Throwable error;
+
+        Result(String sid, long elapsedMillis, Throwable error) {
+            this.sid = sid;
+            this.elapsedMillis = elapsedMillis;
+            this.error = error;
+        }
+
+        public String getSubscriptionId() {
+            return sid;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        public boolean isFailed() {
+            return error != null;
+        }
+    }
+
+    /**
+     * Loads every subscription in {@code sidList} concurrently and passes each successful result to
+     * {@code onLoaded} on the calling thread as soon as it is available. A failure of one subscription doesn't
+     * stop the others; it is reported in the returned results, which are in completion order.
+     */
+    public static <T> List<Result> fetch(Collection<String> sidList,
+                                         Loader<T> loader,
+                                         BiConsumer<String, T> onLoaded) throws InterruptedException {
+        if (sidList.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<T>, String> sidByFuture = new HashMap<>();
+        Map<String, Long> elapsedBySid = new ConcurrentHashMap<>();
+
+        for (String sid : sidList) {
+            sidByFuture.put(completionService.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return loader.load(sid);
+                } finally {
+                    elapsedBySid.put(sid, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            }), sid);
+        }
+
+        List<Result> results = new ArrayList<>(sidByFuture.size());
+        try {
+            for (int i = 0; i < sidByFuture.size(); i++) {
+                Future<T> future = completionService.take();
+                String sid = sidByFuture.get(future);
+                Throwable error = null;
+
+                try {
+                    onLoaded.accept(sid, future.get());
+                } catch (ExecutionException ex) {
+                    error = ex.getCause();
+                } catch (RuntimeException ex) {
+                    error = ex;
+                }
+
+                Result result = new Result(sid, elapsedBySid.getOrDefault(sid, 0L), error);
+                results.add(result);
+
+                if (result.isFailed()) {
+                    LOGGER.log(Level.WARNING, String.format("Subscription %s failed after %d ms",
+                            sid, result.getElapsedMillis()), error);
+                } else {
+                    LOGGER.fine(String.format("Subscription %s loaded in %d ms", sid, result.getElapsedMillis()));
+                }
+            }
+        } finally {
+            // only has an effect when the caller was interrupted before every subscription completed
+            for (Future<T> future : sidByFuture.keySet()) {
+                future.cancel(true);
+            }
+        }
+
+        return results;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *   <p/>
+ *  All rights reserved.
+ *   <p/>
+ *  MIT License
+ *   <p/>
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ *  to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  <p/>
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *   <p/>
+ *  THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ *  THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ *  TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package com.microsoft.azuretools.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SubscriptionFetcherTest {
+    @Test
+    public void testFetchRunsSubscriptionsConcurrently() throws Exception {
+        List<String> sidList = Arrays.asList("sid1", "sid2", "sid3", "sid4");
+        // every load waits for all the others, so this only completes if they run at the same time
+        CountDownLatch allStarted = new CountDownLatch(sidList.size());
+        Thread caller = Thread.currentThread();
+        List<String> consumerThreads = new ArrayList<>();
+        Map<String, String> loaded = new HashMap<>();
+
+        List<SubscriptionFetcher.Result> results = SubscriptionFetcher.fetch(sidList, (sid) -> {
+            allStarted.countDown();
+            Assert.assertTrue(allStarted.await(10, TimeUnit.SECONDS));
+            return "resources of " + sid;
+        }, (sid, resources) -> {
+            consumerThreads.add(Thread.currentThread().getName());
+            loaded.put(sid, resources);
+        });
+
+        Assert.assertEquals(4, results.size());
+        Assert.assertEquals(4, loaded.size());
+        Assert.assertEquals("resources of sid3", loaded.get("sid3"));
+        for (String threadName : consumerThreads) {
+            Assert.assertEquals(caller.getName(), threadName);
+        }
+    }
+
+    @Test
+    public void testFetchReportsFailuresPerSubscription() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        Map<String, Integer> loaded = new HashMap<>();
+
+        List<SubscriptionFetcher.Result> results = SubscriptionFetcher.fetch(Arrays.asList("good", "bad"), (sid) -> {
+            loads.incrementAndGet();
+            if (sid.equals("bad")) {
+                throw new IllegalStateException("forbidden");
+            }
+            return 1;
+        }, loaded::put);
+
+        Assert.assertEquals(2, loads.get());
+        Assert.assertEquals(1, loaded.size());
+        Assert.assertTrue(loaded.containsKey("good"));
+        for (SubscriptionFetcher.Result result : results) {
+            Assert.assertEquals(result.getSubscriptionId().equals("bad"), result.isFailed());
+            Assert.assertTrue(result.getElapsedMillis() >= 0);
+        }
+        SubscriptionFetcher.Result failed = results.stream().filter(SubscriptionFetcher.Result::isFailed).findFirst().get();
+        Assert.assertEquals("forbidden", failed.getError().getMessage());
+    }
+}
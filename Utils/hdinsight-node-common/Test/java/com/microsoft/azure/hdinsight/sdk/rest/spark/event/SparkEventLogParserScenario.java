@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ */
+
+package com.microsoft.azure.hdinsight.sdk.rest.spark.event;
+
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SparkEventLogParserScenario {
+    private String eventLog;
+    private List<Object> eventsParsed;
+
+    @Given("^a Spark event log with lines:$")
+    public void setEventLog(List<String> lines) throws Throwable {
+        eventLog = String.join("\n", lines);
+    }
+
+    @When("^parse the Spark event log for event '(.+)'$")
+    public void parseEventLog(String eventName) throws Throwable {
+        eventsParsed = new ArrayList<>();
+
+        new SparkEventLogParser()
+                .withEvent(eventName, JobStartEventLog.class)
+                .parse(new ByteArrayInputStream(eventLog.getBytes(StandardCharsets.UTF_8)),
+                       (name, event) -> eventsParsed.add(event));
+    }
+
+    @Then("^the job start events parsed should have job IDs:$")
+    public void checkJobIds(List<Integer> jobIds) throws Throwable {
+        List<Integer> jobIdsParsed = eventsParsed.stream()
+                .map(event -> ((JobStartEventLog) event).getJobId())
+                .collect(Collectors.toList());
+
+        assertThat(jobIdsParsed).containsExactlyElementsOf(jobIds);
+    }
+
+    @Then("^peek the event name of '(.*)' should be '(.*)'$")
+    public void checkPeekEventName(String line, String eventName) throws Throwable {
+        String expect = eventName.isEmpty() ? null : eventName;
+
+        assertThat(SparkEventLogParser.peekEventName(line)).isEqualTo(expect);
+    }
+}
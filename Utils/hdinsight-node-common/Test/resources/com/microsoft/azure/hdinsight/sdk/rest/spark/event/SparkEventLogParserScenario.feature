@@ -0,0 +1,31 @@
+Feature: SparkEventLogParser Testing
+
+  Scenario Outline: peekEventName gets the event name without parsing the other fields
+    Then peek the event name of '<line>' should be '<eventName>'
+
+    Examples:
+      | line                                                                                         | eventName             |
+      | {"Event":"SparkListenerJobStart","Job ID":1}                                                 | SparkListenerJobStart |
+      | {"Job ID":1,"Stage Infos":[{"Stage ID":0,"Event":"Nested"}],"Event":"SparkListenerJobStart"} | SparkListenerJobStart |
+      | {"Event":{"Name":"SparkListenerJobStart"}}                                                   |                       |
+      | {"Job ID":1}                                                                                 |                       |
+      | {"Event":"SparkListenerJobStart","Job                                                        | SparkListenerJobStart |
+      | {"Job ID":1,"Event                                                                           |                       |
+      | not a json line                                                                              |                       |
+      | ["SparkListenerJobStart"]                                                                    |                       |
+
+  Scenario: parse gets only the events added and skips the lines not parsed
+    Given a Spark event log with lines:
+      | {"Event":"SparkListenerLogStart","Spark Version":"2.3.0"}                                      |
+      | {"Event":"SparkListenerJobStart","Job ID":1,"Submission Time":1530000000000,"Stage IDs":[0,1]} |
+      | {"Event":"SparkListenerTaskEnd","Stage ID":0,"Task Info":{"Task ID":0}}                        |
+      | not a json line                                                                                |
+      | {"Event":"sparkListenerJobStart","Job ID":2}                                                   |
+      | {"Job ID":3,"Stage Infos":[{"Stage ID":2}],"Event":"SparkListenerJobStart"}                    |
+      | {"Event":"SparkListenerJobStart","Job ID":"not a number"}                                      |
+      | {"Event":"SparkListenerJobStart","Job ID":4,"Stage IDs":[                                      |
+    When parse the Spark event log for event 'SparkListenerJobStart'
+    Then the job start events parsed should have job IDs:
+      | 1 |
+      | 2 |
+      | 3 |
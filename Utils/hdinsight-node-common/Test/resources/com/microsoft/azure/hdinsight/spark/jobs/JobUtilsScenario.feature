@@ -34,3 +34,11 @@ Feature: JobUtils Testing
   Scenario: getInformationFromYarnLogDom can read Spark 2.2 Yarn History server log format
     Given mock a http service in JobUtilsScenario for GET request '/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy/stderr?start=0' to return '<!DOCTYPE html PUBLIC "-//W3C//DTD HTML 4.01//EN" "http://www.w3.org/TR/html4/strict.dtd"> <html> <meta http-equiv="X-UA-Compatible" content="IE=8"> <meta http-equiv="Content-type" content="text/html; charset=UTF-8"> <title> Logs for container_e03_1492780173422_0013_02_000001 </title>   <table id="layout" class="ui-widget-content"> <thead> <tr> <td colspan="2"> <div id="header" class="ui-widget"> <div id="user"> Logged in as: dr.who </div> <div id="logo"> <img src="/yarnui/static/hadoop-st.png"> </div> <h1> Logs for container_e03_1492780173422_0013_02_000001 </h1> </div> </td> </tr> </thead> <tfoot> <tr> <td colspan="2"> <div id="footer" class="ui-widget"> </div> </td> </tr> </tfoot> <tbody> <tr> <td id="navcell"> <div id="nav"> <h3> ResourceManager </h3> <ul> <li> <a href="/yarnui/hn/">RM Home</a> </ul> <h3> NodeManager </h3> <ul> <li> <a href="/yarnui/10.0.0.15/node/node">Node Information</a> <li> <a href="/yarnui/10.0.0.15/node/allApplications">List of Applications</a> <li> <a href="/yarnui/10.0.0.15/node/allContainers">List of Containers</a> </ul> <h3> Tools </h3> <ul> <li> <a href="/yarnui/10.0.0.15/conf">Configuration</a> <li> <a href="/yarnui/10.0.0.15/logs">Local logs</a> <li> <a href="/yarnui/10.0.0.15/stacks">Server stacks</a> <li> <a href="/yarnui/10.0.0.15/jmx?qry=Hadoop:*">Server metrics</a> </ul> </div> </td> <td class="content"> <pre>\n\n</pre> <p> Log Type: stderr <pre>spark2.2stderr</pre> </td> </tr> </tbody> </table> </html>' with status code 200
     Then get YarnUI log 'stderr' from '/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy' should return 'spark2.2stderr'
+
+  Scenario: getInformationFromYarnLogDom picks the requested log type and unescapes it
+    Given mock a http service in JobUtilsScenario for GET request '/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy/stderr?start=0' to return '<!DOCTYPE html PUBLIC "-//W3C//DTD HTML 4.01//EN" "http://www.w3.org/TR/html4/strict.dtd"> <html> <title> Logs for container_e03_1492780173422_0013_02_000001 </title> <table id="layout" class="ui-widget-content"> <tbody> <tr> <td id="navcell"> <div id="nav"> <h3> ResourceManager </h3> <ul> <li> <a href="/yarnui/hn/">RM Home</a> </ul> </div> </td> <td class="content"> <p> Log Type: stdout <pre>stdoutlog</pre> <p> Log Type: stderr <pre>a &lt;b&gt; &amp; c</pre> <p> Log Type: directory.info <pre>dirlog</pre> </td> </tr> </tbody> </table> </html>' with status code 200
+    Then get YarnUI log 'stderr' from '/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy' should return 'a <b> & c'
+
+  Scenario: getInformationFromYarnLogDom only reads the log out of the content cell
+    Given mock a http service in JobUtilsScenario for GET request '/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy/stderr?start=0' to return '<!DOCTYPE html PUBLIC "-//W3C//DTD HTML 4.01//EN" "http://www.w3.org/TR/html4/strict.dtd"> <html> <title> Logs for container_e03_1492780173422_0013_02_000001 </title> <pre>headerlog</pre> <table id="layout" class="ui-widget-content"> <tbody> <tr> <td id="navcell"> <div id="nav"> <pre>navlog</pre> <table> <tr> <td> <a href="/yarnui/hn/">RM Home</a> </td> </tr> </table> </div> </td> <td class="content"> <table> <tr> <td> Container </td> </tr> </table> <pre>contentlog</pre> </td> </tr> </tbody> </table> <pre>footerlog</pre> </html>' with status code 200
+    Then get YarnUI log 'stderr' from '/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy' should return 'contentlog'
@@ -40,12 +40,18 @@ function serializeQuery(queriesMap) {
     return result.substring(1);
 }
 
-function getMessageAsync(url, type, callback, appId) {
+// errorCallback(status, message) is called for an error response, with status 0 for a timeout or network error
+function getMessageAsync(url, type, callback, appId, extraQueries, errorCallback) {
     var queries = {
         'http-type' : type || 'spark',
         'cluster-name' : spark.clusterName || '0',
         'appId' : appId || '0'
     };
+    if (extraQueries) {
+        Object.keys(extraQueries).forEach(function(key) {
+            queries[key] = extraQueries[key];
+        });
+    }
     var queryString = serializeQuery(queries);
 
     var xmlHttp = new XMLHttpRequest();
@@ -54,6 +60,14 @@ function getMessageAsync(url, type, callback, appId) {
         if (--asyncMessageCounter === 0) {
             $('body').css("cursor", "default");
         }
+        if (errorCallback) {
+            errorCallback(0, 'request timed out');
+        }
+    };
+    xmlHttp.onerror = function () {
+        if (errorCallback) {
+            errorCallback(0, 'network error');
+        }
     };
     ++asyncMessageCounter;
     $('body').css("cursor", "progress");
@@ -71,6 +85,8 @@ function getMessageAsync(url, type, callback, appId) {
                 if (callback) {
                     callback(s);
                 }
+            } else if (xmlHttp.status !== 0 && errorCallback) {
+                errorCallback(xmlHttp.status, xmlHttp.responseText);
             }
         }
     };
@@ -323,10 +323,44 @@ function renderStageDetails() {
 }
 
 function renderTaskDetails() {
+    spark.tasks = [];
+    renderTaskPage(spark.appId, 0);
+}
+
+var TASK_PAGE_MAX_RETRIES = 3;
+
+// render the tasks arrived, and ask for the following ones until all stages' tasks are got
+function renderTaskPage(appId, offset, retries) {
+    retries = retries || 0;
     getMessageAsync('/applications/tasks_summary','spark', function(s){
-        var tasks = JSON.parse(s);
-        renderTaskSummary(tasks);
-    }, spark.appId);
+        if (appId !== spark.appId) {
+            return;
+        }
+        var page = JSON.parse(s);
+        spark.tasks = spark.tasks.concat(page.tasks);
+        renderTaskSummary(spark.tasks);
+        if (!page.completed) {
+            setTimeout(function() {
+                renderTaskPage(appId, page.nextOffset);
+            }, 1000);
+        }
+    }, appId, {'offset' : offset}, function(status, message) {
+        if (appId !== spark.appId) {
+            return;
+        }
+        if (retries < TASK_PAGE_MAX_RETRIES) {
+            setTimeout(function() {
+                renderTaskPage(appId, offset, retries + 1);
+            }, 1000 * Math.pow(2, retries + 1));
+        } else {
+            renderTaskPageError(message || ('HTTP ' + status));
+        }
+    });
+}
+
+function renderTaskPageError(message) {
+    $('#taskSummaryTbody').append($('<tr>').append(
+        $('<td>').attr('colspan', taskSummaryColumn.length).text('Failed to get the tasks: ' + message)));
 }
 
 function renderExecutors() {
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A repeatable entity streaming the bytes [offset, offset + length) of a local file straight from disk,
+ * so large artifacts can be uploaded, or resumed part way through, without being buffered in memory
+ */
+public class FileRegionEntity extends AbstractHttpEntity {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @NotNull
+    private final File file;
+
+    private final long offset;
+
+    private final long length;
+
+    public FileRegionEntity(@NotNull File file, long offset, long length, @NotNull ContentType contentType) {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Invalid file region " + offset + "+" + length);
+        }
+
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+        setContentType(contentType.toString());
+    }
+
+    public FileRegionEntity(@NotNull File file, long offset, @NotNull ContentType contentType) {
+        this(file, offset, file.length() - offset, contentType);
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return length;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        channel.position(offset);
+
+        return new BoundedInputStream(Channels.newInputStream(channel), length);
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long written = 0;
+
+            while (written < length) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, length - written));
+
+                int read = channel.read(buffer, offset + written);
+                if (read < 0) {
+                    throw new IOException(String.format("%s ends at %d, expected %d bytes",
+                            file, offset + written, offset + length));
+                }
+
+                outStream.write(buffer.array(), 0, read);
+                written += read;
+            }
+
+            outStream.flush();
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
@@ -21,7 +21,9 @@
  */
 package com.microsoft.azure.hdinsight.sdk.rest;
 
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -32,6 +34,7 @@ import org.apache.http.HttpEntity;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -107,6 +110,24 @@ public final class ObjectConvertUtils {
         return Optional.empty();
     }
 
+    /**
+     * Write an object as JSON to a stream, without having the whole JSON string in memory
+     *
+     * @param obj the object to write
+     * @param outputStream the stream to write to, which is flushed but not closed
+     * @throws IOException for the object not able to be serialized or the writing failure
+     */
+    public static <T> void convertObjectToJsonStream(@NotNull T obj, @NotNull OutputStream outputStream) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        try {
+            objectMapper.writeValue(generator, obj);
+        } finally {
+            generator.close();
+        }
+    }
+
     public static <T> Optional<String> convertObjectToXmlString(@NotNull T obj) {
         try {
             return Optional.ofNullable(xmlMapper.writeValueAsString(obj));
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.azure.hdinsight.sdk.rest.spark.event;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Parser of Spark event logs, which have one listener event JSON object per line.
+ *
+ * The log is read line by line, and only the event name of a line is parsed to check if the event is wanted, the
+ * other events are skipped without building their objects. So a multi-GB event log can be parsed without having it
+ * in memory. Lines not parsed, such as the last line being written by a running application, are skipped.
+ */
+public class SparkEventLogParser {
+    public static final String JOB_START_EVENT = "SparkListenerJobStart";
+    public static final String STAGE_COMPLETED_EVENT = "SparkListenerStageCompleted";
+    public static final String TASK_END_EVENT = "SparkListenerTaskEnd";
+
+    private static final String EVENT_FIELD = "Event";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final ObjectMapper objectMapper = new ObjectMapper(jsonFactory)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    // event name -> the class to bind the event to, the event names are case insensitive
+    private final Map<String, Class<?>> eventClasses = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * Add an event to parse
+     *
+     * @param eventName the event name, such as SparkListenerJobStart
+     * @param eventClass the class to bind the event to
+     * @return this parser
+     */
+    @NotNull
+    public SparkEventLogParser withEvent(@NotNull String eventName, @NotNull Class<?> eventClass) {
+        eventClasses.put(eventName, eventClass);
+
+        return this;
+    }
+
+    /**
+     * Parse the events added from an event log
+     *
+     * @param eventLog the event log stream, which isn't closed by the parser
+     * @param onEvent the consumer of event name and the event object, in the log order
+     * @throws IOException for reading the event log failure
+     */
+    public void parse(@NotNull InputStream eventLog, @NotNull BiConsumer<String, Object> onEvent) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(eventLog, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String eventName = peekEventName(line);
+            if (eventName == null) {
+                continue;
+            }
+
+            Class<?> eventClass = eventClasses.get(eventName);
+            if (eventClass == null) {
+                continue;
+            }
+
+            try {
+                onEvent.accept(eventName, objectMapper.readValue(line, eventClass));
+            } catch (JsonProcessingException ignored) {
+                // The line isn't the event expected
+            }
+        }
+    }
+
+    /**
+     * Get the event name of an event log line, by parsing the line until the Event field, which is the first field
+     * written by Spark. The values of the other fields before it are skipped.
+     *
+     * @param line the event log line
+     * @return the event name, null for a line not in event format
+     */
+    @Nullable
+    static String peekEventName(@NotNull String line) {
+        try (JsonParser parser = jsonFactory.createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if (EVENT_FIELD.equals(fieldName)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+
+                parser.skipChildren();
+            }
+        } catch (IOException ignored) {
+            // Not a JSON line
+        }
+
+        return null;
+    }
+}
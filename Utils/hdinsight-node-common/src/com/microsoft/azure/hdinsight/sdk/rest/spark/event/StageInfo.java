@@ -49,6 +49,16 @@ public class StageInfo {
     @JsonProperty("RDD Info")
     private RDDInfo[] rddInfos;
 
+    // Set after the stage is submitted or completed, such as in the SparkListenerStageCompleted event
+    @JsonProperty("Submission Time")
+    private Long submissionTime;
+
+    @JsonProperty("Completion Time")
+    private Long completionTime;
+
+    @JsonProperty("Failure Reason")
+    private String failureReason;
+
     public int getStageId() {
         return stageId;
     }
@@ -112,4 +122,28 @@ public class StageInfo {
     public void setRddInfos(RDDInfo[] rddInfos) {
         this.rddInfos = rddInfos;
     }
+
+    public Long getSubmissionTime() {
+        return submissionTime;
+    }
+
+    public void setSubmissionTime(Long submissionTime) {
+        this.submissionTime = submissionTime;
+    }
+
+    public Long getCompletionTime() {
+        return completionTime;
+    }
+
+    public void setCompletionTime(Long completionTime) {
+        this.completionTime = completionTime;
+    }
+
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    public void setFailureReason(String failureReason) {
+        this.failureReason = failureReason;
+    }
 }
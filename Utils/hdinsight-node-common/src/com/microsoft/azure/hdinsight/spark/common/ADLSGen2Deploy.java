@@ -26,6 +26,7 @@
  */
 package com.microsoft.azure.hdinsight.spark.common;
 
+import com.microsoft.azure.hdinsight.common.MessageInfoType;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
 import com.microsoft.azure.hdinsight.sdk.storage.adlsgen2.ADLSGen2FSOperation;
@@ -34,11 +35,13 @@ import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.http.HttpStatus;
 import rx.Observable;
+import rx.Observer;
 import rx.exceptions.Exceptions;
 
 import java.io.File;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.AbstractMap;
 
 public class ADLSGen2Deploy implements Deployable, ILogger {
     @NotNull
@@ -47,9 +50,37 @@ public class ADLSGen2Deploy implements Deployable, ILogger {
     @NotNull
     public String destinationRootPath;
 
+    @Nullable
+    private Observer<AbstractMap.SimpleImmutableEntry<MessageInfoType, String>> ctrlSubject;
+
     public ADLSGen2Deploy(@NotNull HttpObservable http, @NotNull String destinationRootPath) {
+        this(http, destinationRootPath, null);
+    }
+
+    public ADLSGen2Deploy(@NotNull HttpObservable http,
+                          @NotNull String destinationRootPath,
+                          @Nullable Observer<AbstractMap.SimpleImmutableEntry<MessageInfoType, String>> ctrlSubject) {
         this.destinationRootPath = destinationRootPath;
         this.http = http;
+        this.ctrlSubject = ctrlSubject;
+    }
+
+    @Nullable
+    public Observer<AbstractMap.SimpleImmutableEntry<MessageInfoType, String>> getCtrlSubject() {
+        return ctrlSubject;
+    }
+
+    private void reportProgress(@NotNull File src, long uploadedBytes) {
+        String message = String.format("Uploading %s: %d of %d KB (%d%%)",
+                src.getName(),
+                uploadedBytes / 1024,
+                src.length() / 1024,
+                src.length() == 0 ? 100 : uploadedBytes * 100 / src.length());
+
+        log().debug(message);
+        if (getCtrlSubject() != null) {
+            getCtrlSubject().onNext(new AbstractMap.SimpleImmutableEntry<>(MessageInfoType.Info, message));
+        }
     }
 
     private URI getUploadDir() {
@@ -62,7 +93,7 @@ public class ADLSGen2Deploy implements Deployable, ILogger {
         // four steps to upload via adls gen2 rest api
         // 1.put request to create new dir
         // 2.put request to create new file(artifact) which is empty
-        // 3.patch request to append data to file
+        // 3.patch requests to append data to file, in parallel chunks
         // 4.patch request to flush data to file
 
         URI destURI = getUploadDir();
@@ -84,7 +115,7 @@ public class ADLSGen2Deploy implements Deployable, ILogger {
                 })
                 .doOnNext(ignore -> log().info(String.format("Create filesystem %s successfully.", dirPath)))
                 .flatMap(ignore -> op.createFile(filePath))
-                .flatMap(ignore -> op.uploadData(filePath, src))
+                .flatMap(ignore -> op.uploadData(filePath, src, uploaded -> reportProgress(src, uploaded)))
                 .doOnNext(ignore -> log().info(String.format("Append data to file %s successfully.", filePath)))
                 .map(ignored -> {
                     try {
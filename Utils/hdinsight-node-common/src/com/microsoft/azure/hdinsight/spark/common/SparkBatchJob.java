@@ -45,7 +45,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import rx.Observable;
 import rx.Observer;
-import rx.Subscriber;
 
 import java.io.File;
 import java.io.IOException;
@@ -171,6 +170,11 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
     @Nullable
     private Deployable jobDeploy;
 
+    /**
+     * The shared Livy batch status poller
+     */
+    private final SparkBatchJobStatusTracker statusTracker = SparkBatchJobStatusTracker.getInstance();
+
     public SparkBatchJob(
             SparkSubmissionParameter submissionParameter,
             SparkBatchSubmission sparkBatchSubmission,
@@ -492,6 +496,12 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted.");
         }
 
+        // Served by the shared poller while the job is watched
+        Optional<SparkSubmitResponse> trackedStatus = statusTracker.getLatestStatus(getConnectUri(), batchId);
+        if (trackedStatus.isPresent()) {
+            return trackedStatus.get().getState();
+        }
+
         int retries = 0;
 
         do {
@@ -623,6 +633,14 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
 
         return Observable.create(ob -> {
             try {
+                Optional<String> trackedAppId = statusTracker.getLatestStatus(getConnectUri(), getBatchId())
+                        .map(SparkSubmitResponse::getAppId);
+                if (trackedAppId.isPresent()) {
+                    ob.onNext(trackedAppId.get());
+                    ob.onCompleted();
+                    return;
+                }
+
                 HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
                         getConnectUri().toString(), getBatchId());
 
@@ -844,6 +862,12 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted.");
         }
 
+        // Served by the shared poller while the job is watched
+        Optional<SparkSubmitResponse> trackedStatus = statusTracker.getLatestStatus(getConnectUri(), batchId);
+        if (trackedStatus.isPresent()) {
+            return trackedStatus.get().isAlive();
+        }
+
         int retries = 0;
 
         do {
@@ -880,43 +904,13 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted."));
         }
 
-        return Observable.create((Subscriber<? super SimpleImmutableEntry<String, String>> ob) -> {
-            try {
-                boolean isJobActive;
-                SparkBatchJobState state = SparkBatchJobState.NOT_STARTED;
-                String diagnostics = "";
-
-                do {
-                    HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
-                            this.getConnectUri().toString(), batchId);
-
-                    if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
-                        SparkSubmitResponse jobResp = ObjectConvertUtils.convertJsonToObject(
-                                httpResponse.getMessage(), SparkSubmitResponse.class)
-                                .orElseThrow(() -> new UnknownServiceException(
-                                        "Bad spark job response: " + httpResponse.getMessage()));
-
-                        state = SparkBatchJobState.valueOf(jobResp.getState().toUpperCase());
-                        diagnostics = String.join("\n", jobResp.getLog());
-
-                        isJobActive = !isDone(state.toString());
-                    } else {
-                        isJobActive = false;
-                    }
-
-
-                    // Retry interval
-                    sleep(1000);
-                } while (isJobActive);
-
-                ob.onNext(new SimpleImmutableEntry<>(state.toString(), diagnostics));
-                ob.onCompleted();
-            } catch (IOException ex) {
-                ob.onError(ex);
-            } catch (InterruptedException ignored) {
-                ob.onCompleted();
-            }
-        });
+        return statusTracker.watch(getSubmission(), getConnectUri(), getBatchId(), this::isDone)
+                .lastOrDefault(null)
+                .map(jobResp -> jobResp == null ?
+                        new SimpleImmutableEntry<>(SparkBatchJobState.NOT_STARTED.toString(), "") :
+                        new SimpleImmutableEntry<>(
+                                SparkBatchJobState.valueOf(jobResp.getState().toUpperCase()).toString(),
+                                String.join("\n", jobResp.getLog())));
     }
 
     protected Observable<String> getJobLogAggregationDoneObservable() {
@@ -1149,15 +1143,20 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
     @NotNull
     @Override
     public Observable<String> awaitStarted() {
-        return getStatus()
+        if (getConnectUri() == null) {
+            return Observable.error(new SparkJobNotConfiguredException("Can't get Spark job connection URI, " +
+                    "please configure Spark cluster which the Spark job will be submitted."));
+        }
+
+        return statusTracker.watch(getSubmission(), getConnectUri(), getBatchId(), this::isDone)
                 .map(status -> new SimpleImmutableEntry<>(status.getState(), String.join("\n", status.getLog())))
-                .retry(getRetriesMax())
-                .repeatWhen(ob -> ob
-                        .doOnNext(ignored -> {
-                            getCtrlSubject().onNext(new SimpleImmutableEntry<>(Info, "The Spark job is starting..."));
-                        })
-                        .delay(getDelaySeconds(), TimeUnit.SECONDS)
-                )
+                .doOnNext(stateLogPair -> {
+                    if (!isDone(stateLogPair.getKey()) && !isRunning(stateLogPair.getKey())) {
+                        getCtrlSubject().onNext(new SimpleImmutableEntry<>(Info, "The Spark job is starting..."));
+                    }
+                })
+                .switchIfEmpty(Observable.defer(() -> Observable.error(new SparkJobException(
+                        "Can't get cluster " + getSubmissionParameter().getClusterName() + " status."))))
                 .takeUntil(stateLogPair -> isDone(stateLogPair.getKey()) || isRunning(stateLogPair.getKey()))
                 .filter(stateLogPair -> isDone(stateLogPair.getKey()) || isRunning(stateLogPair.getKey()))
                 .flatMap(stateLogPair -> {
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.common.HttpResponse;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+import rx.subjects.ReplaySubject;
+import rx.subscriptions.Subscriptions;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.UnknownServiceException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+
+/**
+ * Shared Livy batch status poller.
+ *
+ * All watched batches of one Livy endpoint are refreshed together with a single {@code GET /batches} call, batches
+ * missing from that page fall back to {@code GET /batches/{id}}. The poll interval doubles, up to
+ * {@link #MAX_POLL_INTERVAL_MILLIS}, while no watched batch changes state and drops back to
+ * {@link #MIN_POLL_INTERVAL_MILLIS} on any change or new watcher, so long running jobs cost few requests.
+ */
+public class SparkBatchJobStatusTracker implements ILogger {
+    static final long MIN_POLL_INTERVAL_MILLIS = 1000;
+    static final long MAX_POLL_INTERVAL_MILLIS = 16000;
+    private static final int MAX_FAILURES = 3;
+
+    // Singleton Instance
+    private static SparkBatchJobStatusTracker instance = null;
+
+    public static SparkBatchJobStatusTracker getInstance() {
+        if (instance == null) {
+            synchronized (SparkBatchJobStatusTracker.class) {
+                if (instance == null) {
+                    instance = new SparkBatchJobStatusTracker();
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2,
+            new ThreadFactoryBuilder().setNameFormat("spark-batch-status-%d").setDaemon(true).build());
+
+    // Livy batches connection URL -> poller
+    private final Map<String, ClusterPoller> pollers = new HashMap<>();
+
+    SparkBatchJobStatusTracker() {
+    }
+
+    /**
+     * Watch a Livy batch job status
+     *
+     * @param submission the submission to send requests with
+     * @param connectUri the Livy batches connection URI, such as http://livy:8998/batches
+     * @param batchId the Livy batch job ID
+     * @param isDoneState the predicate for a job state which ends the watching
+     * @return the status observable, emits a status whenever the job state changes and completes after a done state,
+     *         or when Livy doesn't know the batch any more. It emits on the IO scheduler rather than the poller threads.
+     */
+    @NotNull
+    public Observable<SparkSubmitResponse> watch(@NotNull SparkBatchSubmission submission,
+                                                 @NotNull URI connectUri,
+                                                 int batchId,
+                                                 @NotNull Predicate<String> isDoneState) {
+        return Observable.create(ob -> {
+            final BatchWatcher watcher = getPoller(submission, connectUri).register(batchId, isDoneState);
+
+            ob.add(Subscriptions.create(() -> getPoller(submission, connectUri).unregister(watcher)));
+            watcher.subject.unsafeSubscribe(ob);
+        })
+                // Subscribers may block, keep them off the poller threads shared by all clusters
+                .observeOn(Schedulers.io());
+    }
+
+    /**
+     * Get the status got by the latest poll of a watched batch job
+     *
+     * @param connectUri the Livy batches connection URI
+     * @param batchId the Livy batch job ID
+     * @return the latest status, or empty if the batch isn't watched
+     */
+    @NotNull
+    public Optional<SparkSubmitResponse> getLatestStatus(@NotNull URI connectUri, int batchId) {
+        final ClusterPoller poller;
+
+        synchronized (pollers) {
+            poller = pollers.get(connectUri.toString());
+        }
+
+        return poller == null ? Optional.empty() : poller.getLatestStatus(batchId);
+    }
+
+    @NotNull
+    private ClusterPoller getPoller(@NotNull SparkBatchSubmission submission, @NotNull URI connectUri) {
+        synchronized (pollers) {
+            return pollers.computeIfAbsent(connectUri.toString(), url -> new ClusterPoller(submission, url));
+        }
+    }
+
+    private static class BatchWatcher {
+        private final int batchId;
+        private final Predicate<String> isDoneState;
+        // Replays the last status, even to a subscriber coming after the batch is done
+        private final ReplaySubject<SparkSubmitResponse> subject = ReplaySubject.createWithSize(1);
+        private SparkSubmitResponse lastStatus = null;
+        private int subscriberCount = 0;
+        private int failures = 0;
+
+        BatchWatcher(int batchId, @NotNull Predicate<String> isDoneState) {
+            this.batchId = batchId;
+            this.isDoneState = isDoneState;
+        }
+
+        // returns true if the state changed
+        boolean update(@NotNull SparkSubmitResponse status) {
+            failures = 0;
+
+            final boolean isChanged = lastStatus == null || !Objects.equals(lastStatus.getState(), status.getState());
+            lastStatus = status;
+
+            if (!isChanged) {
+                return false;
+            }
+
+            subject.onNext(status);
+            return true;
+        }
+    }
+
+    private class ClusterPoller {
+        private final SparkBatchSubmission submission;
+        private final String connectUrl;
+        private final Map<Integer, BatchWatcher> watchers = new HashMap<>();
+        private final Map<Integer, SparkSubmitResponse> latestStatuses = new ConcurrentHashMap<>();
+        private long intervalMillis = MIN_POLL_INTERVAL_MILLIS;
+        private ScheduledFuture<?> nextPoll = null;
+
+        ClusterPoller(@NotNull SparkBatchSubmission submission, @NotNull String connectUrl) {
+            this.submission = submission;
+            this.connectUrl = connectUrl;
+        }
+
+        synchronized BatchWatcher register(int batchId, @NotNull Predicate<String> isDoneState) {
+            final BatchWatcher watcher = watchers.computeIfAbsent(batchId, id -> new BatchWatcher(id, isDoneState));
+            watcher.subscriberCount++;
+
+            // A new job is polled right away, rather than after a long backoff
+            intervalMillis = MIN_POLL_INTERVAL_MILLIS;
+            if (nextPoll == null || nextPoll.isDone() ||
+                    nextPoll.getDelay(TimeUnit.MILLISECONDS) > MIN_POLL_INTERVAL_MILLIS) {
+                schedule(0);
+            }
+
+            return watcher;
+        }
+
+        synchronized void unregister(@NotNull BatchWatcher watcher) {
+            if (--watcher.subscriberCount <= 0) {
+                remove(watcher);
+            }
+        }
+
+        @NotNull
+        Optional<SparkSubmitResponse> getLatestStatus(int batchId) {
+            return Optional.ofNullable(latestStatuses.get(batchId));
+        }
+
+        private void remove(@NotNull BatchWatcher watcher) {
+            if (watchers.get(watcher.batchId) == watcher) {
+                watchers.remove(watcher.batchId);
+                latestStatuses.remove(watcher.batchId);
+            }
+
+            if (watchers.isEmpty() && nextPoll != null) {
+                nextPoll.cancel(false);
+                nextPoll = null;
+            }
+        }
+
+        private void schedule(long delayMillis) {
+            if (nextPoll != null) {
+                nextPoll.cancel(false);
+            }
+
+            nextPoll = scheduler.schedule(this::poll, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void poll() {
+            final List<BatchWatcher> polling;
+
+            synchronized (this) {
+                polling = new ArrayList<>(watchers.values());
+            }
+
+            if (polling.isEmpty()) {
+                return;
+            }
+
+            boolean isChanged = false;
+
+            // The next poll is always scheduled, otherwise the finished poll would stop the endpoint's watches
+            try {
+                final Map<Integer, SparkSubmitResponse> statuses = getAllStatuses();
+
+                for (BatchWatcher watcher : polling) {
+                    isChanged |= pollWatcher(watcher, statuses);
+                }
+            } finally {
+                synchronized (this) {
+                    if (watchers.isEmpty()) {
+                        nextPoll = null;
+                    } else {
+                        intervalMillis = isChanged ?
+                                MIN_POLL_INTERVAL_MILLIS :
+                                Math.min(intervalMillis * 2, MAX_POLL_INTERVAL_MILLIS);
+                        schedule(intervalMillis);
+                    }
+                }
+            }
+        }
+
+        // returns true if the watched batch state changed
+        private boolean pollWatcher(@NotNull BatchWatcher watcher, @NotNull Map<Integer, SparkSubmitResponse> statuses) {
+            try {
+                SparkSubmitResponse status = statuses.containsKey(watcher.batchId) ?
+                        statuses.get(watcher.batchId) :
+                        getStatus(watcher.batchId);
+
+                if (status == null) {
+                    // Livy doesn't know the batch
+                    complete(watcher);
+                    return false;
+                }
+
+                latestStatuses.put(watcher.batchId, status);
+                final boolean isChanged = watcher.update(status);
+
+                if (status.getState() != null && watcher.isDoneState.test(status.getState())) {
+                    complete(watcher);
+                }
+
+                return isChanged;
+            } catch (IOException ex) {
+                log().debug("Got exception " + ex.toString() + " when getting batch " + watcher.batchId +
+                        " status, waiting for a while to try", ex);
+
+                if (++watcher.failures >= MAX_FAILURES) {
+                    fail(watcher, ex);
+                }
+            } catch (RuntimeException ex) {
+                // Only this batch's watch ends, the others of the endpoint keep being polled
+                log().warn("Got exception " + ex.toString() + " when polling batch " + watcher.batchId + " status", ex);
+
+                fail(watcher, ex);
+            }
+
+            return false;
+        }
+
+        private void fail(@NotNull BatchWatcher watcher, @NotNull Throwable ex) {
+            synchronized (this) {
+                remove(watcher);
+            }
+
+            watcher.subject.onError(ex);
+        }
+
+        private void complete(@NotNull BatchWatcher watcher) {
+            synchronized (this) {
+                remove(watcher);
+            }
+
+            watcher.subject.onCompleted();
+        }
+
+        // One request for every batch in the first page, an empty map if it fails
+        @NotNull
+        private Map<Integer, SparkSubmitResponse> getAllStatuses() {
+            final Map<Integer, SparkSubmitResponse> statuses = new HashMap<>();
+
+            try {
+                final HttpResponse httpResponse = submission.getAllBatchesSparkJobs(connectUrl);
+
+                if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
+                    ObjectConvertUtils.convertJsonToObject(httpResponse.getMessage(), SparkBatchesResponse.class)
+                            .map(SparkBatchesResponse::getSessions)
+                            .ifPresent(sessions -> sessions.forEach(session -> statuses.put(session.getId(), session)));
+                }
+            } catch (IOException | RuntimeException ex) {
+                log().debug("Got exception " + ex.toString() + " when listing batches of " + connectUrl, ex);
+            }
+
+            return statuses;
+        }
+
+        // null if Livy doesn't know the batch
+        private SparkSubmitResponse getStatus(int batchId) throws IOException {
+            final HttpResponse httpResponse = submission.getBatchSparkJobStatus(connectUrl, batchId);
+
+            if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
+                return ObjectConvertUtils.convertJsonToObject(httpResponse.getMessage(), SparkSubmitResponse.class)
+                        .orElseThrow(() -> new UnknownServiceException(
+                                "Bad spark job response: " + httpResponse.getMessage()));
+            }
+
+            if (httpResponse.getCode() == 404) {
+                return null;
+            }
+
+            // Such as a gateway error or an expired credential, counted as a failure to try again
+            throw new UnknownServiceException(String.format(
+                    "Failed to get Spark batch %d status. error code: %d, reason: %s.",
+                    batchId, httpResponse.getCode(), httpResponse.getMessage()));
+        }
+    }
+}
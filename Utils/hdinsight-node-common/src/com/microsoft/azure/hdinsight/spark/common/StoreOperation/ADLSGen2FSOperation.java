@@ -26,22 +26,39 @@ import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.api.GetRemoteFilesResponse;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.util.EntityUtils;
 import rx.Observable;
+import rx.exceptions.Exceptions;
+import rx.functions.Action1;
+import rx.schedulers.Schedulers;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.net.URI;
+import java.util.concurrent.TimeUnit;
 
 public class ADLSGen2FSOperation {
+    // Artifacts are appended in blocks of this size, so at most CHUNK_SIZE * MAX_CONCURRENT_APPENDS bytes are
+    // held in memory whatever the size of the jar
+    public static final int CHUNK_SIZE = 4 * 1024 * 1024;
+
+    // HttpObservable builds its client with useSystemProperties(), which allows 5 connections per route by default
+    public static final int MAX_CONCURRENT_APPENDS = 4;
+
+    public static final int MAX_CHUNK_RETRIES = 3;
+
     private HttpObservable http;
 
     @NotNull
@@ -50,9 +67,6 @@ public class ADLSGen2FSOperation {
     @NotNull
     private List<NameValuePair> createFileReqParams;
 
-    @NotNull
-    private List<NameValuePair> appendReqParams;
-
     @NotNull
     private ADLSGen2ParamsBuilder listReqBuilder;
 
@@ -69,11 +83,6 @@ public class ADLSGen2FSOperation {
                 .setResource("file")
                 .build();
 
-        this.appendReqParams = new ADLSGen2ParamsBuilder()
-                .setAction("append")
-                .setPosition(0)
-                .build();
-
         this.flushReqParamsBuilder = new ADLSGen2ParamsBuilder()
                 .setAction("flush");
     }
@@ -91,8 +100,40 @@ public class ADLSGen2FSOperation {
     }
 
     public Observable<Boolean> uploadData(String destFilePath, File src) {
-        return appendData(destFilePath, src)
-                .flatMap(len -> flushData(destFilePath, len));
+        return uploadData(destFilePath, src, null);
+    }
+
+    /**
+     * Upload the file in CHUNK_SIZE blocks, appending up to MAX_CONCURRENT_APPENDS blocks in parallel, and flush
+     * once all of them are accepted
+     *
+     * @param destFilePath the file created by createFile
+     * @param src the local file to upload
+     * @param onProgress called with the total bytes appended so far after each block completes
+     * @return true once the data is flushed
+     */
+    public Observable<Boolean> uploadData(String destFilePath, File src, @Nullable Action1<Long> onProgress) {
+        if (!src.isFile()) {
+            return Observable.error(new IllegalArgumentException("Can not find the aritifact"));
+        }
+
+        long fileLen = src.length();
+        long chunkCount = (fileLen + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        return Observable.range(0, (int) chunkCount)
+                .flatMap(index -> appendChunk(destFilePath, src, (long) index * CHUNK_SIZE,
+                                (int) Math.min(CHUNK_SIZE, fileLen - (long) index * CHUNK_SIZE))
+                                .subscribeOn(Schedulers.io()),
+                        MAX_CONCURRENT_APPENDS)
+                .scan(Long::sum)
+                .doOnNext(appended -> {
+                    if (onProgress != null) {
+                        onProgress.call(appended);
+                    }
+                })
+                .ignoreElements()
+                .concatWith(Observable.defer(() -> flushData(destFilePath, fileLen).map(ignore -> 0L)))
+                .map(ignore -> true);
     }
 
     public Observable<RemoteFile> list(String rootPath, String relativePath) {
@@ -104,34 +145,72 @@ public class ADLSGen2FSOperation {
                 .flatMap(pathList -> Observable.from(pathList.getRemoteFiles()));
     }
 
-    private Observable<Long> appendData(String filePath, File src) {
-        try {
-            InputStreamEntity reqEntity = new InputStreamEntity(
-                    new FileInputStream(src),
-                    -1,
-                    ContentType.APPLICATION_OCTET_STREAM);
-            BufferedHttpEntity entity = new BufferedHttpEntity(reqEntity);
-            long len = entity.getContentLength();
-
-            HttpPatch req = new HttpPatch(filePath);
-            req.setEntity(entity);
-            http.setContentType("application/octet-stream");
-
-            return http.executeReqAndCheckStatus(req, 202, this.appendReqParams)
-                    .map(ignore -> len);
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(new IllegalArgumentException("Can not find the aritifact"));
+    private Observable<Long> appendChunk(String filePath, File src, long position, int length) {
+        return Observable.defer(() -> {
+                    HttpPatch req = new HttpPatch(filePath);
+                    req.setEntity(new ByteArrayEntity(readChunk(src, position, length), ContentType.APPLICATION_OCTET_STREAM));
+                    List<NameValuePair> appendReqParams = new ADLSGen2ParamsBuilder()
+                            .setAction("append")
+                            .setPosition(position)
+                            .build();
+
+                    // signing updates the shared default headers, the request only starts once subscribed
+                    Observable<CloseableHttpResponse> append;
+                    synchronized (http) {
+                        http.setContentType("application/octet-stream");
+                        append = http.executeReqAndCheckStatus(req, 202, appendReqParams);
+                    }
+
+                    return append.doOnNext(this::closeResponse);
+                })
+                .retryWhen(errors -> errors
+                        .zipWith(Observable.range(1, MAX_CHUNK_RETRIES + 1), (err, attempt) -> {
+                            if (attempt > MAX_CHUNK_RETRIES) {
+                                throw Exceptions.propagate(err);
+                            }
+
+                            return attempt;
+                        })
+                        .flatMap(attempt -> Observable.timer(attempt, TimeUnit.SECONDS)))
+                .map(ignore -> (long) length);
+    }
+
+    private byte[] readChunk(File src, long position, int length) {
+        byte[] chunk = new byte[length];
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+
+        try (FileChannel channel = FileChannel.open(src.toPath(), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of file at " + (position + buffer.position()));
+                }
+            }
         } catch (IOException e) {
-            throw new RuntimeException(new IllegalArgumentException("Can not read the aritfact"));
+            throw new UncheckedIOException("Can not read the aritfact", e);
+        }
+
+        return chunk;
+    }
+
+    private void closeResponse(CloseableHttpResponse resp) {
+        try {
+            EntityUtils.consumeQuietly(resp.getEntity());
+            resp.close();
+        } catch (IOException ignored) {
         }
     }
 
     private Observable<Boolean> flushData(String filePath, long flushLen) {
         HttpPatch req = new HttpPatch(filePath);
         List<NameValuePair> flushReqParams = this.flushReqParamsBuilder.setPosition(flushLen).build();
-        http.setContentType("application/json");
 
-        return http.executeReqAndCheckStatus(req, 200, flushReqParams)
+        Observable<CloseableHttpResponse> flush;
+        synchronized (http) {
+            http.setContentType("application/json");
+            flush = http.executeReqAndCheckStatus(req, 200, flushReqParams);
+        }
+
+        return flush.doOnNext(this::closeResponse)
                 .map(ignore -> true);
     }
 
@@ -28,30 +28,35 @@ package com.microsoft.azure.hdinsight.spark.common;
 
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azure.hdinsight.sdk.common.FileRegionEntity;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.storage.webhdfs.GetFileStatusResponse;
 import com.microsoft.azure.hdinsight.sdk.storage.webhdfs.WebHdfsParamsBuilder;
 import com.microsoft.azure.hdinsight.spark.jobs.JobUtils;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.client.utils.URLEncodedUtils;
-import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.util.EntityUtils;
 import rx.Observable;
 import rx.exceptions.Exceptions;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownServiceException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class WebHDFSDeploy implements Deployable, ILogger {
     @NotNull
@@ -66,6 +71,15 @@ public class WebHDFSDeploy implements Deployable, ILogger {
     @NotNull
     private List<NameValuePair> uploadReqParams;
 
+    @NotNull
+    private List<NameValuePair> appendReqParams;
+
+    @NotNull
+    private List<NameValuePair> fileStatusReqParams;
+
+    // how many times an interrupted upload is resumed from the length the namenode has acknowledged
+    public static final int MAX_RESUME_ATTEMPTS = 3;
+
     @NotNull
     public String destinationRootPath;
 
@@ -77,6 +91,10 @@ public class WebHDFSDeploy implements Deployable, ILogger {
                 .setPermission("777")
                 .build();
 
+        this.appendReqParams = new WebHdfsParamsBuilder("APPEND").build();
+
+        this.fileStatusReqParams = new WebHdfsParamsBuilder("GETFILESTATUS").build();
+
         this.createDirReqParams = new WebHdfsParamsBuilder("MKDIRS")
                 .setPermission("777")
                 .build();
@@ -95,48 +113,118 @@ public class WebHDFSDeploy implements Deployable, ILogger {
         //three steps to upload via webhdfs
         // 1.put request to create new dir
         // 2.put request to get 307 redirect uri from response
-        // 3.put redirect request with file content as setEntity
+        // 3.put redirect request with file content streamed from disk as setEntity
+        // the uploaded length is then checked by GETFILESTATUS, an interrupted upload is resumed by APPEND
         URI dest = getUploadDir();
+        URI destFile = dest.resolve(src.getName());
         HttpPut req = new HttpPut(dest.toString());
         return http.request(req, null, this.createDirReqParams, null)
                 .doOnNext(
                         resp -> {
+                            closeResponse(resp);
                             if (resp.getStatusLine().getStatusCode() != 200) {
                                 Exceptions.propagate(new UnknownServiceException("Can not create directory to save artifact using webHDFS storage type"));
                             }
                         }
                 )
-                .map(ignored -> new HttpPut(dest.resolve(src.getName()).toString()))
-                .flatMap(put -> http.request(put, null, this.uploadReqParams, null))
-                .map(resp -> resp.getFirstHeader("Location").getValue())
-                .doOnNext(redirectedUri -> {
-                    if (StringUtils.isBlank(redirectedUri)) {
-                        Exceptions.propagate(new UnknownServiceException("Can not get valid redirect uri using webHDFS storage type"));
-                    }
-                })
-                .map(redirectedUri -> new HttpPut(redirectedUri))
-                .flatMap(put -> {
-                    try {
-                        InputStreamEntity reqEntity = new InputStreamEntity(
-                                new FileInputStream(src),
-                                -1,
-                                ContentType.APPLICATION_OCTET_STREAM);
-                        reqEntity.setChunked(true);
-
-                        return http.request(put, new BufferedHttpEntity(reqEntity), URLEncodedUtils.parse(put.getURI(), "UTF-8"), null);
-                    } catch (IOException ex) {
-                        throw new RuntimeException(new IllegalArgumentException("Can not get local artifact when uploading" + ex.toString()));
-                    }
-                })
+                .flatMap(ignored -> uploadFrom(destFile, src, 0, MAX_RESUME_ATTEMPTS))
                 .map(ignored -> {
                     try {
-                        return getArtifactUploadedPath(dest.resolve(src.getName()).toString());
+                        return getArtifactUploadedPath(destFile.toString());
                     } catch (URISyntaxException ex) {
                         throw new RuntimeException(new IllegalArgumentException("Can not get valid artifact upload path" + ex.toString()));
                     }
                 });
     }
 
+    /**
+     * Send the file from offset to the end, CREATE when starting from scratch otherwise APPEND, then check the
+     * remote length. On failure the acknowledged remote length is fetched and the upload carries on from there.
+     *
+     * @return the verified remote length
+     */
+    private Observable<Long> uploadFrom(@NotNull URI destFile, @NotNull File src, long offset, int resumesLeft) {
+        long srcLen = src.length();
+        Observable<Boolean> send = offset == 0
+                ? sendToDataNode(new HttpPut(destFile.toString()), this.uploadReqParams, new HttpPut(), src, 0, 201)
+                : sendToDataNode(new HttpPost(destFile.toString()), this.appendReqParams, new HttpPost(), src, offset, 200);
+
+        return send
+                .flatMap(ignored -> getRemoteLength(destFile))
+                .flatMap(remoteLen -> remoteLen == srcLen
+                        ? Observable.just(remoteLen)
+                        : Observable.<Long>error(new UnknownServiceException(String.format(
+                                "Uploaded %d bytes of %s to %s but the file is %d bytes", remoteLen, src, destFile, srcLen))))
+                .onErrorResumeNext(err -> {
+                    if (resumesLeft <= 0) {
+                        return Observable.error(err);
+                    }
+
+                    log().warn(String.format("Upload %s to %s from offset %d failed, will resume. Error: %s",
+                            src, destFile, offset, err.getMessage()));
+
+                    return getRemoteLength(destFile)
+                            .onErrorReturn(statusErr -> 0L)
+                            .delaySubscription(1, TimeUnit.SECONDS)
+                            .flatMap(acknowledged -> {
+                                if (acknowledged == srcLen) {
+                                    return Observable.just(acknowledged);
+                                }
+
+                                // a remote file longer than the artifact is not ours to append to, overwrite it
+                                return uploadFrom(destFile, src, acknowledged < srcLen ? acknowledged : 0, resumesLeft - 1);
+                            });
+                });
+    }
+
+    // CREATE and APPEND both answer the namenode request with a 307 to the datanode which receives the data
+    private Observable<Boolean> sendToDataNode(@NotNull HttpEntityEnclosingRequestBase nameNodeReq,
+                                               @NotNull List<NameValuePair> params,
+                                               @NotNull HttpEntityEnclosingRequestBase dataNodeReq,
+                                               @NotNull File src,
+                                               long offset,
+                                               int validStatusCode) {
+        return http.request(nameNodeReq, null, params, null)
+                .map(resp -> {
+                    closeResponse(resp);
+                    Header location = resp.getFirstHeader("Location");
+                    if (location == null || StringUtils.isBlank(location.getValue())) {
+                        throw Exceptions.propagate(new UnknownServiceException("Can not get valid redirect uri using webHDFS storage type"));
+                    }
+
+                    return location.getValue();
+                })
+                .flatMap(redirectedUri -> {
+                    dataNodeReq.setURI(URI.create(redirectedUri));
+                    FileRegionEntity entity = new FileRegionEntity(src, offset, ContentType.APPLICATION_OCTET_STREAM);
+
+                    return http.request(dataNodeReq, entity, URLEncodedUtils.parse(dataNodeReq.getURI(), "UTF-8"), null);
+                })
+                .map(resp -> {
+                    closeResponse(resp);
+                    int statusCode = resp.getStatusLine().getStatusCode();
+                    if (statusCode != validStatusCode) {
+                        throw Exceptions.propagate(new UnknownServiceException(String.format(
+                                "Upload artifact with unexpected code %s and resp %s", statusCode, resp)));
+                    }
+
+                    return true;
+                });
+    }
+
+    private Observable<Long> getRemoteLength(@NotNull URI destFile) {
+        return http.get(destFile.toString(), this.fileStatusReqParams, null, GetFileStatusResponse.class)
+                .map(status -> status.getFileStatus().getLength());
+    }
+
+    private void closeResponse(@NotNull CloseableHttpResponse resp) {
+        try {
+            EntityUtils.consumeQuietly(resp.getEntity());
+            resp.close();
+        } catch (IOException ignored) {
+        }
+    }
+
     @Nullable
     public String getArtifactUploadedPath(String rootPath) throws URISyntaxException {
         List<NameValuePair> params = new WebHdfsParamsBuilder("OPEN").build();
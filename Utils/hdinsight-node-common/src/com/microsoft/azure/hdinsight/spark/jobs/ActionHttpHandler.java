@@ -24,24 +24,35 @@ package com.microsoft.azure.hdinsight.spark.jobs;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
 import com.microsoft.azure.hdinsight.spark.jobs.framework.JobRequestDetails;
 
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 
 import java.io.IOException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
-public class ActionHttpHandler implements HttpHandler {
+public class ActionHttpHandler extends AsyncJobViewHttpHandler {
+    public ActionHttpHandler(@NotNull Executor ioExecutor) {
+        super(ioExecutor);
+    }
 
     @Override
-    public void handle(HttpExchange httpExchange) throws IOException {
-        httpExchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+    protected void handleAsync(@NotNull HttpExchange httpExchange) throws IOException {
+        // No cluster is needed for the cache statistics
+        if (httpExchange.getRequestURI().getPath().contains("cache_stats")) {
+            httpExchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            JobUtils.setJsonResponse(httpExchange, JobViewCacheManager.getCacheStats());
+            return;
+        }
+
         JobRequestDetails requestDetail = JobRequestDetails.getJobRequestDetail(httpExchange);
 
         final String path = requestDetail.getRequestPath();
         final String clusterConnectString = requestDetail.getCluster().getConnectionUrl();
         if (path.contains("yarnui")) {
             JobUtils.openYarnUIHistory(clusterConnectString, requestDetail.getAppId());
+            JobUtils.setResponse(httpExchange, "open browser successfully");
         } else if (path.contains("sparkui")) {
             try {
                 Application application = JobViewCacheManager.getSingleSparkApplication(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
@@ -51,7 +62,8 @@ public class ActionHttpHandler implements HttpHandler {
                 JobUtils.setResponse(httpExchange, "open browser error", 500);
                 DefaultLoader.getUIHelper().showError(e.getMessage(), "open browser error");
             }
+        } else {
+            JobUtils.setResponse(httpExchange, "Unknown request " + path, 404);
         }
     }
 }
-
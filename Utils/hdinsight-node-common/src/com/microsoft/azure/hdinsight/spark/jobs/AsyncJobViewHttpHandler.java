@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The base of Job View HTTP handlers, which handles the requests on the I/O executor instead of the HTTP server
+ * threads, so that the slow cluster REST calls don't hold the server from dispatching other requests. A response
+ * waiting for the values not cached yet is sent by {@link #respondWhenLoaded} once they're loaded, without holding
+ * the I/O executor either.
+ *
+ * The responses of a finished application won't change, so they're sent with an ETag for the browser to cache, and
+ * a request with that ETag is responded with 304 Not Modified without any cluster call.
+ */
+public abstract class AsyncJobViewHttpHandler implements HttpHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncJobViewHttpHandler.class);
+
+    static final int COMPLETED_APP_MAX_AGE_SECONDS = 24 * 60 * 60;
+
+    @NotNull
+    private final Executor ioExecutor;
+
+    protected AsyncJobViewHttpHandler(@NotNull Executor ioExecutor) {
+        this.ioExecutor = ioExecutor;
+    }
+
+    @Override
+    public final void handle(HttpExchange httpExchange) throws IOException {
+        httpExchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+
+        try {
+            ioExecutor.execute(() -> {
+                try {
+                    handleAsync(httpExchange);
+                } catch (Exception e) {
+                    respondError(httpExchange, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            JobUtils.setResponse(httpExchange, "Too many Job View requests, please retry later", 503);
+        }
+    }
+
+    /**
+     * Handle the request on the I/O executor, the response should be sent before return
+     *
+     * @param httpExchange the HTTP exchange
+     * @throws Exception the handling error, a 500 response is sent if no response is sent
+     */
+    protected abstract void handleAsync(@NotNull HttpExchange httpExchange) throws Exception;
+
+    /**
+     * The response sender of the loaded value
+     *
+     * @param <T> the value type
+     */
+    @FunctionalInterface
+    protected interface Responder<T> {
+        void respond(T value) throws Exception;
+    }
+
+    /**
+     * Send the response once the value is loaded, a 500 response is sent if the loading or the responder fails
+     *
+     * @param httpExchange the HTTP exchange
+     * @param loading the value loading
+     * @param responder the response sender of the value
+     * @param <T> the value type
+     */
+    protected <T> void respondWhenLoaded(@NotNull HttpExchange httpExchange,
+                                         @NotNull CompletionStage<T> loading,
+                                         @NotNull Responder<T> responder) {
+        loading.whenComplete((value, err) -> {
+            if (err != null) {
+                respondError(httpExchange, err);
+                return;
+            }
+
+            try {
+                responder.respond(value);
+            } catch (Exception e) {
+                respondError(httpExchange, e);
+            }
+        });
+    }
+
+    private static void respondError(@NotNull HttpExchange httpExchange, @NotNull Throwable err) {
+        Throwable cause = err;
+        while ((cause instanceof CompletionException
+                || cause instanceof ExecutionException
+                || cause instanceof UncheckedExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        LOGGER.warn("Job View request " + httpExchange.getRequestURI() + " error", cause);
+
+        if (httpExchange.getResponseCode() == -1) {
+            JobUtils.setResponse(httpExchange, String.valueOf(cause.getMessage()), 500);
+        } else {
+            httpExchange.close();
+        }
+    }
+
+    @NotNull
+    private static String getETag(@NotNull App completedApp) {
+        return String.format("W/\"%s-%x\"", completedApp.getId(), completedApp.getFinishedTime());
+    }
+
+    /**
+     * Respond 304 Not Modified if the browser has the response of a finished application cached
+     *
+     * @param httpExchange the HTTP exchange
+     * @param key the application key
+     * @return true for 304 responded, false for a response to send
+     */
+    protected boolean respondNotModified(@NotNull HttpExchange httpExchange, @NotNull ApplicationKey key) {
+        App completedApp = JobViewCacheManager.getCompletedYarnApp(key);
+        String ifNoneMatch = httpExchange.getRequestHeaders().getFirst("If-None-Match");
+
+        if (completedApp == null || ifNoneMatch == null || !ifNoneMatch.contains(getETag(completedApp))) {
+            return false;
+        }
+
+        setCacheHeaders(httpExchange, key, true);
+
+        try {
+            httpExchange.sendResponseHeaders(304, -1);
+        } catch (IOException e) {
+            LOGGER.warn("Job View response 304 error", e);
+        } finally {
+            httpExchange.close();
+        }
+
+        return true;
+    }
+
+    /**
+     * Set the cache headers of the response to send, only a response of the values loaded after the application
+     * finished is cached. The finality is decided by the values served, not by the application state at sending
+     * time, since a value loaded while the application was running may be served right after it finishes.
+     *
+     * @param httpExchange the HTTP exchange
+     * @param key the application key
+     * @param isFinal true if all values of the response are final, see {@link JobViewCacheManager.CachedValue#isFinal()}
+     */
+    protected void setCacheHeaders(@NotNull HttpExchange httpExchange, @NotNull ApplicationKey key, boolean isFinal) {
+        Headers headers = httpExchange.getResponseHeaders();
+        App completedApp = isFinal ? JobViewCacheManager.getCompletedYarnApp(key) : null;
+
+        if (completedApp == null) {
+            headers.set("Cache-Control", "no-cache");
+            return;
+        }
+
+        headers.set("ETag", getETag(completedApp));
+        headers.set("Cache-Control", "private, max-age=" + COMPLETED_APP_MAX_AGE_SECONDS);
+    }
+}
@@ -21,11 +21,7 @@
  */
 package com.microsoft.azure.hdinsight.spark.jobs;
 
-import com.gargoylesoftware.htmlunit.BrowserVersion;
 import com.gargoylesoftware.htmlunit.Cache;
-import com.gargoylesoftware.htmlunit.FailingHttpStatusCodeException;
-import com.gargoylesoftware.htmlunit.WebClient;
-import com.gargoylesoftware.htmlunit.html.*;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
@@ -44,6 +40,7 @@ import com.microsoft.azure.hdinsight.sdk.common.HDIException;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SparkSession;
 import com.microsoft.azure.hdinsight.sdk.io.spark.ClusterFileBase64BufferedOutputStream;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azure.hdinsight.sdk.storage.HDStorageAccount;
@@ -51,6 +48,7 @@ import com.microsoft.azure.hdinsight.sdk.storage.IHDIStorageAccount;
 import com.microsoft.azure.hdinsight.sdk.storage.StorageAccountType;
 import com.microsoft.azure.hdinsight.sdk.storage.webhdfs.WebHdfsParamsBuilder;
 import com.microsoft.azure.hdinsight.spark.common.SparkBatchSubmission;
+import com.microsoft.azure.hdinsight.spark.jobs.framework.GzipThresholdOutputStream;
 import com.microsoft.azure.hdinsight.spark.jobs.livy.LivyBatchesInformation;
 import com.microsoft.azure.hdinsight.spark.jobs.livy.LivySession;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
@@ -59,6 +57,7 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.azurecommons.helpers.StringHelper;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.ParallelBlobTransfer;
 import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
 import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
@@ -91,8 +90,6 @@ import org.slf4j.LoggerFactory;
 import rx.Observable;
 import rx.Observer;
 import rx.Single;
-import rx.Subscription;
-import rx.schedulers.Schedulers;
 
 import java.awt.*;
 import java.io.*;
@@ -101,19 +98,19 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.UnknownServiceException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.List;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static com.microsoft.azure.hdinsight.common.MessageInfoType.Info;
 import static rx.exceptions.Exceptions.propagate;
 
 public class JobUtils {
     private static Logger LOGGER = LoggerFactory.getLogger(JobUtils.class);
+
+    static final int GZIP_THRESHOLD_BYTES = 16 * 1024;
     private static final String JobLogFolderName = "SparkJobLog";
     private static String yarnUIHisotryFormat = "%s/yarnui/hn/cluster/app/%s";
 
@@ -127,9 +124,10 @@ public class JobUtils {
 
     public static void setResponse(@NotNull HttpExchange httpExchange, @NotNull String message, @NotNull int code) {
         try {
-            httpExchange.sendResponseHeaders(code, message.length());
+            byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
+            httpExchange.sendResponseHeaders(code, messageBytes.length);
             OutputStream stream = httpExchange.getResponseBody();
-            stream.write(message.getBytes());
+            stream.write(messageBytes);
             stream.flush();
             httpExchange.close();
         } catch (IOException e) {
@@ -137,6 +135,34 @@ public class JobUtils {
         }
     }
 
+    /**
+     * Set the response as the JSON of an object, which is written to the response body as it is serialized.
+     * The response body over {@link #GZIP_THRESHOLD_BYTES} is gzipped if the client accepts that.
+     *
+     * @param httpExchange the HTTP exchange to response
+     * @param obj the object to send
+     * @throws IOException for the serialization or writing failure, a 500 response is sent if it's still possible
+     */
+    public static void setJsonResponse(@NotNull HttpExchange httpExchange, @NotNull Object obj) throws IOException {
+        httpExchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        GzipThresholdOutputStream stream = new GzipThresholdOutputStream(httpExchange, 200, GZIP_THRESHOLD_BYTES);
+
+        try {
+            ObjectConvertUtils.convertObjectToJsonStream(obj, stream);
+        } catch (IOException e) {
+            if (stream.isCommitted()) {
+                httpExchange.close();
+            } else {
+                httpExchange.getResponseHeaders().remove("Content-Type");
+                setResponse(httpExchange, e.getMessage() == null ? "JSON serialization error" : e.getMessage(), 500);
+            }
+
+            throw e;
+        }
+
+        stream.close();
+    }
+
     public static URI getLivyLogPath(@NotNull String rootPath, @NotNull String applicationId) {
         String path = StringHelper.concat(rootPath, File.separator, JobLogFolderName, File.separator, applicationId);
         File file = new File(path);
@@ -257,77 +283,7 @@ public class JobUtils {
                                                       @NotNull String type,
                                                       long start,
                                                       int size) {
-        final WebClient HTTP_WEB_CLIENT = new WebClient(BrowserVersion.CHROME);
-        HTTP_WEB_CLIENT.getOptions().setUseInsecureSSL(HttpObservable.isSSLCertificateValidationDisabled());
-        HTTP_WEB_CLIENT.setCache(globalCache);
-
-        if (credentialsProvider != null) {
-            HTTP_WEB_CLIENT.setCredentialsProvider(credentialsProvider);
-        }
-
-        URI url = null;
-
-        try {
-            url = new URI(baseUrl + "/").resolve(
-                    String.format("%s?start=%d", type, start) +
-                            (size <= 0 ? "" : String.format("&&end=%d", start + size)));
-            HtmlPage htmlPage = HTTP_WEB_CLIENT.getPage(url.toString());
-
-            Iterator<DomElement> iterator = htmlPage.getElementById("navcell").getNextElementSibling().getChildElements().iterator();
-
-            HashMap<String, String> logTypeMap = new HashMap<>();
-            final AtomicReference<String> logType = new AtomicReference<>();
-            String logs = "";
-
-            while (iterator.hasNext()) {
-                DomElement node = iterator.next();
-
-                if (node instanceof HtmlParagraph) {
-                    // In history server, need to read log type paragraph in page
-                    final Pattern logTypePattern = Pattern.compile("Log Type:\\s+(\\S+)");
-
-                    Optional.ofNullable(node.getFirstChild())
-                            .map(DomNode::getTextContent)
-                            .map(String::trim)
-                            .map(logTypePattern::matcher)
-                            .filter(Matcher::matches)
-                            .map(matcher -> matcher.group(1))
-                            .ifPresent(logType::set);
-                } else if (node instanceof HtmlPreformattedText) {
-                    // In running, no log type paragraph in page
-                    logs = Optional.ofNullable(node.getFirstChild())
-                                .map(DomNode::getTextContent)
-                                .orElse("");
-
-                    if (logType.get() != null) {
-                        // Only get the first <pre>...</pre>
-                        logTypeMap.put(logType.get(), logs);
-
-                        logType.set(null);
-                    }
-                }
-            }
-
-            return logTypeMap.getOrDefault(type, logs);
-        } catch (FailingHttpStatusCodeException httpError) {
-            // If the URL is wrong, will get 200 response with content:
-            //      Unable to locate 'xxx' log for container
-            //  OR
-            //      Logs not available for <user>. Aggregation may not be complete, Check back later or try the nodemanager at...
-            //  OR
-            //      Cannot get container logs without ...
-            //
-            // if fetching Yarn log hits the gap between the job running and stop, will get the status 403
-            // the log is moving to job history server, just wait and retry.
-            if (httpError.getStatusCode() != HttpStatus.SC_FORBIDDEN) {
-                LOGGER.warn("The GET request to " + url + " responded error: " + httpError.getMessage());
-            }
-        } catch (URISyntaxException e) {
-            LOGGER.error("baseUrl has syntax error: " + baseUrl);
-        } catch (Exception e) {
-            LOGGER.warn("get Spark job log Error", e);
-        }
-        return "";
+        return YarnContainerLogClient.getInstance().getLog(credentialsProvider, baseUrl, type, start, size);
     }
 
     /**
@@ -345,71 +301,10 @@ public class JobUtils {
                                                              @NotNull final String containerLogUrl,
                                                              @NotNull final String type,
                                                              final int blockSize) {
-        int retryIntervalMs = 1000;
-
         if (blockSize <= 0)
             return Observable.empty();
 
-        return Observable.create((Observable.OnSubscribe<String>) ob -> {
-            long nextStart = 0;
-            String remainedLine = "";
-            String logs;
-            Thread currentThread = Thread.currentThread();
-
-            // Refer to the Observable.window() operation:
-            //    http://reactivex.io/documentation/operators/window.html
-            // The event from `stop` observable will stop the log fetch
-            Optional<Subscription> stopSubscriptionOptional = Optional.ofNullable(stop).map(stopOb ->
-                    stopOb.subscribe(any -> currentThread.interrupt()));
-
-            try {
-                while (!ob.isUnsubscribed()) {
-                    logs = JobUtils.getInformationFromYarnLogDom(
-                            credentialsProvider, containerLogUrl, type, nextStart, blockSize);
-                    int lastLineBreak = logs.lastIndexOf('\n');
-
-                    if (lastLineBreak < 0) {
-                        // No linebreak found
-                        if (logs.isEmpty()) {
-                            // Remained line is a full line since the backend producing logs line by line
-                            ob.onNext(remainedLine);
-                            remainedLine = "";
-                        } else {
-                            remainedLine += logs;
-                            nextStart += logs.length();
-                        }
-                    } else {
-                        long handledLength = new BufferedReader(new StringReader(
-                                                remainedLine + logs.substring(0, lastLineBreak)))
-                                .lines()
-                                .map(line -> {
-                                    ob.onNext(line);
-
-                                    // Count the line length with linebreak
-                                    // We need to handle this since the web client may convert the LF to CRLF
-                                    return (line.length() + 1);
-                                })
-                                .reduce((x, y) -> x + y)
-                                .orElse(0);
-
-                        nextStart += handledLength - remainedLine.length();
-                        remainedLine = "";
-                    }
-
-                    Thread.sleep(retryIntervalMs);
-                }
-            } catch (InterruptedException ignore) {
-            } finally {
-                // Get the rest logs from history server
-                // Don't worry about the log is moved to history server, the YarnUI can do URL redirect by itself
-                logs = JobUtils.getInformationFromYarnLogDom(credentialsProvider, containerLogUrl, type, nextStart, 0);
-
-                new BufferedReader(new StringReader(remainedLine + logs)).lines().forEach(ob::onNext);
-            }
-
-            ob.onCompleted();
-            stopSubscriptionOptional.ifPresent(Subscription::unsubscribe);
-        }).subscribeOn(Schedulers.io());
+        return YarnLogTailService.getInstance().tail(credentialsProvider, stop, containerLogUrl, type, blockSize);
     }
 
     public static HttpEntity getEntity(@NotNull final IClusterDetail clusterDetail, @NotNull final String url) throws IOException, HDIException {
@@ -448,36 +343,32 @@ public class JobUtils {
                                            @NotNull Observer<SimpleImmutableEntry<MessageInfoType, String>> logSubject,
                                            @Nullable CallableSingleArg<Void, Long> uploadInProcessCallback) throws Exception {
         if(storageAccount.getAccountType() == StorageAccountType.BLOB) {
-            try (FileInputStream fileInputStream = new FileInputStream(file)) {
-                try (BufferedInputStream bufferedInputStream = new BufferedInputStream(fileInputStream)) {
-                    HDStorageAccount blobStorageAccount = (HDStorageAccount) storageAccount;
-                    BlobContainer container = getSparkClusterContainer(blobStorageAccount, containerName);
-                    if (container == null) {
-                        throw new IllegalArgumentException("Can't get the valid container.");
-                    }
-
-                    String path = String.format("SparkSubmission/%s/%s", uploadFolderPath, file.getName());
-                    String uploadedPath = String.format("wasbs://%s@%s/%s", containerName, blobStorageAccount.getFullStorageBlobName(), path);
+            HDStorageAccount blobStorageAccount = (HDStorageAccount) storageAccount;
+            BlobContainer container = getSparkClusterContainer(blobStorageAccount, containerName);
+            if (container == null) {
+                throw new IllegalArgumentException("Can't get the valid container.");
+            }
 
-                    logSubject.onNext(new SimpleImmutableEntry<>(Info,
-                            String.format("Begin uploading file %s to Azure Blob Storage Account %s ...",
-                                          file.getPath(), uploadedPath)));
+            String path = String.format("SparkSubmission/%s/%s", uploadFolderPath, file.getName());
+            String uploadedPath = String.format("wasbs://%s@%s/%s", containerName, blobStorageAccount.getFullStorageBlobName(), path);
 
-                    StorageClientSDKManager.getManager().uploadBlobFileContent(
-                            blobStorageAccount.getConnectionString(),
-                            container,
-                            path,
-                            bufferedInputStream,
-                            uploadInProcessCallback,
-                            1024 * 1024,
-                            file.length());
+            logSubject.onNext(new SimpleImmutableEntry<>(Info,
+                    String.format("Begin uploading file %s to Azure Blob Storage Account %s ...",
+                                  file.getPath(), uploadedPath)));
+
+            StorageClientSDKManager.getManager().uploadBlobFileContent(
+                    blobStorageAccount.getConnectionString(),
+                    container,
+                    path,
+                    file,
+                    uploadInProcessCallback,
+                    ParallelBlobTransfer.DEFAULT_BLOCK_SIZE,
+                    ParallelBlobTransfer.DEFAULT_CONCURRENCY);
 
-                    logSubject.onNext(new SimpleImmutableEntry<>(Info,
-                            String.format("Submit file to azure blob '%s' successfully.", uploadedPath)));
+            logSubject.onNext(new SimpleImmutableEntry<>(Info,
+                    String.format("Submit file to azure blob '%s' successfully.", uploadedPath)));
 
-                    return uploadedPath;
-                }
-            }
+            return uploadedPath;
         } else if(storageAccount.getAccountType() == StorageAccountType.ADLS) {
             String uploadPath = String.format("adl://%s.azuredatalakestore.net%s%s", storageAccount.getName(), storageAccount.getDefaultContainerOrRootPath(), "SparkSubmission");
             logSubject.onNext(new SimpleImmutableEntry<>(Info,
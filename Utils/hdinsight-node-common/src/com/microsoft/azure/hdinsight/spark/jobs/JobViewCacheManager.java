@@ -21,9 +21,17 @@
  */
 package com.microsoft.azure.hdinsight.spark.jobs;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.azure.hdinsight.common.JobViewManager;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
@@ -34,113 +42,441 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
+import com.microsoft.azure.hdinsight.spark.jobs.StageTasksLoader.StageTasks;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringUtils;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
 
+/**
+ * Caches of the Spark Job View REST results.
+ *
+ * Entries of a running application are refreshed {@link #RUNNING_APP_REFRESH_SECONDS} after they were loaded, the
+ * application list every {@link #APPLICATIONS_REFRESH_SECONDS}. A refresh reloads in the background and keeps
+ * serving the previous value until it is done. The asynchronous getters load a missing value on
+ * {@link #coldLoadExecutor}, so that a request handler doesn't wait for the REST calls of a cold cache.
+ * Once YARN reports the application finished, the entries loaded before that are dropped, and the ones loaded after
+ * that are final: they are kept as they are and no longer reloaded.
+ *
+ * The tasks are refreshed less often, every {@link #TASKS_REFRESH_SECONDS} on an executor of their own, since
+ * fetching the task lists can take minutes. A refresh keeps the tasks of the done stages and only fetches the active
+ * and the new ones.
+ */
 public class JobViewCacheManager {
-    private static final LoadingCache<ApplicationKey, List<Job>> sparkJobLocalCache = CacheBuilder.newBuilder()
+    static final long RUNNING_APP_REFRESH_SECONDS = 15;
+    static final long APPLICATIONS_REFRESH_SECONDS = 30;
+    static final long TASKS_REFRESH_SECONDS = 60;
+    static final long TASKS_LOADING_EXPIRE_MINUTES = 5;
+
+    private static final ExecutorService reloadExecutor = Executors.newFixedThreadPool(4,
+            new ThreadFactoryBuilder().setNameFormat("job-view-cache-reload-%d").setDaemon(true).build());
+
+    private static final ExecutorService tasksReloadExecutor = Executors.newFixedThreadPool(2,
+            new ThreadFactoryBuilder().setNameFormat("job-view-tasks-reload-%d").setDaemon(true).build());
+
+    private static final ExecutorService coldLoadExecutor = Executors.newFixedThreadPool(8,
+            new ThreadFactoryBuilder().setNameFormat("job-view-cache-load-%d").setDaemon(true).build());
+
+    private static final ScheduledExecutorService cleanUpExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("job-view-cache-clean-up-%d").setDaemon(true).build());
+
+    /**
+     * A cached value of an application
+     *
+     * @param <V> the value type
+     */
+    public static class CachedValue<V> {
+        private final V value;
+        private final boolean isFinal;
+
+        CachedValue(V value, boolean isFinal) {
+            this.value = value;
+            this.isFinal = isFinal;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        /**
+         * @return true if the value was loaded after the application finished, so it won't change any more
+         */
+        public boolean isFinal() {
+            return isFinal;
+        }
+    }
+
+    // Reloads in the background on refresh, unless the value of the key won't change any more
+    private static class RefreshingCacheLoader<K, V> extends CacheLoader<K, V> {
+        private final CacheLoader<K, V> loader;
+        private final BiPredicate<K, V> isPermanent;
+        private final ExecutorService executor;
+
+        RefreshingCacheLoader(@NotNull CacheLoader<K, V> loader,
+                              @NotNull BiPredicate<K, V> isPermanent,
+                              @NotNull ExecutorService executor) {
+            this.loader = loader;
+            this.isPermanent = isPermanent;
+            this.executor = executor;
+        }
+
+        @Override
+        public V load(K key) throws Exception {
+            return loader.load(key);
+        }
+
+        @Override
+        public ListenableFuture<V> reload(K key, V oldValue) {
+            if (isPermanent.test(key, oldValue)) {
+                return Futures.immediateFuture(oldValue);
+            }
+
+            ListenableFutureTask<V> task = ListenableFutureTask.create(() -> loader.reload(key, oldValue).get());
+            executor.execute(task);
+
+            return task;
+        }
+    }
+
+    private static final Map<String, LoadingCache<?, ?>> allCaches = new LinkedHashMap<>();
+
+    @NotNull
+    private static <K, V> LoadingCache<K, V> buildCache(@NotNull String name,
+                                                        long refreshSeconds,
+                                                        @NotNull BiPredicate<K, V> isPermanent,
+                                                        @NotNull CacheLoader<K, V> loader) {
+        return buildCache(name, refreshSeconds, reloadExecutor, isPermanent, loader);
+    }
+
+    @NotNull
+    private static <K, V> LoadingCache<K, V> buildCache(@NotNull String name,
+                                                        long refreshSeconds,
+                                                        @NotNull ExecutorService reloadExecutor,
+                                                        @NotNull BiPredicate<K, V> isPermanent,
+                                                        @NotNull CacheLoader<K, V> loader) {
+        LoadingCache<K, V> cache = CacheBuilder.newBuilder()
+                .maximumSize(100)
+                .initialCapacity(20)
+                .refreshAfterWrite(refreshSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build(new RefreshingCacheLoader<>(loader, isPermanent, reloadExecutor));
+
+        allCaches.put(name, cache);
+
+        return cache;
+    }
+
+    // The caches of the application values, which are out of date once the application finishes
+    private static final List<LoadingCache<ApplicationKey, ? extends CachedValue<?>>> appCaches =
+            new CopyOnWriteArrayList<>();
+
+    @NotNull
+    private static <V> LoadingCache<ApplicationKey, CachedValue<V>> buildAppCache(
+            @NotNull String name,
+            @NotNull CacheLoader<ApplicationKey, V> loader) {
+        return buildAppCache(name, RUNNING_APP_REFRESH_SECONDS, reloadExecutor, loader);
+    }
+
+    @NotNull
+    private static <V> LoadingCache<ApplicationKey, CachedValue<V>> buildAppCache(
+            @NotNull String name,
+            long refreshSeconds,
+            @NotNull ExecutorService reloadExecutor,
+            @NotNull CacheLoader<ApplicationKey, V> loader) {
+        LoadingCache<ApplicationKey, CachedValue<V>> cache = buildCache(
+                name,
+                refreshSeconds,
+                reloadExecutor,
+                (key, cachedValue) -> cachedValue.isFinal(),
+                new CacheLoader<ApplicationKey, CachedValue<V>>() {
+                    @Override
+                    public CachedValue<V> load(ApplicationKey key) throws Exception {
+                        boolean isCompletedBeforeLoading = isCompleted(key);
+
+                        return new CachedValue<>(loader.load(key), isCompletedBeforeLoading);
+                    }
+
+                    @Override
+                    public ListenableFuture<CachedValue<V>> reload(ApplicationKey key, CachedValue<V> oldValue)
+                            throws Exception {
+                        boolean isCompletedBeforeLoading = isCompleted(key);
+
+                        return Futures.immediateFuture(new CachedValue<>(
+                                loader.reload(key, oldValue.getValue()).get(), isCompletedBeforeLoading));
+                    }
+                });
+
+        appCaches.add(cache);
+
+        return cache;
+    }
+
+    // A cached value is got right away, a missing one is loaded on the cold load executor instead of the caller thread
+    @NotNull
+    private static <K, V> CompletableFuture<V> getAsync(@NotNull LoadingCache<K, V> cache, @NotNull K key) {
+        if (cache.asMap().containsKey(key)) {
+            return CompletableFuture.completedFuture(cache.getUnchecked(key));
+        }
+
+        return CompletableFuture.supplyAsync(() -> cache.getUnchecked(key), coldLoadExecutor);
+    }
+
+    /**
+     * Check if YARN reports the application finished, by the YARN application cached
+     *
+     * @param key the application key
+     * @return true for a finished application, false for a running one or an unknown state
+     */
+    public static boolean isCompleted(@NotNull ApplicationKey key) {
+        return getCompletedYarnApp(key) != null;
+    }
+
+    /**
+     * Get the YARN application cached if it's finished
+     *
+     * @param key the application key
+     * @return the finished YARN application, null for a running one or an unknown state
+     */
+    @Nullable
+    public static App getCompletedYarnApp(@NotNull ApplicationKey key) {
+        App completedApp = completedYarnApps.getIfPresent(key);
+        if (completedApp != null) {
+            return completedApp;
+        }
+
+        App app = yarnApplicationLocalCache.getIfPresent(key);
+
+        return isCompleted(app) ? app : null;
+    }
+
+    private static boolean isCompleted(@Nullable App app) {
+        if (app == null) {
+            return false;
+        }
+
+        String finalStatus = app.getFinalStatus();
+
+        return (StringUtils.isNotBlank(finalStatus) && !finalStatus.equalsIgnoreCase("UNDEFINED"))
+                || (app.getState() != null && app.isFinished());
+    }
+
+    // The finished YARN applications, recorded as soon as they are loaded. The YARN application cache only stores an
+    // application after its loading returns, so the application values loaded meanwhile are final by this record.
+    private static final Cache<ApplicationKey, App> completedYarnApps = CacheBuilder.newBuilder()
             .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Job>>() {
+            .build();
+
+    private static final LoadingCache<ApplicationKey, App> yarnApplicationLocalCache = buildCache(
+            "yarnApplication",
+            RUNNING_APP_REFRESH_SECONDS,
+            (key, app) -> isCompleted(app),
+            new CacheLoader<ApplicationKey, App>() {
+                @Override
+                public App load(ApplicationKey key) throws Exception {
+                    App app = YarnRestUtil.getApp(key);
+
+                    if (isCompleted(app)) {
+                        completedYarnApps.put(key, app);
+
+                        // The entries loaded while the application was running are out of date
+                        appCaches.forEach(cache -> {
+                            CachedValue<?> cachedValue = cache.asMap().get(key);
+
+                            if (cachedValue != null && !cachedValue.isFinal()) {
+                                cache.invalidate(key);
+                            }
+                        });
+                    }
+
+                    return app;
+                }
+            });
+
+    private static final LoadingCache<ApplicationKey, CachedValue<List<Job>>> sparkJobLocalCache = buildAppCache(
+            "sparkJob",
+            new CacheLoader<ApplicationKey, List<Job>>() {
                 @Override
                 public List<Job> load(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getLastAttemptJobsFromApp(key);
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, List<Stage>> sparkStageLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Stage>>() {
+    private static final LoadingCache<ApplicationKey, CachedValue<List<Stage>>> sparkStageLocalCache = buildAppCache(
+            "sparkStage",
+            new CacheLoader<ApplicationKey, List<Stage>>() {
                 @Override
                 public List<Stage> load(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getAllStageFromApp(key);
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, List<Executor>> sparkExecutorLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Executor>>() {
+    private static final LoadingCache<ApplicationKey, CachedValue<List<Executor>>> sparkExecutorLocalCache = buildAppCache(
+            "sparkExecutor",
+            new CacheLoader<ApplicationKey, List<Executor>>() {
                 @Override
                 public List<Executor> load(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getAllExecutorFromApp(key);
                 }
             });
 
-    private static final LoadingCache<String, List<Application>> sparkApplicationsLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<String, List<Application>>() {
+    // The application list changes as applications are submitted, so it is always refreshed
+    private static final LoadingCache<String, List<Application>> sparkApplicationsLocalCache = buildCache(
+            "sparkApplications",
+            APPLICATIONS_REFRESH_SECONDS,
+            (clusterName, applications) -> false,
+            new CacheLoader<String, List<Application>>() {
                 @Override
                 public List<Application> load(String key) throws Exception {
                     return SparkRestUtil.getSparkApplications(JobViewManager.getCluster(key));
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, List<Task>> sparkTasksSummaryLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Task>>() {
+    private static final LoadingCache<ApplicationKey, CachedValue<StageTasks>> sparkTasksSummaryLocalCache = buildAppCache(
+            "sparkTasksSummary",
+            TASKS_REFRESH_SECONDS,
+            tasksReloadExecutor,
+            new CacheLoader<ApplicationKey, StageTasks>() {
                 @Override
-                public List<Task> load(ApplicationKey key) throws Exception {
-                    List<Task> allTasks = new ArrayList<>();
-                    List<Stage> stages = sparkStageLocalCache.get(key);
-                    for (Stage stage: stages) {
-                        int stageId = stage.getStageId();
-                        int attemptedId = stage.getAttemptId();
-                        List<Task> tasks = SparkRestUtil.getSparkTasks(key, stageId, attemptedId);
-                        allTasks.addAll(tasks);
-                    }
-                    return allTasks;
+                public StageTasks load(ApplicationKey key) throws Exception {
+                    return loadStageTasks(key, null);
                 }
-            });
 
-    private static final LoadingCache<ApplicationKey, ApplicationMasterLogs> yarnAppLogLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, ApplicationMasterLogs>() {
                 @Override
-                public ApplicationMasterLogs load(ApplicationKey key) throws Exception {
-                    return JobUtils.getYarnLogs(key);
+                public ListenableFuture<StageTasks> reload(ApplicationKey key, StageTasks oldValue) throws Exception {
+                    return Futures.immediateFuture(loadStageTasks(key, oldValue));
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, App> yarnApplicationLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, App>() {
+    @NotNull
+    private static StageTasks loadStageTasks(@NotNull ApplicationKey key, @Nullable StageTasks previous)
+            throws Exception {
+        StageTasksLoader tasksLoader = new StageTasksLoader(key);
+        tasksInProgress.put(key, tasksLoader);
+
+        try {
+            return tasksLoader.load(sparkStageLocalCache.get(key).getValue(), previous);
+        } finally {
+            tasksInProgress.remove(key, tasksLoader);
+        }
+    }
+
+    // The loaders collecting the tasks arrived
+    private static final ConcurrentMap<ApplicationKey, StageTasksLoader> tasksInProgress = new ConcurrentHashMap<>();
+
+    // Stops an expired task loading, so that its remaining pages aren't fetched for nobody
+    private static final RemovalListener<ApplicationKey, CompletableFuture<CachedValue<List<Task>>>> tasksLoadingCanceller =
+            removal -> {
+                if (removal.wasEvicted() && !removal.getValue().isDone()) {
+                    StageTasksLoader tasksLoader = tasksInProgress.get(removal.getKey());
+                    if (tasksLoader != null) {
+                        tasksLoader.cancel();
+                    }
+
+                    removal.getValue().cancel(false);
+                }
+            };
+
+    // The task loadings started by getTasksFrom(), cancelled if the Job View stops asking for the tasks
+    private static final Cache<ApplicationKey, CompletableFuture<CachedValue<List<Task>>>> tasksLoadings =
+            CacheBuilder.newBuilder()
+                    .expireAfterAccess(TASKS_LOADING_EXPIRE_MINUTES, TimeUnit.MINUTES)
+                    .removalListener(tasksLoadingCanceller)
+                    .build();
+
+    static {
+        // An expired loading is only removed by the cache maintenance, which is otherwise done on the cache accesses
+        cleanUpExecutor.scheduleWithFixedDelay(
+                tasksLoadings::cleanUp, TASKS_LOADING_EXPIRE_MINUTES, 1, TimeUnit.MINUTES);
+    }
+
+    private static final LoadingCache<ApplicationKey, CachedValue<ApplicationMasterLogs>> yarnAppLogLocalCache = buildAppCache(
+            "yarnAppLog",
+            new CacheLoader<ApplicationKey, ApplicationMasterLogs>() {
                 @Override
-                public App load(ApplicationKey key) throws Exception {
-                    return YarnRestUtil.getApp(key);
+                public ApplicationMasterLogs load(ApplicationKey key) throws Exception {
+                    return JobUtils.getYarnLogs(key);
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, List<JobStartEventLog>> sparkJobStartEventLogCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<JobStartEventLog>>() {
+    private static final LoadingCache<ApplicationKey, CachedValue<List<JobStartEventLog>>> sparkJobStartEventLogCache = buildAppCache(
+            "sparkJobStartEventLog",
+            new CacheLoader<ApplicationKey, List<JobStartEventLog>>() {
                 @Override
                 public List<JobStartEventLog> load(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getSparkEventLogs(key);
                 }
             });
 
+    /**
+     * Get the statistics of all Job View caches
+     *
+     * @return cache name -> statistics, such as hit/miss/load counts and the current size
+     */
+    @NotNull
+    public static Map<String, Map<String, Object>> getCacheStats() {
+        Map<String, Map<String, Object>> allStats = new LinkedHashMap<>();
+
+        allCaches.forEach((name, cache) -> {
+            CacheStats stats = cache.stats();
+            Map<String, Object> cacheStats = new LinkedHashMap<>();
+
+            cacheStats.put("size", cache.size());
+            cacheStats.put("hitCount", stats.hitCount());
+            cacheStats.put("missCount", stats.missCount());
+            cacheStats.put("hitRate", stats.hitRate());
+            cacheStats.put("loadSuccessCount", stats.loadSuccessCount());
+            cacheStats.put("loadExceptionCount", stats.loadExceptionCount());
+            cacheStats.put("averageLoadPenaltyMillis", stats.averageLoadPenalty() / 1000000);
+            cacheStats.put("evictionCount", stats.evictionCount());
+
+            allStats.put(name, cacheStats);
+        });
+
+        return allStats;
+    }
+
     public static List<JobStartEventLog> getJobStartEventLogs(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkJobStartEventLogCache.get(key);
+        return sparkJobStartEventLogCache.get(key).getValue();
+    }
+
+    @NotNull
+    public static CompletableFuture<CachedValue<List<JobStartEventLog>>> getJobStartEventLogsAsync(
+            @NotNull ApplicationKey key) {
+        return getAsync(sparkJobStartEventLogCache, key);
     }
 
     public static ApplicationMasterLogs getYarnLogs(@NotNull ApplicationKey key) throws ExecutionException {
-            return yarnAppLogLocalCache.get(key);
+            return yarnAppLogLocalCache.get(key).getValue();
+    }
+
+    @NotNull
+    public static CompletableFuture<CachedValue<ApplicationMasterLogs>> getYarnLogsAsync(@NotNull ApplicationKey key) {
+        return getAsync(yarnAppLogLocalCache, key);
     }
 
     public static App getYarnApp(@NotNull ApplicationKey key) throws ExecutionException {
         return yarnApplicationLocalCache.get(key);
     }
 
+    @NotNull
+    public static CompletableFuture<CachedValue<App>> getYarnAppAsync(@NotNull ApplicationKey key) {
+        return getAsync(yarnApplicationLocalCache, key).thenApply(app -> new CachedValue<>(app, isCompleted(app)));
+    }
+
     public static List<Application> getSparkApplications(@NotNull IClusterDetail clusterDetail) throws ExecutionException {
         return sparkApplicationsLocalCache.get(clusterDetail.getName());
     }
@@ -156,18 +492,113 @@ public class JobViewCacheManager {
     }
 
     public static List<Executor> getExecutors(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkExecutorLocalCache.get(key);
+        return sparkExecutorLocalCache.get(key).getValue();
+    }
+
+    @NotNull
+    public static CompletableFuture<CachedValue<List<Executor>>> getExecutorsAsync(@NotNull ApplicationKey key) {
+        return getAsync(sparkExecutorLocalCache, key);
     }
 
     public static List<Job> getJob(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkJobLocalCache.get(key);
+        return sparkJobLocalCache.get(key).getValue();
+    }
+
+    @NotNull
+    public static CompletableFuture<CachedValue<List<Job>>> getJobAsync(@NotNull ApplicationKey key) {
+        return getAsync(sparkJobLocalCache, key);
     }
 
     public static List<Task> getTasks(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkTasksSummaryLocalCache.get(key);
+        return sparkTasksSummaryLocalCache.get(key).getValue().getTasks();
+    }
+
+    @NotNull
+    public static CompletableFuture<CachedValue<List<Task>>> getTasksAsync(@NotNull ApplicationKey key) {
+        return getAsync(sparkTasksSummaryLocalCache, key)
+                .thenApply(stageTasks -> new CachedValue<>(stageTasks.getValue().getTasks(), stageTasks.isFinal()));
+    }
+
+    /**
+     * Get the tasks without waiting for all stages' task lists. The first call of a key starts loading in the
+     * background, the following calls get the tasks arrived since the last one, until the page is completed.
+     *
+     * @param key the application key
+     * @param offset the count of tasks got by the previous calls
+     * @return the tasks from offset arrived so far
+     * @throws ExecutionException the background loading failed
+     */
+    @NotNull
+    public static TasksPage getTasksFrom(@NotNull ApplicationKey key, int offset) throws ExecutionException {
+        CachedValue<StageTasks> loadedTasks = sparkTasksSummaryLocalCache.getIfPresent(key);
+        if (loadedTasks != null) {
+            return new TasksPage(loadedTasks.getValue().getTasks(), offset, true, loadedTasks.isFinal());
+        }
+
+        // Loaded on the cold load executor, so that a long task list loading doesn't hold the cache refreshes
+        CompletableFuture<CachedValue<List<Task>>> loading = tasksLoadings.get(key, () -> getTasksAsync(key));
+
+        if (loading.isDone()) {
+            tasksLoadings.asMap().remove(key, loading);
+
+            CachedValue<List<Task>> tasks = Futures.getDone(loading);
+
+            return new TasksPage(tasks.getValue(), offset, true, tasks.isFinal());
+        }
+
+        StageTasksLoader tasksLoader = tasksInProgress.get(key);
+
+        return new TasksPage(
+                tasksLoader == null ? Collections.emptyList() : tasksLoader.getArrivedTasks(offset), offset, false, false);
+    }
+
+    /**
+     * A part of the tasks of an application, for the Job View to show the tasks as they arrive
+     */
+    public static class TasksPage {
+        @NotNull
+        private final List<Task> tasks;
+        private final int nextOffset;
+        private final boolean completed;
+        private final boolean isFinal;
+
+        TasksPage(@NotNull List<Task> arrivedTasks, int offset, boolean completed, boolean isFinal) {
+            this.tasks = completed ?
+                    arrivedTasks.subList(Math.min(Math.max(offset, 0), arrivedTasks.size()), arrivedTasks.size()) :
+                    arrivedTasks;
+            this.nextOffset = offset + this.tasks.size();
+            this.completed = completed;
+            this.isFinal = isFinal;
+        }
+
+        @NotNull
+        public List<Task> getTasks() {
+            return tasks;
+        }
+
+        public int getNextOffset() {
+            return nextOffset;
+        }
+
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        /**
+         * @return true if the tasks were loaded after the application finished, see {@link CachedValue#isFinal()}
+         */
+        @JsonIgnore
+        public boolean isFinal() {
+            return isFinal;
+        }
     }
     
     public static List<Stage> getStages(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkStageLocalCache.get(key);
+        return sparkStageLocalCache.get(key).getValue();
+    }
+
+    @NotNull
+    public static CompletableFuture<CachedValue<List<Stage>>> getStagesAsync(@NotNull ApplicationKey key) {
+        return getAsync(sparkStageLocalCache, key);
     }
 }
@@ -21,6 +21,7 @@
  */
 package com.microsoft.azure.hdinsight.spark.jobs;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.azuretools.azurecommons.helpers.StringHelper;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.sun.net.httpserver.HttpExchange;
@@ -30,14 +31,26 @@ import com.sun.net.httpserver.HttpServer;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * The local HTTP server of the Job View pages.
+ *
+ * The server threads only dispatch the requests, the handlers run on the bounded I/O executor to call the clusters.
+ * Requests more than the I/O executor can queue are rejected with 503 instead of piling up.
+ */
 public class JobViewHttpServer {
     private static HttpServer server;
-    private static final int NUMBER_OF_THREADS = 50;
+    private static final int BACKLOG = 50;
+    private static final int NUMBER_OF_THREADS = 4;
+    private static final int NUMBER_OF_IO_THREADS = 16;
+    private static final int MAX_QUEUED_IO_REQUESTS = 200;
     private static ExecutorService executorService;
+    private static ExecutorService ioExecutorService;
     private static boolean isEnabled = false;
     private static int port = -1;
 
@@ -56,6 +69,9 @@ public class JobViewHttpServer {
             } catch (InterruptedException e) {
             }
         }
+        if (ioExecutorService != null) {
+            ioExecutorService.shutdownNow();
+        }
         isEnabled = false;
     }
 
@@ -76,17 +92,28 @@ public class JobViewHttpServer {
             InetSocketAddress socketAddress = new InetSocketAddress(s.getLocalPort());
             port = socketAddress.getPort();
 
-            server = HttpServer.create(socketAddress, NUMBER_OF_THREADS);
+            server = HttpServer.create(socketAddress, BACKLOG);
 
             server.createContext("/try", (httpExchange) -> {
                     httpExchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
                     JobUtils.setResponse(httpExchange, "Connect Successfully");
             });
-            server.createContext("/applications", new SparkJobHttpHandler());
-            server.createContext("/apps", new YarnJobHttpHandler());
-            server.createContext("/actions", new ActionHttpHandler());
+            ThreadPoolExecutor ioExecutor = new ThreadPoolExecutor(
+                    NUMBER_OF_IO_THREADS,
+                    NUMBER_OF_IO_THREADS,
+                    60,
+                    TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(MAX_QUEUED_IO_REQUESTS),
+                    new ThreadFactoryBuilder().setNameFormat("job-view-io-%d").setDaemon(true).build());
+            ioExecutor.allowCoreThreadTimeOut(true);
+            ioExecutorService = ioExecutor;
+
+            server.createContext("/applications", new SparkJobHttpHandler(ioExecutorService));
+            server.createContext("/apps", new YarnJobHttpHandler(ioExecutorService));
+            server.createContext("/actions", new ActionHttpHandler(ioExecutorService));
 
-            executorService = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+            executorService = Executors.newFixedThreadPool(NUMBER_OF_THREADS,
+                    new ThreadFactoryBuilder().setNameFormat("job-view-http-%d").setDaemon(true).build());
             server.setExecutor(executorService);
             server.start();
             isEnabled = true;
@@ -22,65 +22,94 @@
 package com.microsoft.azure.hdinsight.spark.jobs;
 
 import com.microsoft.azure.hdinsight.sdk.common.HDIException;
-import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.YarnAppWithJobs;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
-import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
-import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
-import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
+import com.microsoft.azure.hdinsight.spark.jobs.JobViewCacheManager.CachedValue;
 import com.microsoft.azure.hdinsight.spark.jobs.framework.JobRequestDetails;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
+import org.apache.commons.lang3.math.NumberUtils;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
-public class SparkJobHttpHandler implements HttpHandler {
+public class SparkJobHttpHandler extends AsyncJobViewHttpHandler {
+    private static final String TASKS_OFFSET_QUERY_KEY = "offset";
+
+    public SparkJobHttpHandler(@NotNull java.util.concurrent.Executor ioExecutor) {
+        super(ioExecutor);
+    }
 
     @Override
-    public void handle(HttpExchange httpExchange) throws IOException {
-        httpExchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+    protected void handleAsync(@NotNull HttpExchange httpExchange) throws IOException {
         JobRequestDetails requestDetail = JobRequestDetails.getJobRequestDetail(httpExchange);
         try {
             String path = requestDetail.getRequestPath();
             if (path.equalsIgnoreCase("/applications/") && requestDetail.getAppId().equalsIgnoreCase("0")) {
                 try {
                     List<Application> applications = SparkRestUtil.getSparkApplications(requestDetail.getCluster());
-                    Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(applications);
-                    JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                    httpExchange.getResponseHeaders().set("Cache-Control", "no-cache");
+                    JobUtils.setJsonResponse(httpExchange, applications);
                 } catch (HDIException e) {
                     DefaultLoader.getUIHelper().logError("get applications list error", e);
+                    JobUtils.setResponse(httpExchange, e.getMessage(), 500);
                 }
-            } else if (path.contains("application_graph")) {
-                ApplicationKey key = new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId());
-                List<Job> jobs = JobViewCacheManager.getJob(key);
-                App app = JobViewCacheManager.getYarnApp(key);
-                List<JobStartEventLog> jobStartEventLogs = JobViewCacheManager.getJobStartEventLogs(key);
-                YarnAppWithJobs yarnAppWithJobs = new YarnAppWithJobs(app, jobs, jobStartEventLogs);
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(yarnAppWithJobs);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                return;
+            }
+
+            ApplicationKey key = new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId());
+            if (respondNotModified(httpExchange, key)) {
+                return;
+            }
+
+            if (path.contains("application_graph")) {
+                CompletableFuture<CachedValue<List<Job>>> jobs = JobViewCacheManager.getJobAsync(key);
+                CompletableFuture<CachedValue<App>> app = JobViewCacheManager.getYarnAppAsync(key);
+                CompletableFuture<CachedValue<List<JobStartEventLog>>> jobStartEventLogs =
+                        JobViewCacheManager.getJobStartEventLogsAsync(key);
+
+                respondWhenLoaded(httpExchange, CompletableFuture.allOf(jobs, app, jobStartEventLogs), loaded -> {
+                    YarnAppWithJobs yarnAppWithJobs = new YarnAppWithJobs(
+                            app.join().getValue(), jobs.join().getValue(), jobStartEventLogs.join().getValue());
+                    setCacheHeaders(httpExchange, key,
+                            app.join().isFinal() && jobs.join().isFinal() && jobStartEventLogs.join().isFinal());
+                    JobUtils.setJsonResponse(httpExchange, yarnAppWithJobs);
+                });
             } else if (path.contains("stages_summary")) {
-                List<Stage> stages = JobViewCacheManager.getStages(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(stages);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                respondWhenLoaded(httpExchange, JobViewCacheManager.getStagesAsync(key), stages -> {
+                    setCacheHeaders(httpExchange, key, stages.isFinal());
+                    JobUtils.setJsonResponse(httpExchange, stages.getValue());
+                });
             } else if (path.contains("executors_summary")) {
-                List<Executor> executors = JobViewCacheManager.getExecutors(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(executors);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                respondWhenLoaded(httpExchange, JobViewCacheManager.getExecutorsAsync(key), executors -> {
+                    setCacheHeaders(httpExchange, key, executors.isFinal());
+                    JobUtils.setJsonResponse(httpExchange, executors.getValue());
+                });
             } else if (path.contains("tasks_summary")) {
-                List<Task> tasks = JobViewCacheManager.getTasks(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(tasks);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                String offset = requestDetail.getQuery(TASKS_OFFSET_QUERY_KEY);
+
+                if (offset == null) {
+                    respondWhenLoaded(httpExchange, JobViewCacheManager.getTasksAsync(key), tasks -> {
+                        setCacheHeaders(httpExchange, key, tasks.isFinal());
+                        JobUtils.setJsonResponse(httpExchange, tasks.getValue());
+                    });
+                } else {
+                    // Return the tasks arrived so far, the Job View asks again from the next offset until completed
+                    JobViewCacheManager.TasksPage tasksPage = JobViewCacheManager.getTasksFrom(key, NumberUtils.toInt(offset));
+                    setCacheHeaders(httpExchange, key, tasksPage.isFinal());
+                    JobUtils.setJsonResponse(httpExchange, tasksPage);
+                }
+            } else {
+                JobUtils.setResponse(httpExchange, "Unknown request " + path, 404);
             }
         } catch (ExecutionException e) {
             JobUtils.setResponse(httpExchange, e.getMessage(), 500);
         }
     }
 }
-
@@ -29,29 +29,32 @@ import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azure.hdinsight.sdk.rest.RestUtil;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.SparkEventLogParser;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
-import org.json.JSONObject;
 
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 public class SparkRestUtil {
     public static final String SPARK_REST_API_ENDPOINT = "%s/sparkhistory/api/v1/applications/%s";
+    public static final int TASK_LIST_PAGE_SIZE = 1000;
+    private static final String EVENT_LOGS_COMPLETED_MARKER = "eventLogs.completed";
 
     @NotNull
     public static List<Application> getSparkApplications(@NotNull IClusterDetail clusterDetail) throws HDIException, IOException {
@@ -91,8 +94,37 @@ public class SparkRestUtil {
     }
 
     public static List<Task> getSparkTasks(@NotNull ApplicationKey key, @NotNull int stage, int attemptId) throws IOException, ExecutionException, HDIException {
+        List<Task> allTasks = new ArrayList<>();
+
+        // The task list is fetched page by page, since the history server returns only 20 tasks without a length
+        for (int offset = 0; ; offset += TASK_LIST_PAGE_SIZE) {
+            List<Task> tasks = getSparkTasks(key, stage, attemptId, offset, TASK_LIST_PAGE_SIZE);
+            allTasks.addAll(tasks);
+
+            if (tasks.size() < TASK_LIST_PAGE_SIZE) {
+                return allTasks;
+            }
+        }
+    }
+
+    /**
+     * Get one page of a stage attempt's tasks
+     *
+     * @param key the application key
+     * @param stage the stage ID
+     * @param attemptId the stage attempt ID
+     * @param offset the index of the first task to get
+     * @param length the max count of tasks to get
+     * @return the tasks, fewer than length for the last page
+     */
+    public static List<Task> getSparkTasks(@NotNull ApplicationKey key,
+                                           int stage,
+                                           int attemptId,
+                                           int offset,
+                                           int length) throws IOException, ExecutionException, HDIException {
         AttemptWithAppId attemptWithAppId = getLastAttemptFromLocalCache(key);
-        String url = String.format("/%s/%s/stages/%s/%s/taskList", attemptWithAppId.getAppId(), attemptWithAppId.getAttemptId(),stage, attemptId);
+        String url = String.format("/%s/%s/stages/%s/%s/taskList?offset=%d&length=%d",
+                attemptWithAppId.getAppId(), attemptWithAppId.getAttemptId(), stage, attemptId, offset, length);
         HttpEntity entity = getSparkRestEntity(key.getClusterDetails(), url);
 
         Optional<List<Task>> tasks = ObjectConvertUtils.convertEntityToList(entity, Task.class);
@@ -100,38 +132,86 @@ public class SparkRestUtil {
     }
     
     public static List<JobStartEventLog> getSparkEventLogs(@NotNull ApplicationKey key) throws HDIException, IOException {
-        String url = String.format("%s/logs", key.getAppId());
+        return getSparkEvents(key, SparkEventLogParser.JOB_START_EVENT, JobStartEventLog.class);
+    }
+
+    /**
+     * Get the events of one kind from the last attempt's Spark event log
+     *
+     * @param key the application key
+     * @param eventName the event name, such as SparkListenerStageCompleted
+     * @param eventClass the class to bind the event to
+     * @return the events, in the log order
+     */
+    @NotNull
+    public static <T> List<T> getSparkEvents(@NotNull ApplicationKey key,
+                                             @NotNull String eventName,
+                                             @NotNull Class<T> eventClass) throws HDIException, IOException {
+        List<T> events = new ArrayList<>();
+        parseSparkEventLogs(key,
+                            new SparkEventLogParser().withEvent(eventName, eventClass),
+                            (name, event) -> events.add(eventClass.cast(event)));
+
+        return events;
+    }
+
+    /**
+     * Parse the last attempt's Spark event log with a streaming parser, several kinds of events can be got in one pass
+     *
+     * @param key the application key
+     * @param parser the parser with the events to get added
+     * @param onEvent the consumer of event name and the event object, in the log order
+     */
+    public static void parseSparkEventLogs(@NotNull ApplicationKey key,
+                                           @NotNull SparkEventLogParser parser,
+                                           @NotNull BiConsumer<String, Object> onEvent) throws HDIException, IOException {
+        File file = getSparkEventLogsFile(key);
+
+        try (ZipFile zipFile = new ZipFile(file)) {
+            // every application has an attempt in event log
+            // and the entity name should be in formation "{appId}_{attemptId}"
+            String entityName = String.format("%s_%s", key.getAppId(), zipFile.size());
+            ZipEntry lastEntity = zipFile.getEntry(entityName);
+            if (lastEntity == null) {
+                throw new HDIException(String.format("No Spark event log entity found for app: %s", key.getAppId()));
+            }
+
+            try (InputStream zipFileInputStream = zipFile.getInputStream(lastEntity)) {
+                parser.parse(zipFileInputStream, onEvent);
+            }
+        }
+    }
+
+    @NotNull
+    private static File getSparkEventLogsFile(@NotNull ApplicationKey key) throws HDIException, IOException {
         String eventLogsPath = String.format("%s/SparkEventLogs/%s/eventLogs.zip", HDInsightLoader.getHDInsightHelper().getPluginRootPath(), key.getAppId());
         File file = new File(eventLogsPath);
+        // The marker of the event logs downloaded after the application finished, which won't change any more
+        File completedMarker = new File(file.getParentFile(), EVENT_LOGS_COMPLETED_MARKER);
+
+        if (file.isFile() && completedMarker.isFile()) {
+            return file;
+        }
+
+        boolean isCompletedBeforeDownload = JobViewCacheManager.isCompleted(key);
+        String url = String.format("%s/logs", key.getAppId());
         HttpEntity entity = getSparkRestEntity(key.getClusterDetails(), url);
-        InputStream inputStream = entity.getContent();
-        FileUtils.copyInputStreamToFile(inputStream, file);
-        IOUtils.closeQuietly(inputStream);
-
-        ZipFile zipFile = new ZipFile(file);
-        List<? extends ZipEntry> entities =  Collections.list(zipFile.entries());
-        // every application has an attempt in event log
-        // and the entity name should be in formation "{appId}_{attemptId}"
-        String entityName = String.format("%s_%s", key.getAppId(), entities.size());
-        ZipEntry lastEntity = zipFile.getEntry(entityName);
-        if (lastEntity == null) {
-            throw new HDIException(String.format("No Spark event log entity found for app: %s", key.getAppId()));
+
+        // Download to a temporary file first, not to have a partial file parsed by others
+        FileUtils.forceMkdir(file.getParentFile());
+        File downloading = File.createTempFile("eventLogs", ".download", file.getParentFile());
+        try (InputStream inputStream = entity.getContent()) {
+            FileUtils.copyInputStreamToFile(inputStream, downloading);
+            Files.move(downloading.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            FileUtils.deleteQuietly(downloading);
+        }
+
+        if (isCompletedBeforeDownload) {
+            FileUtils.touch(completedMarker);
         }
-        InputStream zipFileInputStream = zipFile.getInputStream(lastEntity);
-        String entityContent = IOUtils.toString(zipFileInputStream, Charset.forName("utf-8"));
-
-        String[] lines = entityContent.split("\n");
-        List<JobStartEventLog> jobStartEvents = Arrays.stream(lines)
-                .filter(line -> {
-                    JSONObject jsonObject = new JSONObject(line);
-                    String eventName = jsonObject.getString("Event");
-                    return eventName.equalsIgnoreCase("SparkListenerJobStart");
-                    })
-                .map(oneLine -> ObjectConvertUtils.convertToObjectQuietly(oneLine, JobStartEventLog.class))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
 
-        return jobStartEvents;
+        return file;
     }
 
     private static AttemptWithAppId getLastAttemptFromLocalCache(@NotNull ApplicationKey key) throws ExecutionException, HDIException {
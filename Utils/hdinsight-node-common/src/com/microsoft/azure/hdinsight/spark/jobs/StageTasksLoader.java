@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Fetches the task lists of an application's stages, a few stages of one cluster at a time and page by page.
+ *
+ * The tasks are collected in the order they arrive, so that the ones arrived can be shown before the last stage
+ * is fetched. Since the collection is append only, an index into it stays valid while the loading goes on.
+ *
+ * The tasks of a stage attempt which was done when fetched don't change any more, so a reload of a running
+ * application takes them from the previous result and only fetches the active and the new stages.
+ */
+public class StageTasksLoader {
+    static final int MAX_CONCURRENT_STAGES_PER_CLUSTER = 4;
+
+    // cluster connection URL -> the executor bounding the concurrent task list requests to it
+    private static final ConcurrentMap<String, ExecutorService> clusterExecutors = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final ApplicationKey key;
+
+    private final List<Task> arrivedTasks = new ArrayList<>();
+
+    private volatile boolean isCancelled = false;
+
+    StageTasksLoader(@NotNull ApplicationKey key) {
+        this.key = key;
+    }
+
+    @NotNull
+    private static ExecutorService getClusterExecutor(@NotNull String clusterConnString) {
+        return clusterExecutors.computeIfAbsent(clusterConnString.toLowerCase(), url -> {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    MAX_CONCURRENT_STAGES_PER_CLUSTER,
+                    MAX_CONCURRENT_STAGES_PER_CLUSTER,
+                    60,
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new ThreadFactoryBuilder().setNameFormat("spark-task-list-%d").setDaemon(true).build());
+            executor.allowCoreThreadTimeOut(true);
+
+            return executor;
+        });
+    }
+
+    /**
+     * The tasks of an application's stages
+     */
+    public static class StageTasks {
+        @NotNull
+        private final List<Task> tasks;
+
+        // "stageId.attemptId" -> the tasks of the stage attempts which were done when fetched
+        @NotNull
+        private final Map<String, List<Task>> doneStageTasks;
+
+        StageTasks(@NotNull List<Task> tasks, @NotNull Map<String, List<Task>> doneStageTasks) {
+            this.tasks = tasks;
+            this.doneStageTasks = doneStageTasks;
+        }
+
+        /**
+         * @return all tasks, in the order they arrived
+         */
+        @NotNull
+        public List<Task> getTasks() {
+            return tasks;
+        }
+    }
+
+    @NotNull
+    private static String getStageAttemptKey(@NotNull Stage stage) {
+        return stage.getStageId() + "." + stage.getAttemptId();
+    }
+
+    // No more tasks are run by a stage attempt which is neither active nor pending
+    private static boolean isDone(@NotNull Stage stage) {
+        return stage.getStatus() != null
+                && !stage.getStatus().equalsIgnoreCase("ACTIVE")
+                && !stage.getStatus().equalsIgnoreCase("PENDING");
+    }
+
+    /**
+     * Fetch all tasks of the stages, and wait for them
+     *
+     * @param stages the stages to fetch tasks of
+     * @param previous the result of the previous loading to take the done stages' tasks from, null to fetch all
+     * @return all tasks, in the order they arrived
+     * @throws ExecutionException the first failure of fetching a stage, the rest of the stages are cancelled
+     * @throws InterruptedException the waiting is interrupted, the fetching is cancelled
+     * @throws CancellationException the loading is cancelled by {@link #cancel()}
+     */
+    @NotNull
+    public StageTasks load(@NotNull List<Stage> stages, @Nullable StageTasks previous)
+            throws ExecutionException, InterruptedException {
+        ExecutorService executor = getClusterExecutor(key.getClusterConnString());
+        Map<String, List<Task>> doneStageTasks = new ConcurrentHashMap<>();
+        List<Future<?>> stageFutures = new ArrayList<>();
+
+        for (Stage stage : stages) {
+            String stageAttemptKey = getStageAttemptKey(stage);
+            List<Task> previousTasks = previous == null ? null : previous.doneStageTasks.get(stageAttemptKey);
+
+            if (previousTasks != null) {
+                addArrivedTasks(previousTasks);
+                doneStageTasks.put(stageAttemptKey, previousTasks);
+
+                continue;
+            }
+
+            // Checked before fetching, a stage finishing meanwhile could still get tasks after the fetched pages
+            boolean isDoneBeforeFetching = isDone(stage);
+
+            stageFutures.add(executor.submit(() -> {
+                List<Task> stageTasks = fetchStageTasks(stage.getStageId(), stage.getAttemptId());
+
+                if (isDoneBeforeFetching) {
+                    doneStageTasks.put(stageAttemptKey, stageTasks);
+                }
+
+                return null;
+            }));
+        }
+
+        try {
+            for (Future<?> stageFuture : stageFutures) {
+                stageFuture.get();
+            }
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof CancellationException) {
+                throw (CancellationException) ex.getCause();
+            }
+
+            throw ex;
+        } finally {
+            stageFutures.forEach(stageFuture -> stageFuture.cancel(true));
+        }
+
+        return new StageTasks(getArrivedTasks(0), doneStageTasks);
+    }
+
+    @NotNull
+    private List<Task> fetchStageTasks(int stageId, int attemptId) throws Exception {
+        List<Task> stageTasks = new ArrayList<>();
+
+        for (int offset = 0; !Thread.currentThread().isInterrupted(); offset += SparkRestUtil.TASK_LIST_PAGE_SIZE) {
+            if (isCancelled) {
+                throw new CancellationException(String.format("Fetching the tasks of stage %d attempt %d of %s is cancelled",
+                        stageId, attemptId, key.getAppId()));
+            }
+
+            List<Task> tasks = SparkRestUtil.getSparkTasks(
+                    key, stageId, attemptId, offset, SparkRestUtil.TASK_LIST_PAGE_SIZE);
+
+            stageTasks.addAll(tasks);
+            addArrivedTasks(tasks);
+
+            if (tasks.size() < SparkRestUtil.TASK_LIST_PAGE_SIZE) {
+                break;
+            }
+        }
+
+        return stageTasks;
+    }
+
+    /**
+     * Stop the loading, the stages being fetched stop before their next page and the rest aren't fetched
+     */
+    public void cancel() {
+        isCancelled = true;
+    }
+
+    private void addArrivedTasks(@NotNull List<Task> tasks) {
+        synchronized (arrivedTasks) {
+            arrivedTasks.addAll(tasks);
+        }
+    }
+
+    /**
+     * Get the tasks arrived so far
+     *
+     * @param offset the index of the first task to get
+     * @return the tasks arrived from offset, empty if there are no more yet
+     */
+    @NotNull
+    public List<Task> getArrivedTasks(int offset) {
+        synchronized (arrivedTasks) {
+            if (offset >= arrivedTasks.size()) {
+                return Collections.emptyList();
+            }
+
+            return new ArrayList<>(arrivedTasks.subList(Math.max(offset, 0), arrivedTasks.size()));
+        }
+    }
+}
@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.azuretools.service.ServiceManager;
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpStatus;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.DefaultHostnameVerifier;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.auth.BasicScheme;
+import org.apache.http.impl.client.BasicAuthCache;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.http.ssl.TrustStrategy;
+import org.apache.http.util.EntityUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads YARN container logs from the NodeManager / history server log pages.
+ *
+ * All reads share one pooled HTTP client, so the 1 second log polls reuse their keep-alive connections, and
+ * the log is cut out of the page by a small streaming tag scanner instead of building a browser DOM.
+ */
+public class YarnContainerLogClient implements ILogger {
+    private static final Pattern LOG_TYPE_PATTERN = Pattern.compile("Log Type:\\s+(\\S+)");
+
+    // The id="navcell" attribute of the navigation cell, quoted or not
+    private static final Pattern NAVCELL_ID_PATTERN =
+            Pattern.compile("(?:^|\\s)(?i:id)\\s*=\\s*([\"']?)navcell\\1(?:\\s|/|$)");
+
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 10;
+
+    private static final int MAX_CONNECTIONS = 50;
+
+    // Singleton Instance
+    private static volatile YarnContainerLogClient instance = null;
+
+    public static YarnContainerLogClient getInstance() {
+        if (instance == null) {
+            synchronized (YarnContainerLogClient.class) {
+                if (instance == null) {
+                    instance = new YarnContainerLogClient();
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    @NotNull
+    private final CloseableHttpClient httpClient;
+
+    private YarnContainerLogClient() {
+        RegistryBuilder<ConnectionSocketFactory> registryBuilder = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", Optional.ofNullable(createSSLSocketFactory())
+                        .orElseGet(SSLConnectionSocketFactory::getSystemSocketFactory));
+        Registry<ConnectionSocketFactory> registry = registryBuilder.build();
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+
+        this.httpClient = HttpClients.custom()
+                .useSystemProperties()
+                .setConnectionManager(connectionManager)
+                .setDefaultCookieStore(new BasicCookieStore())
+                .setDefaultRequestConfig(RequestConfig.custom().setCookieSpec(CookieSpecs.DEFAULT).build())
+                .build();
+    }
+
+    @Nullable
+    private SSLConnectionSocketFactory createSSLSocketFactory() {
+        TrustStrategy ts = ServiceManager.getServiceProvider(TrustStrategy.class);
+
+        if (ts == null) {
+            return null;
+        }
+
+        try {
+            return new SSLConnectionSocketFactory(
+                    new SSLContextBuilder().loadTrustMaterial(ts).build(),
+                    HttpObservable.isSSLCertificateValidationDisabled()
+                            ? NoopHostnameVerifier.INSTANCE
+                            : new DefaultHostnameVerifier());
+        } catch (Exception e) {
+            log().error("Prepare SSL Context for YARN log reading failure.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Get a piece of the container log
+     *
+     * @param credentialsProvider credential provider for the cluster, null for no authentication
+     * @param baseUrl the container log url
+     * @param type the log type, such as stderr or stdout
+     * @param start the start offset
+     * @param size the max size to read, the value 0 or less for all the rest
+     * @return the log read, or an empty string if the log isn't available
+     */
+    @NotNull
+    public String getLog(@Nullable final CredentialsProvider credentialsProvider,
+                         @NotNull String baseUrl,
+                         @NotNull String type,
+                         long start,
+                         int size) {
+        URI url = null;
+
+        try {
+            url = new URI(baseUrl + "/").resolve(
+                    String.format("%s?start=%d", type, start) +
+                            (size <= 0 ? "" : String.format("&&end=%d", start + size)));
+
+            HttpGet get = new HttpGet(url);
+            try (CloseableHttpResponse resp = httpClient.execute(get, createContext(credentialsProvider, url))) {
+                HttpEntity entity = resp.getEntity();
+                int statusCode = resp.getStatusLine().getStatusCode();
+
+                try {
+                    if (statusCode >= 300 || entity == null) {
+                        // If the URL is wrong, will get 200 response with content:
+                        //      Unable to locate 'xxx' log for container
+                        //  OR
+                        //      Logs not available for <user>. Aggregation may not be complete, Check back later or try the nodemanager at...
+                        //  OR
+                        //      Cannot get container logs without ...
+                        //
+                        // if fetching Yarn log hits the gap between the job running and stop, will get the status 403
+                        // the log is moving to job history server, just wait and retry.
+                        if (statusCode != HttpStatus.SC_FORBIDDEN) {
+                            log().warn("The GET request to " + url + " responded error: " + resp.getStatusLine());
+                        }
+
+                        return "";
+                    }
+
+                    Charset charset = Optional.ofNullable(ContentType.get(entity))
+                            .map(ContentType::getCharset)
+                            .orElse(StandardCharsets.UTF_8);
+
+                    try (Reader reader = new BufferedReader(new InputStreamReader(entity.getContent(), charset))) {
+                        return extractLog(reader, type);
+                    }
+                } finally {
+                    // Drain what the scanner didn't read so that the connection goes back to the pool
+                    EntityUtils.consumeQuietly(entity);
+                }
+            }
+        } catch (URISyntaxException e) {
+            log().error("baseUrl has syntax error: " + baseUrl);
+        } catch (Exception e) {
+            log().warn("get Spark job log Error", e);
+        }
+
+        return "";
+    }
+
+    @NotNull
+    private HttpClientContext createContext(@Nullable CredentialsProvider credentialsProvider, @NotNull URI url) {
+        HttpClientContext context = HttpClientContext.create();
+
+        if (credentialsProvider != null) {
+            context.setCredentialsProvider(credentialsProvider);
+
+            // Send the basic authentication header up front rather than wait for a 401 challenge on every poll
+            HttpHost target = URIUtils.extractHost(url);
+            if (target != null && credentialsProvider.getCredentials(new AuthScope(target)) != null) {
+                BasicAuthCache authCache = new BasicAuthCache();
+                authCache.put(target, new BasicScheme());
+                context.setAuthCache(authCache);
+            }
+        }
+
+        return context;
+    }
+
+    /**
+     * Cut the log out of a YARN log page, from the content cell following the {@code #navcell} navigation cell.
+     * The running NodeManager page has only one {@code <pre>} for the requested log, the history server page has a
+     * {@code <p>Log Type: xxx} paragraph before each {@code <pre>}. So the {@code <pre>} following the requested log
+     * type is returned, otherwise the last one. A newline right after {@code <pre>} isn't a part of the log, same
+     * as in a browser.
+     *
+     * @param reader the page content
+     * @param type the log type
+     * @return the unescaped log text, empty if the page has no content cell
+     */
+    @NotNull
+    static String extractLog(@NotNull Reader reader, @NotNull String type) throws IOException {
+        StringBuilder attributes = new StringBuilder();
+        String tag;
+
+        do {
+            tag = nextTag(reader, attributes);
+        } while (tag != null && !(isStartTag(tag) && NAVCELL_ID_PATTERN.matcher(attributes).find()));
+
+        if (tag == null || !skipElement(reader, tag)) {
+            return "";
+        }
+
+        do {
+            tag = nextTag(reader, null);
+        } while (tag != null && !isStartTag(tag));
+
+        if (tag == null) {
+            return "";
+        }
+
+        String contentTag = tag;
+        int depth = 1;
+        String logType = null;
+        String logs = "";
+
+        while (depth > 0 && (tag = nextTag(reader, null)) != null) {
+            if (tag.equals(contentTag)) {
+                depth++;
+            } else if (tag.equals("/" + contentTag)) {
+                depth--;
+            } else if (tag.equals("p")) {
+                Matcher matcher = LOG_TYPE_PATTERN.matcher(readText(reader).trim());
+                if (matcher.matches()) {
+                    logType = matcher.group(1);
+                }
+            } else if (tag.equals("pre")) {
+                String text = readText(reader);
+                logs = StringEscapeUtils.unescapeHtml4(text.startsWith("\r\n") ?
+                        text.substring(2) :
+                        StringUtils.removeStart(text, "\n"));
+
+                if (logType != null) {
+                    if (logType.equals(type)) {
+                        return logs;
+                    }
+
+                    logType = null;
+                }
+            }
+        }
+
+        return logs;
+    }
+
+    private static boolean isStartTag(@NotNull String tag) {
+        return !tag.isEmpty() && Character.isLetter(tag.charAt(0));
+    }
+
+    // Move past the end tag of the element whose start tag was just read, false if the page ends before that
+    private static boolean skipElement(@NotNull Reader reader, @NotNull String name) throws IOException {
+        int depth = 1;
+        String tag;
+
+        while ((tag = nextTag(reader, null)) != null) {
+            if (tag.equals(name)) {
+                depth++;
+            } else if (tag.equals("/" + name) && --depth == 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Move past the next tag and return its name, null at the end of the content
+    @Nullable
+    private static String nextTag(@NotNull Reader reader, @Nullable StringBuilder attributes) throws IOException {
+        int ch;
+
+        do {
+            ch = reader.read();
+        } while (ch != -1 && ch != '<');
+
+        if (ch == -1) {
+            return null;
+        }
+
+        String tag = readTagName(reader);
+
+        return skipToTagEnd(reader, attributes) == -1 ? null : tag;
+    }
+
+    // Read the text up to the next tag, same as the first child node of the element
+    @NotNull
+    private static String readText(@NotNull Reader reader) throws IOException {
+        StringBuilder text = new StringBuilder();
+        reader.mark(1);
+        int ch = reader.read();
+
+        while (ch != -1 && ch != '<') {
+            text.append((char) ch);
+            reader.mark(1);
+            ch = reader.read();
+        }
+
+        // Leave '<' for nextTag
+        if (ch == '<') {
+            reader.reset();
+        }
+
+        return text.toString();
+    }
+
+    // Read the tag name right after '<', such as "pre" for "<pre>" and "/pre" for "</pre>", in lower case
+    @NotNull
+    private static String readTagName(@NotNull Reader reader) throws IOException {
+        StringBuilder name = new StringBuilder();
+        reader.mark(1);
+        int ch = reader.read();
+
+        while (ch != -1 && ch != '>' && !Character.isWhitespace(ch) && !(ch == '/' && name.length() > 0)) {
+            name.append((char) ch);
+            reader.mark(1);
+            ch = reader.read();
+        }
+
+        // Leave '>' for skipToTagEnd
+        reader.reset();
+
+        return name.toString().toLowerCase(Locale.ROOT);
+    }
+
+    // Move to the '>' closing the current tag, collecting the attributes text if asked,
+    // returns '>' or -1 at the end of the content
+    private static int skipToTagEnd(@NotNull Reader reader, @Nullable StringBuilder attributes) throws IOException {
+        int ch;
+        int quote = 0;
+
+        if (attributes != null) {
+            attributes.setLength(0);
+        }
+
+        while ((ch = reader.read()) != -1) {
+            if (attributes != null && ch != '>') {
+                attributes.append((char) ch);
+            }
+
+            if (quote != 0) {
+                if (ch == quote) {
+                    quote = 0;
+                }
+            } else if (ch == '"' || ch == '\'') {
+                quote = ch;
+            } else if (ch == '>') {
+                break;
+            }
+        }
+
+        return ch;
+    }
+}
@@ -21,37 +21,44 @@
  */
 package com.microsoft.azure.hdinsight.spark.jobs;
 
-import com.microsoft.azure.hdinsight.sdk.common.HDIException;
-import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
-import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
-import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azure.hdinsight.spark.jobs.framework.JobRequestDetails;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 
 import java.io.IOException;
-import java.util.Optional;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
-public class YarnJobHttpHandler implements HttpHandler {
-    @Override
-    public void handle(HttpExchange httpExchange) throws IOException {
-        httpExchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+public class YarnJobHttpHandler extends AsyncJobViewHttpHandler {
+    public YarnJobHttpHandler(@NotNull Executor ioExecutor) {
+        super(ioExecutor);
+    }
 
+    @Override
+    protected void handleAsync(@NotNull HttpExchange httpExchange) throws IOException {
         JobRequestDetails requestDetail = JobRequestDetails.getJobRequestDetail(httpExchange);
         String path = requestDetail.getRequestPath();
-        try {
-            if (path.contains("/apps/app") && requestDetail.isSpecificApp()) {
-                App app = JobViewCacheManager.getYarnApp(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(app);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
-            } else if (path.contains("/apps/logs") && requestDetail.isSpecificApp()) {
-                ApplicationMasterLogs logs = JobViewCacheManager.getYarnLogs(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(logs);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
-            }
-        } catch (ExecutionException e) {
-            JobUtils.setResponse(httpExchange, e.getMessage(), 500);
+        if (!requestDetail.isSpecificApp()) {
+            JobUtils.setResponse(httpExchange, "No application specified", 400);
+            return;
+        }
+
+        ApplicationKey key = new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId());
+        if (respondNotModified(httpExchange, key)) {
+            return;
+        }
+
+        if (path.contains("/apps/app")) {
+            respondWhenLoaded(httpExchange, JobViewCacheManager.getYarnAppAsync(key), app -> {
+                setCacheHeaders(httpExchange, key, app.isFinal());
+                JobUtils.setJsonResponse(httpExchange, app.getValue());
+            });
+        } else if (path.contains("/apps/logs")) {
+            respondWhenLoaded(httpExchange, JobViewCacheManager.getYarnLogsAsync(key), logs -> {
+                setCacheHeaders(httpExchange, key, logs.isFinal());
+                JobUtils.setJsonResponse(httpExchange, logs.getValue());
+            });
+        } else {
+            JobUtils.setResponse(httpExchange, "Unknown request " + path, 404);
         }
     }
 }
@@ -0,0 +1,418 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.http.client.CredentialsProvider;
+import rx.Observable;
+import rx.Producer;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.subscriptions.Subscriptions;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shared YARN container log tailing.
+ *
+ * All tails run on one small scheduler. Tails of containers on the same NodeManager are polled one after another
+ * by a single task, so they share the pooled connection of {@link YarnContainerLogClient}. Each tail polls again
+ * at once after a full block, after {@link #MIN_POLL_INTERVAL_MILLIS} after a partial one, and doubles its
+ * interval up to {@link #MAX_POLL_INTERVAL_MILLIS} while the log doesn't grow. Lines are only emitted as requested
+ * by the subscriber, a tail with {@link #MAX_PENDING_LINES} undelivered lines stops fetching until they are taken.
+ */
+public class YarnLogTailService implements ILogger {
+    static final long MIN_POLL_INTERVAL_MILLIS = 500;
+    static final long INITIAL_POLL_INTERVAL_MILLIS = 1000;
+    static final long MAX_POLL_INTERVAL_MILLIS = 8000;
+    static final int MAX_PENDING_LINES = 10000;
+
+    // The NodeManager host in gateway URLs such as https://cluster/yarnui/10.0.0.15/node/containerlogs/...
+    private static final Pattern GATEWAY_NODE_PATTERN = Pattern.compile("^/yarnui/([^/]+)/");
+
+    // Singleton Instance
+    private static YarnLogTailService instance = null;
+
+    public static YarnLogTailService getInstance() {
+        if (instance == null) {
+            synchronized (YarnLogTailService.class) {
+                if (instance == null) {
+                    instance = new YarnLogTailService();
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4,
+            new ThreadFactoryBuilder().setNameFormat("yarn-log-tail-%d").setDaemon(true).build());
+
+    // NodeManager host -> poller
+    private final Map<String, HostPoller> pollers = new HashMap<>();
+
+    YarnLogTailService() {
+    }
+
+    /**
+     * The scheduler shared by the log tails, for other log readers to poll on instead of parking their own threads
+     *
+     * @return the shared scheduler
+     */
+    @NotNull
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Tail a YARN container log line by line
+     *
+     * @param credentialsProvider credential provider for HDInsight
+     * @param stop the stop observable, the rest of the log is read and the tail completes at its first event
+     * @param containerLogUrl the container log url
+     * @param type the log type
+     * @param blockSize the max size of one fetch
+     * @return the log lines observable
+     */
+    @NotNull
+    public Observable<String> tail(@Nullable final CredentialsProvider credentialsProvider,
+                                   @Nullable final Observable<Object> stop,
+                                   @NotNull final String containerLogUrl,
+                                   @NotNull final String type,
+                                   final int blockSize) {
+        return Observable.create(subscriber -> {
+            final String host = getNodeManagerHost(containerLogUrl);
+            final LogTail tail = new LogTail(subscriber, credentialsProvider, containerLogUrl, type, blockSize);
+
+            subscriber.setProducer(tail);
+
+            if (stop != null) {
+                final Subscription stopSubscription = stop.subscribe(
+                        any -> {
+                            tail.stopRequested = true;
+                            getPoller(host).wakeUp();
+                        },
+                        err -> log().warn("The stop signal of " + containerLogUrl + " failed", err));
+                subscriber.add(stopSubscription);
+            }
+
+            subscriber.add(Subscriptions.create(() -> getPoller(host).wakeUp()));
+
+            while (!getPoller(host).add(tail)) {
+                // The poller has just shut down after its last tail left, get a new one
+            }
+        });
+    }
+
+    @NotNull
+    static String getNodeManagerHost(@NotNull String containerLogUrl) {
+        try {
+            URI uri = URI.create(containerLogUrl);
+            Matcher matcher = GATEWAY_NODE_PATTERN.matcher(Optional.ofNullable(uri.getPath()).orElse(""));
+
+            return uri.getAuthority() + (matcher.find() ? "/" + matcher.group(1) : "");
+        } catch (IllegalArgumentException ignored) {
+            return containerLogUrl;
+        }
+    }
+
+    @NotNull
+    private HostPoller getPoller(@NotNull String host) {
+        synchronized (pollers) {
+            return pollers.computeIfAbsent(host, HostPoller::new);
+        }
+    }
+
+    private class HostPoller implements Runnable {
+        private final String host;
+        private final List<LogTail> tails = new CopyOnWriteArrayList<>();
+        private ScheduledFuture<?> next = null;
+        private boolean running = false;
+        private boolean rerun = false;
+        private boolean closed = false;
+
+        HostPoller(@NotNull String host) {
+            this.host = host;
+        }
+
+        // returns false if the poller has been closed
+        synchronized boolean add(@NotNull LogTail tail) {
+            if (closed) {
+                return false;
+            }
+
+            tails.add(tail);
+            wakeUp();
+
+            return true;
+        }
+
+        // Poll the due tails as soon as possible
+        synchronized void wakeUp() {
+            if (closed) {
+                return;
+            }
+
+            if (running) {
+                rerun = true;
+            } else {
+                schedule(0);
+            }
+        }
+
+        private void schedule(long delayMillis) {
+            if (next != null) {
+                next.cancel(false);
+            }
+
+            next = scheduler.schedule(this, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                running = true;
+                next = null;
+            }
+
+            long nextDue = Long.MAX_VALUE;
+
+            for (LogTail tail : tails) {
+                try {
+                    if (tail.isDue()) {
+                        tail.poll();
+                    }
+                } catch (Exception ex) {
+                    log().warn("Tailing Yarn log " + tail.url + " failed", ex);
+                    tail.fail(ex);
+                }
+
+                if (tail.isDone()) {
+                    tails.remove(tail);
+                } else {
+                    nextDue = Math.min(nextDue, tail.dueAt);
+                }
+            }
+
+            synchronized (pollers) {
+                synchronized (this) {
+                    running = false;
+
+                    if (tails.isEmpty() && !rerun) {
+                        closed = true;
+                        pollers.remove(host, this);
+
+                        return;
+                    }
+
+                    schedule(rerun ? 0 : Math.max(0, nextDue - System.currentTimeMillis()));
+                    rerun = false;
+                }
+            }
+        }
+    }
+
+    private class LogTail implements Producer {
+        private final Subscriber<? super String> subscriber;
+        @Nullable
+        private final CredentialsProvider credentialsProvider;
+        private final String url;
+        private final String type;
+        private final int blockSize;
+
+        // Only touched by the poller task of the host
+        private long nextStart = 0;
+        private String remainedLine = "";
+        private long interval = INITIAL_POLL_INTERVAL_MILLIS;
+        private volatile long dueAt = 0;
+
+        private volatile boolean stopRequested = false;
+        private volatile boolean finished = false;
+        @Nullable
+        private volatile Throwable error = null;
+
+        private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger drainWip = new AtomicInteger();
+        private boolean terminated = false;
+
+        LogTail(@NotNull Subscriber<? super String> subscriber,
+                @Nullable CredentialsProvider credentialsProvider,
+                @NotNull String url,
+                @NotNull String type,
+                int blockSize) {
+            this.subscriber = subscriber;
+            this.credentialsProvider = credentialsProvider;
+            this.url = url;
+            this.type = type;
+            this.blockSize = blockSize;
+        }
+
+        boolean isDue() {
+            return stopRequested || subscriber.isUnsubscribed() || dueAt <= System.currentTimeMillis();
+        }
+
+        boolean isDone() {
+            return finished || subscriber.isUnsubscribed();
+        }
+
+        void poll() {
+            if (subscriber.isUnsubscribed()) {
+                return;
+            }
+
+            if (stopRequested) {
+                // Get the rest logs from history server
+                // Don't worry about the log is moved to history server, the YarnUI can do URL redirect by itself
+                String logs = fetch(0);
+                new BufferedReader(new StringReader(remainedLine + logs)).lines().forEach(this::enqueue);
+                finished = true;
+                drain();
+
+                return;
+            }
+
+            if (pendingCount.get() >= MAX_PENDING_LINES) {
+                // The subscriber is behind, don't fetch more until it catches up
+                dueAt = System.currentTimeMillis() + interval;
+
+                return;
+            }
+
+            String logs = fetch(blockSize);
+            int lastLineBreak = logs.lastIndexOf('\n');
+
+            if (lastLineBreak < 0) {
+                // No linebreak found
+                if (logs.isEmpty()) {
+                    // Remained line is a full line since the backend producing logs line by line
+                    enqueue(remainedLine);
+                    remainedLine = "";
+                } else {
+                    remainedLine += logs;
+                    nextStart += logs.length();
+                }
+            } else {
+                long handledLength = new BufferedReader(new StringReader(
+                                        remainedLine + logs.substring(0, lastLineBreak)))
+                        .lines()
+                        .mapToLong(line -> {
+                            enqueue(line);
+
+                            // Count the line length with linebreak
+                            return line.length() + 1;
+                        })
+                        .sum();
+
+                nextStart += handledLength - remainedLine.length();
+                remainedLine = "";
+            }
+
+            if (logs.isEmpty()) {
+                interval = Math.min(Math.max(interval, MIN_POLL_INTERVAL_MILLIS) * 2, MAX_POLL_INTERVAL_MILLIS);
+            } else {
+                interval = logs.length() >= blockSize ? 0 : MIN_POLL_INTERVAL_MILLIS;
+            }
+
+            dueAt = System.currentTimeMillis() + interval;
+            drain();
+        }
+
+        void fail(@NotNull Throwable ex) {
+            error = ex;
+            finished = true;
+            drain();
+        }
+
+        @NotNull
+        private String fetch(int size) {
+            return YarnContainerLogClient.getInstance().getLog(credentialsProvider, url, type, nextStart, size);
+        }
+
+        private void enqueue(@NotNull String line) {
+            pending.offer(line);
+            pendingCount.incrementAndGet();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                return;
+            }
+
+            long current;
+            long next;
+            do {
+                current = requested.get();
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (current != Long.MAX_VALUE && !requested.compareAndSet(current, next));
+
+            drain();
+        }
+
+        // Emit pending lines as far as requested, from either the poller or the requesting thread
+        private void drain() {
+            if (drainWip.getAndIncrement() != 0) {
+                return;
+            }
+
+            do {
+                while (!subscriber.isUnsubscribed() && requested.get() > 0) {
+                    String line = pending.poll();
+                    if (line == null) {
+                        break;
+                    }
+
+                    pendingCount.decrementAndGet();
+                    if (requested.get() != Long.MAX_VALUE) {
+                        requested.decrementAndGet();
+                    }
+
+                    subscriber.onNext(line);
+                }
+
+                if (finished && !terminated && pending.isEmpty() && !subscriber.isUnsubscribed()) {
+                    terminated = true;
+
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onCompleted();
+                    }
+                }
+            } while (drainWip.decrementAndGet() != 0);
+        }
+    }
+}
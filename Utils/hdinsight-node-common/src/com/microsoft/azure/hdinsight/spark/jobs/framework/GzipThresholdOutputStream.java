@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.azure.hdinsight.spark.jobs.framework;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The response body stream of an HTTP exchange, which decides the response encoding by the body size.
+ *
+ * The body is buffered until it grows over the threshold. A small body is sent as it is with its length at close(),
+ * while a large one is sent chunked as it is written, gzipped if the client accepts that.
+ */
+public class GzipThresholdOutputStream extends OutputStream {
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    @NotNull
+    private final HttpExchange httpExchange;
+    private final int code;
+    private final int threshold;
+
+    @Nullable
+    private ByteArrayOutputStream buffer;
+
+    @Nullable
+    private OutputStream body;
+
+    private boolean isClosed = false;
+
+    public GzipThresholdOutputStream(@NotNull HttpExchange httpExchange, int code, int threshold) {
+        this.httpExchange = httpExchange;
+        this.code = code;
+        this.threshold = threshold;
+        this.buffer = new ByteArrayOutputStream(Math.min(threshold, 8 * 1024));
+    }
+
+    private boolean isGzipAccepted() {
+        String acceptEncoding = httpExchange.getRequestHeaders().getFirst("Accept-Encoding");
+
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(@NotNull byte[] b, int off, int len) throws IOException {
+        if (isClosed) {
+            throw new IOException("The response body is closed");
+        }
+
+        if (body != null) {
+            body.write(b, off, len);
+            return;
+        }
+
+        buffer.write(b, off, len);
+
+        if (buffer.size() > threshold) {
+            startStreaming();
+        }
+    }
+
+    private void startStreaming() throws IOException {
+        if (isGzipAccepted()) {
+            httpExchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            httpExchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+            httpExchange.sendResponseHeaders(code, 0);
+            body = new GZIPOutputStream(httpExchange.getResponseBody(), GZIP_BUFFER_SIZE);
+        } else {
+            httpExchange.sendResponseHeaders(code, 0);
+            body = httpExchange.getResponseBody();
+        }
+
+        buffer.writeTo(body);
+        buffer = null;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // Not to send the headers of a small body before its length is known
+        if (body != null) {
+            body.flush();
+        }
+    }
+
+    /**
+     * Check if the response headers are sent, after that an error can't be sent as another response
+     *
+     * @return true for the headers sent
+     */
+    public boolean isCommitted() {
+        return body != null || isClosed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+
+        isClosed = true;
+
+        try {
+            if (body == null) {
+                httpExchange.sendResponseHeaders(code, buffer.size() == 0 ? -1 : buffer.size());
+                body = httpExchange.getResponseBody();
+                buffer.writeTo(body);
+            }
+
+            body.close();
+        } finally {
+            httpExchange.close();
+        }
+    }
+}
@@ -24,6 +24,7 @@ package com.microsoft.azure.hdinsight.spark.jobs.framework;
 import com.microsoft.azure.hdinsight.common.JobViewManager;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.azurecommons.helpers.StringHelper;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.sun.net.httpserver.HttpExchange;
@@ -67,6 +68,11 @@ public class JobRequestDetails {
             return myRequestPath;
     }
 
+    @Nullable
+    public String getQuery(@NotNull String key) {
+        return myQueriesMap.get(key);
+    }
+
     public static JobRequestDetails getJobRequestDetail(@NotNull HttpExchange httpExchange) {
         final URI myUri = httpExchange.getRequestURI();
         final String path = myUri.getPath();
@@ -25,6 +25,7 @@ package com.microsoft.azure.hdinsight.spark.run;
 import com.microsoft.azure.hdinsight.spark.common.ISparkBatchJob;
 import com.microsoft.azure.hdinsight.spark.common.SparkBatchJob;
 import com.microsoft.azure.hdinsight.spark.jobs.JobUtils;
+import com.microsoft.azure.hdinsight.spark.jobs.YarnLogTailService;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.commons.lang.StringUtils;
@@ -35,10 +36,14 @@ import java.io.InputStream;
 import java.util.AbstractMap;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Optional;
-
-import static java.lang.Thread.sleep;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class SparkJobLogInputStream extends InputStream {
+    private static final long MIN_FETCH_INTERVAL_MILLIS = 500;
+    private static final long MAX_FETCH_INTERVAL_MILLIS = 3000;
+
     @NotNull
     private String logType;
     @Nullable
@@ -46,11 +51,17 @@ public class SparkJobLogInputStream extends InputStream {
     @Nullable
     private String logUrl;
 
-    private long offset = 0;
+    private volatile long offset = 0;
     @NotNull
     private byte[] buffer = new byte[0];
     private int bufferPos;
 
+    // The log slice got by the background fetch, taken by available() once the buffer is consumed
+    private final AtomicReference<SimpleImmutableEntry<String, Long>> fetched = new AtomicReference<>();
+    private final AtomicBoolean isFetching = new AtomicBoolean(false);
+    private volatile long nextFetchTime = 0;
+    private long fetchInterval = 0;
+
     public SparkJobLogInputStream(@NotNull String logType) {
         this.logType = logType;
     }
@@ -87,23 +98,45 @@ public class SparkJobLogInputStream extends InputStream {
     @Override
     public int available() throws IOException {
         if (bufferPos >= buffer.length) {
-            return fetchLog(offset, -1)
-                    .map(sliceOffsetPair -> {
-                        buffer = sliceOffsetPair.getKey().getBytes();
-                        bufferPos = 0;
-                        offset = sliceOffsetPair.getValue() + sliceOffsetPair.getKey().length();
-
-                        return buffer.length;
-                    }).orElseGet(() -> {
-                        try {
-                            sleep(3000);
-                        } catch (InterruptedException ignore) { }
-
-                        return 0;
-                    });
-        } else {
-            return buffer.length - bufferPos;
+            SimpleImmutableEntry<String, Long> sliceOffsetPair = fetched.getAndSet(null);
+
+            if (sliceOffsetPair == null) {
+                // Don't block the reader, it polls again later and gets the slice once fetched
+                scheduleFetch();
+
+                return 0;
+            }
+
+            buffer = sliceOffsetPair.getKey().getBytes();
+            bufferPos = 0;
+            offset = sliceOffsetPair.getValue() + sliceOffsetPair.getKey().length();
         }
+
+        return buffer.length - bufferPos;
+    }
+
+    // Fetch the next log slice on the shared log tail scheduler, again at once after getting logs and
+    // backing off up to MAX_FETCH_INTERVAL_MILLIS while there is none
+    private void scheduleFetch() {
+        if (!getAttachedJob().isPresent() || !isFetching.compareAndSet(false, true)) {
+            return;
+        }
+
+        YarnLogTailService.getInstance().getScheduler().schedule(() -> {
+            try {
+                Optional<SimpleImmutableEntry<String, Long>> slice = fetchLog(offset, -1);
+
+                fetchInterval = slice.isPresent()
+                        ? 0
+                        : Math.min(Math.max(fetchInterval, MIN_FETCH_INTERVAL_MILLIS) * 2, MAX_FETCH_INTERVAL_MILLIS);
+                nextFetchTime = System.currentTimeMillis() + fetchInterval;
+                slice.ifPresent(fetched::set);
+            } catch (Exception ignored) {
+                nextFetchTime = System.currentTimeMillis() + MAX_FETCH_INTERVAL_MILLIS;
+            } finally {
+                isFetching.set(false);
+            }
+        }, Math.max(0, nextFetchTime - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
     }
 
     void setLogUrl(@Nullable String logUrl) {
@@ -36,6 +36,11 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -67,6 +72,10 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
                     new RawLocalFileStatus(localf, getDefaultBlockSize(f), makeQualified(f)) };
         }
 
+        if (isPosixFileSystem(localf)) {
+            return listPosixStatus(f, localf);
+        }
+
         String[] names = localf.list();
         if (names == null) {
             return null;
@@ -90,6 +99,39 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
         return Arrays.copyOf(results, j);
     }
 
+    private static boolean isPosixFileSystem(File file) {
+        return file.toPath().getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    /// lists the directory with the POSIX attributes of each entry read in one go, so that the statuses come
+    /// with their permissions, owners and groups loaded
+    private FileStatus[] listPosixStatus(Path f, File localf) {
+        List<FileStatus> results = new ArrayList<>();
+
+        try (DirectoryStream<java.nio.file.Path> entries = Files.newDirectoryStream(localf.toPath())) {
+            for (java.nio.file.Path entry : entries) {
+                // Assemble the path using the Path 3 arg constructor to make sure
+                // paths with colon are properly resolved on Linux
+                Path child = new Path(f, new Path(null, null, entry.getFileName().toString()));
+
+                try {
+                    results.add(new RawLocalFileStatus(entry.toFile(), getDefaultBlockSize(child), makeQualified(child),
+                            Files.readAttributes(entry, PosixFileAttributes.class)));
+                } catch (NoSuchFileException e) {
+                    // ignore the files not found since the dir list may have have changed
+                    // since the entry was listed.
+                } catch (IOException e) {
+                    // leave the permissions to be loaded on demand
+                    results.add(new RawLocalFileStatus(entry.toFile(), getDefaultBlockSize(child), makeQualified(child)));
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+
+        return results.toArray(new FileStatus[0]);
+    }
+
     @Override
     public void initialize(URI uri, Configuration conf) throws IOException {
         super.initialize(uri, conf);
@@ -121,6 +163,27 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
     @Override
     protected void checkPath(Path path) { }
 
+    /// permissions, owner and group of a file
+    static class PermissionInfo {
+        final FsPermission permission;
+        final String owner;
+        final String group;
+
+        PermissionInfo(FsPermission permission, String owner, String group) {
+            this.permission = permission;
+            this.owner = owner;
+            this.group = group;
+        }
+
+        static PermissionInfo of(PosixFileAttributes attributes) {
+            return new PermissionInfo(
+                    // FsPermission expects the `ls` format with the file type ahead
+                    FsPermission.valueOf("-" + PosixFilePermissions.toString(attributes.permissions())),
+                    attributes.owner().getName(),
+                    attributes.group().getName());
+        }
+    }
+
     static class RawLocalFileStatus extends FileStatus {
         private final File file;
 
@@ -137,6 +200,14 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
             this.file = f;
         }
 
+        RawLocalFileStatus(File f, long defaultBlockSize, Path p, PosixFileAttributes attributes) {
+            super(attributes.size(), attributes.isDirectory(), 1, defaultBlockSize,
+                  attributes.lastModifiedTime().toMillis(), p);
+            this.file = f;
+
+            setPermissionInfo(PermissionInfo.of(attributes));
+        }
+
         @Override
         public FsPermission getPermission() {
             if (!isPermissionLoaded()) {
@@ -161,8 +232,36 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
             return super.getGroup();
         }
 
-        /// loads permissions, owner, and group from `ls -ld`
+        private void setPermissionInfo(PermissionInfo info) {
+            setPermission(info == null ? null : info.permission);
+            setOwner(info == null ? null : info.owner);
+            setGroup(info == null ? null : info.group);
+        }
+
+        /// loads permissions, owner, and group
         private void loadPermissionInfo() {
+            setPermissionInfo(readPermissionInfo());
+        }
+
+        /// reads permissions, owner, and group from the POSIX file attributes, or from `ls -ld` on the other
+        /// file systems. Returns null if the file doesn't exist.
+        private PermissionInfo readPermissionInfo() {
+            if (!isPosixFileSystem(this.file)) {
+                return readPermissionInfoByShell();
+            }
+
+            try {
+                return PermissionInfo.of(Files.readAttributes(this.file.toPath(), PosixFileAttributes.class));
+            } catch (NoSuchFileException ignored) {
+                return null;
+            } catch (IOException e) {
+                throw new RuntimeException("Error while reading file permissions : " +
+                        StringUtils.stringifyException(e));
+            }
+        }
+
+        /// reads permissions, owner, and group from `ls -ld`
+        private PermissionInfo readPermissionInfoByShell() {
             IOException e = null;
             try {
                 List<String> args = new ArrayList<>(Arrays.asList(Shell.getGetPermissionCommand()));
@@ -176,7 +275,6 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
                 if (permission.length() > 10) { //files with ACLs might have a '+'
                     permission = permission.substring(0, 10);
                 }
-                setPermission(FsPermission.valueOf(permission));
                 t.nextToken();
 
                 String owner = t.nextToken();
@@ -187,19 +285,18 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
                     if (i != -1)
                         owner = owner.substring(i + 1);
                 }
-                setOwner(owner);
 
-                setGroup(t.nextToken());
+                return new PermissionInfo(FsPermission.valueOf(permission), owner, t.nextToken());
             } catch (Shell.ExitCodeException ioe) {
                 if (ioe.getExitCode() != 1) {
                     e = ioe;
-                } else {
-                    setPermission(null);
-                    setOwner(null);
-                    setGroup(null);
                 }
+
+                return null;
             } catch (IOException ioe) {
                 e = ioe;
+
+                return null;
             } finally {
                 if (e != null) {
                     throw new RuntimeException("Error while running command to get file permissions : " +
@@ -22,14 +22,32 @@
 
 package com.microsoft.azure.hdinsight.spark.mock
 
+import cucumber.api.java.After
 import cucumber.api.java.en.Given
 import cucumber.api.java.en.Then
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.FileSystem
 import org.apache.hadoop.fs.Path
 import org.assertj.core.api.Assertions.assertThat
+import org.junit.Assume.assumeTrue
 import java.io.File
+import java.net.URI
+import java.nio.file.FileSystems
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.nio.file.attribute.PosixFileAttributes
+import java.nio.file.attribute.PosixFilePermissions
 
 class MockRawLocalFileSystemScenario {
     private var workDir = ""
+    private var tempDir: java.nio.file.Path? = null
+
+    private fun createMockDfs(): FileSystem = MockDfs().apply { initialize(URI.create("mockDfs:///"), Configuration()) }
+
+    @After
+    fun cleanUp() {
+        tempDir?.toFile()?.deleteRecursively()
+    }
 
     @Given("^set mocked file system local working directory to '(.*)'")
     fun setWorkingDirectory(workDir: String) {
@@ -42,4 +60,46 @@ class MockRawLocalFileSystemScenario {
         assertThat(MockRawLocalFileSystem().pathToFile(Path(path)).toURI())
                 .isEqualTo(File(expected).toURI())
     }
-}
\ No newline at end of file
+
+    @Given("^create (\\d+) files in a temporary directory$")
+    fun createTempFiles(count: Int) {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"))
+
+        tempDir = Files.createTempDirectory("mockDfs").apply {
+            (0 until count).forEach { Files.createFile(resolve("part-%05d".format(it))) }
+        }
+    }
+
+    @Then("^list the temporary directory through MockDfs should get (\\d+) files with their permissions$")
+    fun verifyListStatus(count: Int) {
+        val statuses = createMockDfs().listStatus(Path(tempDir!!.toUri()))
+        // reads the permissions as the Spark input file listing does
+        statuses.forEach { it.permission; it.owner; it.group }
+
+        assertThat(statuses).hasSize(count)
+        statuses.forEach {
+            val attributes = Files.readAttributes(Paths.get(it.path.toUri().path), PosixFileAttributes::class.java)
+
+            assertThat(it.permission.toString()).isEqualTo(PosixFilePermissions.toString(attributes.permissions()))
+            assertThat(it.owner).isEqualTo(attributes.owner().name)
+            assertThat(it.group).isEqualTo(attributes.group().name)
+        }
+    }
+
+    @Given("^change the permission of the temporary files to '(.*)'$")
+    fun changeTempFilesPermission(permission: String) {
+        // chmod doesn't change the modification time
+        Files.list(tempDir!!).use { files -> files.forEach {
+            Files.setPosixFilePermissions(it, PosixFilePermissions.fromString(permission))
+        } }
+    }
+
+    @Then("^the temporary files through MockDfs should have the permission '(.*)'$")
+    fun verifyTempFilesPermission(permission: String) {
+        val mockDfs = createMockDfs()
+
+        Files.list(tempDir!!).use { files -> files.forEach {
+            assertThat(mockDfs.getFileStatus(Path(it.toUri())).permission.toString()).isEqualTo(permission)
+        } }
+    }
+}
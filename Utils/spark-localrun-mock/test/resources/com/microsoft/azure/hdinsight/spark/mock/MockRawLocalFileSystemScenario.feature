@@ -22,3 +22,13 @@ Feature: Mock File System Unit Test
   Scenario: WASB container blob root path
     Given set mocked file system local working directory to '/data/__default__/user/current'
     Then convert mocked file system path 'wasb://account@blob1/' to File should be '/data/account@blob1/'
+
+  Scenario: List a directory of 10000 files through MockDfs
+    Given create 10000 files in a temporary directory
+    Then list the temporary directory through MockDfs should get 10000 files with their permissions
+
+  Scenario: Permission of a listed file is reloaded once it is changed
+    Given create 1 files in a temporary directory
+    Then list the temporary directory through MockDfs should get 1 files with their permissions
+    Given change the permission of the temporary files to 'rwx------'
+    Then the temporary files through MockDfs should have the permission 'rwx------'
@@ -22,8 +22,7 @@
 
 package org.apache.spark.tools
 
-import org.apache.spark.{FailureTask, SparkConf, SparkContext, TaskRecovery}
-import org.json4s.jackson.Serialization.read
+import org.apache.spark.{FailureContext, SparkConf, SparkContext, TaskRecovery}
 
 object FailureTaskRecoveryApp {
   def main(args: Array[String]): Unit = {
@@ -31,16 +30,15 @@ object FailureTaskRecoveryApp {
 
     val sc = new SparkContext(sparkconf)
 
-    implicit val formats = org.json4s.DefaultFormats
-
+    // Both the binary failure context and the original JSON one are accepted
     val failureTaskContextFile = sparkconf.get("spark.failure.task.context")
-    val source = scala.io.Source.fromFile(failureTaskContextFile)
-    val json = source.mkString
-    source.close()
-
-    val failureTask = read[FailureTask](json)
+    val failureContext = FailureContext.open(sc, failureTaskContextFile)
 
-    TaskRecovery.rerun(sc, failureTask)
+    try {
+      TaskRecovery.rerun(sc, failureContext)
+    } finally {
+      failureContext.close()
+    }
   }
 
 }
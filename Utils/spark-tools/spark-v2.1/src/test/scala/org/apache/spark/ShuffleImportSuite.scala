@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.apache.spark
+
+import java.io.{BufferedOutputStream, ByteArrayInputStream, File, FileOutputStream, InputStream, RandomAccessFile}
+import java.nio.file.Files
+
+import com.google.common.io.ByteStreams
+import org.apache.spark.util.{Benchmark, Utils}
+import org.scalatest.MustMatchers._
+
+class ShuffleImportSuite extends SparkFunSuite {
+  private val blockSize = 4 * 1024 * 1024
+  private val block = Array.tabulate[Byte](blockSize)(i => (i % 251).toByte)
+
+  private def readAt(file: File, offset: Long, len: Int): Array[Byte] = {
+    val in = new RandomAccessFile(file, "r")
+    val bytes = new Array[Byte](len)
+
+    Utils.tryWithSafeFinally {
+      in.seek(offset)
+      in.readFully(bytes)
+    } {
+      in.close()
+    }
+
+    bytes
+  }
+
+  // The import before writing at the block offset, padding the data file up to it byte by byte
+  private def paddingImport(offset: Long, dataIn: InputStream, outDataFile: File): Unit = {
+    val dataOut = new BufferedOutputStream(new FileOutputStream(outDataFile))
+
+    0.toLong.until(offset).foreach(_ => dataOut.write(20))
+
+    ByteStreams.copy(dataIn, dataOut)
+
+    dataOut.close()
+  }
+
+  test("shuffle block is imported at its offset") {
+    val outDataFile = new File(Utils.createTempDir(), "shuffle_0_0_0.data")
+    val offset = 256L * 1024 * 1024 + 7
+
+    TaskRecovery.importShuffleToLocal(offset, blockSize, 3, new ByteArrayInputStream(block), outDataFile)
+
+    outDataFile.length mustBe offset + blockSize
+    readAt(outDataFile, offset, blockSize) mustBe block
+    readAt(outDataFile, 0, 4096) mustBe new Array[Byte](4096)
+  }
+
+  test("shuffle block at offset zero replaces an existing data file") {
+    val outDataFile = new File(Utils.createTempDir(), "shuffle_0_0_0.data")
+    val stale = Array.fill[Byte](2 * blockSize)(1)
+    Files.write(outDataFile.toPath, stale)
+
+    TaskRecovery.importShuffleToLocal(0, blockSize, 0, new ByteArrayInputStream(block), outDataFile)
+
+    outDataFile.length mustBe blockSize
+    readAt(outDataFile, 0, blockSize) mustBe block
+  }
+
+  // Writing a gigabyte of padding takes a while, so it only runs with -Dspark.benchmark.shuffleImport=true
+  test("benchmark: import a shuffle block at a large offset") {
+    assume(sys.props.get("spark.benchmark.shuffleImport").exists(_.toBoolean))
+
+    val dir = Utils.createTempDir()
+    val offset = 1L * 1024 * 1024 * 1024
+    val benchmark = new Benchmark("Import a 4 MB shuffle block at a 1 GB offset", blockSize, minNumIters = 3)
+
+    benchmark.addCase("padding") { i =>
+      paddingImport(offset, new ByteArrayInputStream(block), new File(dir, s"padding_$i.data"))
+    }
+
+    benchmark.addCase("sparse positional write") { i =>
+      TaskRecovery.importShuffleToLocal(
+        offset, blockSize, 0, new ByteArrayInputStream(block), new File(dir, s"sparse_$i.data"))
+    }
+
+    benchmark.run()
+  }
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.apache.spark
+
+import java.io._
+import java.nio.charset.StandardCharsets
+import java.util.Base64
+
+import org.apache.commons.io.IOUtils
+import org.apache.hadoop.fs.{FSDataInputStream, FileSystem, Path}
+import org.json4s.jackson.Serialization.{read, write}
+
+import org.apache.spark.io.CompressionCodec
+import org.apache.spark.util.Utils
+
+import scala.collection.mutable
+
+/**
+  * Read access to a saved failure task. The metadata is always loaded, while the partition, broadcast values and
+  * map statuses are only decoded when asked for.
+  */
+trait FailureContext extends Closeable {
+  def failureTask: FailureTask
+
+  def broadcastIds: Seq[Long]
+
+  def readBroadcastValue(id: Long): Any
+
+  def readPartition(): Partition
+
+  def readMapStatuses(shuffleId: Int): Array[Byte]
+
+  override def close(): Unit = {}
+}
+
+object FailureContext {
+  // Binary failure context layout:
+  //   header:  MAGIC, Int format version, UTF compression codec short name ("" for none)
+  //   section: Int kind, UTF name, chunks of (Int length, bytes), Int 0 as the section end
+  //   Int SECTION_END after the last section
+  // Each section body goes through the codec on its own, so it can be skipped or read without the others.
+  val MAGIC: Array[Byte] = "SPARKFTD".getBytes(StandardCharsets.US_ASCII)
+  val FORMAT_VERSION = 1
+
+  val SECTION_END = 0
+  val SECTION_META = 1
+  val SECTION_PARTITION = 2
+  val SECTION_BROADCAST = 3
+  val SECTION_MAP_STATUSES = 4
+  // the body is the hash of the broadcast value in the FailureSaveStore
+  val SECTION_BROADCAST_REF = 5
+
+  val CHUNK_SIZE: Int = 64 * 1024
+
+  val COMPRESS_CONF = "spark.failure.save.compress"
+
+  def open(sc: SparkContext, contextFile: String): FailureContext = {
+    val uri = Utils.resolveURI(contextFile)
+    val fs = Utils.getHadoopFileSystem(uri, sc.hadoopConfiguration)
+    val path = new Path(uri)
+
+    if (isBinary(fs, path)) {
+      // the failure contexts are saved in <failure saving root>/<application folder>/
+      new BinaryFailureContext(sc.conf, fs.open(path), Some(new FailureSaveStore(fs, path.getParent.getParent)))
+    } else {
+      implicit val formats = org.json4s.DefaultFormats
+
+      val reader = new InputStreamReader(fs.open(path), StandardCharsets.UTF_8)
+      try {
+        new JsonFailureContext(read[FailureTask](reader))
+      } finally {
+        reader.close()
+      }
+    }
+  }
+
+  private def isBinary(fs: FileSystem, path: Path): Boolean = {
+    val in = fs.open(path)
+    try {
+      val head = new Array[Byte](MAGIC.length)
+      in.readFully(0, head)
+      head.sameElements(MAGIC)
+    } catch {
+      case _: EOFException => false
+    } finally {
+      in.close()
+    }
+  }
+}
+
+/**
+  * The original format: one JSON document with every binary value Java serialized and Base64 encoded inline.
+  */
+class JsonFailureContext(val failureTask: FailureTask) extends FailureContext {
+  override def broadcastIds: Seq[Long] = failureTask.bcs.map(_.id)
+
+  override def readBroadcastValue(id: Long): Any =
+    TaskRecovery.decodeObj(failureTask.bcs.find(_.id == id).get.value)
+
+  override def readPartition(): Partition = TaskRecovery.decodeObj(failureTask.partitionEnc).asInstanceOf[Partition]
+
+  override def readMapStatuses(shuffleId: Int): Array[Byte] =
+    Base64.getDecoder.decode(failureTask.shuffleDeps.find(_.id == shuffleId).get.mapStatusEnc)
+}
+
+/**
+  * Reads the binary format written by [[FailureContextWriter]]. Only the section headers are scanned when opened;
+  * the input is shared, so the sections must be read one at a time. Broadcast references are resolved in `store`.
+  */
+class BinaryFailureContext(conf: SparkConf, in: FSDataInputStream, store: Option[FailureSaveStore] = None)
+  extends FailureContext {
+  import FailureContext._
+
+  private case class Section(kind: Int, name: String, offset: Long)
+
+  private val codec: Option[CompressionCodec] = {
+    val magic = new Array[Byte](MAGIC.length)
+    in.readFully(magic)
+    require(magic.sameElements(MAGIC), "Not a binary failure context file")
+
+    val version = in.readInt()
+    require(version == FORMAT_VERSION, s"Unsupported failure context format version $version")
+
+    Some(in.readUTF()).filter(_.nonEmpty).map(CompressionCodec.createCodec(conf, _))
+  }
+
+  private val sections: Map[(Int, String), Section] = {
+    val found = mutable.LinkedHashMap[(Int, String), Section]()
+    var kind = in.readInt()
+
+    while (kind != SECTION_END) {
+      val name = in.readUTF()
+      found((kind, name)) = Section(kind, name, in.getPos)
+
+      var chunkLength = in.readInt()
+      while (chunkLength != 0) {
+        in.seek(in.getPos + chunkLength)
+        chunkLength = in.readInt()
+      }
+
+      kind = in.readInt()
+    }
+
+    found.toMap
+  }
+
+  override lazy val failureTask: FailureTask = {
+    implicit val formats = org.json4s.DefaultFormats
+
+    read[FailureTask](new InputStreamReader(openSection(SECTION_META, ""), StandardCharsets.UTF_8))
+  }
+
+  override def broadcastIds: Seq[Long] = sections.values
+    .filter(section => section.kind == SECTION_BROADCAST || section.kind == SECTION_BROADCAST_REF)
+    .map(_.name.toLong)
+    .toSeq
+
+  override def readBroadcastValue(id: Long): Any = {
+    if (sections.contains((SECTION_BROADCAST, id.toString))) {
+      readObject(SECTION_BROADCAST, id.toString)
+    } else {
+      val hash = IOUtils.toString(openSection(SECTION_BROADCAST_REF, id.toString), StandardCharsets.UTF_8)
+      val storeIn = store.getOrElse(throw new IllegalStateException(s"No failure save store for broadcast $id"))
+        .open(hash)
+
+      val objIn = new ObjectInputStream(storeIn)
+      try {
+        objIn.readObject()
+      } finally {
+        objIn.close()
+      }
+    }
+  }
+
+  override def readPartition(): Partition = readObject(SECTION_PARTITION, "").asInstanceOf[Partition]
+
+  override def readMapStatuses(shuffleId: Int): Array[Byte] = {
+    val sectionIn = openSection(SECTION_MAP_STATUSES, shuffleId.toString)
+    try {
+      IOUtils.toByteArray(sectionIn)
+    } finally {
+      sectionIn.close()
+    }
+  }
+
+  override def close(): Unit = in.close()
+
+  private def readObject(kind: Int, name: String): Any = {
+    val objIn = new ObjectInputStream(openSection(kind, name))
+    try {
+      objIn.readObject()
+    } finally {
+      objIn.close()
+    }
+  }
+
+  private def openSection(kind: Int, name: String): InputStream = {
+    val section = sections.getOrElse((kind, name),
+      throw new NoSuchElementException(s"No section $name of kind $kind in the failure context"))
+
+    in.seek(section.offset)
+    val chunkedIn = new ChunkedInputStream(in)
+
+    codec.map(_.compressedInputStream(chunkedIn)).getOrElse(chunkedIn)
+  }
+}
+
+/**
+  * Streams a failure context in the binary format straight to `out`. Nothing bigger than one chunk is held in
+  * memory, whatever the size of the serialized values.
+  */
+class FailureContextWriter(out: OutputStream, codec: Option[CompressionCodec]) extends Closeable {
+  import FailureContext._
+
+  private val dataOut = new DataOutputStream(out)
+
+  dataOut.write(MAGIC)
+  dataOut.writeInt(FORMAT_VERSION)
+  dataOut.writeUTF(codec.map(c => CompressionCodec.getShortName(c.getClass.getName)).getOrElse(""))
+
+  def writeMeta(failureTask: FailureTask): Unit = writeSection(SECTION_META, "") { sectionOut =>
+    implicit val formats = org.json4s.DefaultFormats
+
+    val writer = new OutputStreamWriter(sectionOut, StandardCharsets.UTF_8)
+    write(failureTask, writer)
+    writer.flush()
+  }
+
+  def writePartition(partition: Partition): Unit = writeObject(SECTION_PARTITION, "", partition)
+
+  def writeBroadcastValue(id: Long, value: Any): Unit = writeObject(SECTION_BROADCAST, id.toString, value)
+
+  def writeBroadcastRef(id: Long, hash: String): Unit =
+    writeSection(SECTION_BROADCAST_REF, id.toString)(_.write(hash.getBytes(StandardCharsets.UTF_8)))
+
+  def writeMapStatuses(shuffleId: Int, mapStatuses: Array[Byte]): Unit =
+    writeSection(SECTION_MAP_STATUSES, shuffleId.toString)(_.write(mapStatuses))
+
+  override def close(): Unit = {
+    dataOut.writeInt(SECTION_END)
+    dataOut.close()
+  }
+
+  private def writeObject(kind: Int, name: String, obj: Any): Unit = writeSection(kind, name) { sectionOut =>
+    val objOut = new ObjectOutputStream(sectionOut)
+    objOut.writeObject(obj)
+    objOut.flush()
+  }
+
+  private def writeSection(kind: Int, name: String)(writeBody: OutputStream => Unit): Unit = {
+    dataOut.writeInt(kind)
+    dataOut.writeUTF(name)
+
+    val chunkedOut = new ChunkedOutputStream(dataOut)
+    val bodyOut = codec.map(_.compressedOutputStream(chunkedOut)).getOrElse(chunkedOut)
+
+    Utils.tryWithSafeFinally {
+      writeBody(bodyOut)
+    } {
+      // ends the section, the underlying stream stays open
+      bodyOut.close()
+    }
+  }
+}
+
+/**
+  * Cuts whatever is written into length-prefixed chunks and ends with a zero length chunk when closed.
+  */
+private class ChunkedOutputStream(out: DataOutputStream) extends OutputStream {
+  private val buffer = new Array[Byte](FailureContext.CHUNK_SIZE)
+  private var count = 0
+  private var closed = false
+
+  override def write(b: Int): Unit = {
+    if (count == buffer.length) {
+      flushChunk()
+    }
+
+    buffer(count) = b.toByte
+    count += 1
+  }
+
+  override def write(b: Array[Byte], off: Int, len: Int): Unit = {
+    var written = 0
+    while (written < len) {
+      if (count == buffer.length) {
+        flushChunk()
+      }
+
+      val n = math.min(len - written, buffer.length - count)
+      System.arraycopy(b, off + written, buffer, count, n)
+      count += n
+      written += n
+    }
+  }
+
+  override def close(): Unit = {
+    if (!closed) {
+      closed = true
+      flushChunk()
+      out.writeInt(0)
+    }
+  }
+
+  private def flushChunk(): Unit = {
+    if (count > 0) {
+      out.writeInt(count)
+      out.write(buffer, 0, count)
+      count = 0
+    }
+  }
+}
+
+/**
+  * Reads the chunks of one section from the current position and reports the end of stream at its zero length
+  * chunk. Closing it leaves the underlying stream open.
+  */
+private class ChunkedInputStream(in: DataInputStream) extends InputStream {
+  private var remaining = 0
+  private var finished = false
+
+  override def read(): Int = {
+    if (!nextChunk()) {
+      -1
+    } else {
+      remaining -= 1
+      in.readUnsignedByte()
+    }
+  }
+
+  override def read(b: Array[Byte], off: Int, len: Int): Int = {
+    if (len == 0) {
+      0
+    } else if (!nextChunk()) {
+      -1
+    } else {
+      val n = in.read(b, off, math.min(len, remaining))
+      if (n < 0) {
+        throw new EOFException("Failure context file ends inside a section")
+      }
+
+      remaining -= n
+      n
+    }
+  }
+
+  override def available(): Int = remaining
+
+  private def nextChunk(): Boolean = {
+    while (!finished && remaining == 0) {
+      remaining = in.readInt()
+      finished = remaining == 0
+    }
+
+    !finished
+  }
+}
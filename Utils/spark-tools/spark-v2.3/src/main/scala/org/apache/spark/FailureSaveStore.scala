@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.apache.spark
+
+import java.io.{FileNotFoundException, InputStream, IOException, ObjectOutputStream, OutputStream}
+import java.nio.charset.StandardCharsets
+import java.security.{DigestInputStream, DigestOutputStream, MessageDigest}
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+
+import scala.collection.JavaConverters._
+
+import org.apache.commons.io.IOUtils
+import org.apache.hadoop.fs.{FileSystem, Path}
+
+import org.apache.spark.internal.Logging
+import org.apache.spark.util.Utils
+
+/**
+  * Content addressed store shared by all the failure saves under one failure saving root. Broadcast values and
+  * runtime files are kept once as `<root>/.store/<SHA-256 of the content>` and the failure contexts only refer to
+  * them by hash, so repeated failures of a long running application don't write the same content again.
+  *
+  * So a failure folder isn't self-contained: it lists the objects it refers to in its `store.refs`, and copying
+  * it elsewhere needs those objects copied into the `.store` next to it too. Removing failure folders is enough
+  * to free their space, [[prune]] deletes the objects no failure folder refers to any more.
+  */
+class FailureSaveStore(fs: FileSystem, root: Path) extends Logging {
+  import FailureSaveStore._
+
+  val storeDir = new Path(root, STORE_DIR_NAME)
+
+  // Broadcast values never change, and runtime files are recognized by path, length and modification time,
+  // so the content only needs to be hashed the first time one of them is saved
+  private val broadcastHashes = new ConcurrentHashMap[Long, String]()
+  private val runtimeHashes = new ConcurrentHashMap[(String, Long, Long), String]()
+
+  def objectPath(hash: String): Path = new Path(storeDir, hash)
+
+  def open(hash: String): InputStream = fs.open(objectPath(hash))
+
+  def putBroadcast(id: Long, value: Any): String = {
+    Option(broadcastHashes.get(id))
+      .filter(reuse)
+      .getOrElse {
+        val hash = put { out =>
+          val objOut = new ObjectOutputStream(out)
+          objOut.writeObject(value)
+          objOut.flush()
+        }
+
+        broadcastHashes.put(id, hash)
+        hash
+      }
+  }
+
+  def putRuntime(srcFs: FileSystem, srcPath: Path): String = {
+    val status = srcFs.getFileStatus(srcPath)
+    val key = (status.getPath.toString, status.getLen, status.getModificationTime)
+
+    Option(runtimeHashes.get(key))
+      .filter(reuse)
+      .getOrElse {
+        val contentHash = hashOf(srcFs.open(srcPath))
+        val hash = if (reuse(contentHash)) {
+          contentHash
+        } else {
+          put { out =>
+            val in = srcFs.open(srcPath)
+            Utils.tryWithSafeFinally(IOUtils.copyLarge(in, out))(in.close())
+          }
+        }
+
+        runtimeHashes.put(key, hash)
+        hash
+      }
+  }
+
+  /**
+    * Writes the hashes of the objects a failure folder refers to into its `store.refs`, which keeps them from
+    * being pruned
+    */
+  def writeRefs(failureFolder: Path, hashes: Iterable[String]): Unit = {
+    val out = fs.create(new Path(failureFolder, REFS_FILE_NAME), true)
+
+    Utils.tryWithSafeFinally {
+      hashes.toSeq.distinct.foreach(hash => out.write(s"$hash\n".getBytes(StandardCharsets.UTF_8)))
+    } {
+      out.close()
+    }
+  }
+
+  /**
+    * Deletes the objects no failure folder refers to, such as the ones of the failure folders removed. The objects
+    * and temporary files modified within `minAgeMs` are kept, since a failure save may be writing or reusing them
+    * and not have written its references yet.
+    *
+    * @return the count of objects deleted
+    */
+  def prune(minAgeMs: Long): Int = {
+    if (!fs.exists(storeDir)) {
+      0
+    } else {
+      val refs = fs.listStatus(root)
+        .filter(status => status.isDirectory && status.getPath.getName != STORE_DIR_NAME)
+        .map(status => new Path(status.getPath, REFS_FILE_NAME))
+        .filter(fs.exists)
+        .flatMap { refsFile =>
+          val in = fs.open(refsFile)
+          Utils.tryWithSafeFinally {
+            IOUtils.readLines(in, StandardCharsets.UTF_8).asScala.map(_.trim).filter(_.nonEmpty)
+          } {
+            in.close()
+          }
+        }
+        .toSet
+
+      val expiredTime = System.currentTimeMillis() - minAgeMs
+      val pruned = fs.listStatus(storeDir)
+        .filter(status => status.isFile && !refs.contains(status.getPath.getName))
+        .filter(_.getModificationTime < expiredTime)
+        .count(status => fs.delete(status.getPath, false))
+
+      if (pruned > 0) {
+        logInfo(s"Pruned $pruned objects no failure refers to from $storeDir")
+      }
+
+      pruned
+    }
+  }
+
+  // Writes into a temporary object first, the content hash is only known at the end
+  private def put(writeContent: OutputStream => Unit): String = {
+    val tmpPath = new Path(storeDir, s".tmp-${UUID.randomUUID()}")
+    val digest = MessageDigest.getInstance(HASH_ALGORITHM)
+    val out = new DigestOutputStream(fs.create(tmpPath, true), digest)
+
+    Utils.tryWithSafeFinally(writeContent(out))(out.close())
+
+    val hash = toHex(digest.digest())
+    val target = objectPath(hash)
+
+    if (reuse(hash)) {
+      fs.delete(tmpPath, false)
+    } else if (!fs.rename(tmpPath, target)) {
+      // Another failure save may have stored the same content meanwhile
+      fs.delete(tmpPath, false)
+
+      if (!reuse(hash)) {
+        throw new IOException(s"Can't move $tmpPath to $target")
+      }
+    } else {
+      logInfo(s"Stored $target")
+    }
+
+    hash
+  }
+
+  // Touches an existing object, so that [[prune]] keeps it as a new one until the failure save reusing it has
+  // written its references
+  private def reuse(hash: String): Boolean = {
+    val path = objectPath(hash)
+
+    try {
+      fs.exists(path) && {
+        fs.setTimes(path, System.currentTimeMillis(), -1)
+        true
+      }
+    } catch {
+      // Pruned meanwhile
+      case _: FileNotFoundException => false
+    }
+  }
+}
+
+object FailureSaveStore {
+  val STORE_DIR_NAME = ".store"
+  val REFS_FILE_NAME = "store.refs"
+  val HASH_ALGORITHM = "SHA-256"
+
+  def hashOf(in: InputStream): String = {
+    val digest = MessageDigest.getInstance(HASH_ALGORITHM)
+    val digestIn = new DigestInputStream(in, digest)
+
+    Utils.tryWithSafeFinally {
+      val buffer = new Array[Byte](64 * 1024)
+      while (digestIn.read(buffer) != -1) {}
+    } {
+      digestIn.close()
+    }
+
+    toHex(digest.digest())
+  }
+
+  private def toHex(bytes: Array[Byte]): String = bytes.map("%02x".format(_)).mkString
+}
@@ -23,10 +23,11 @@
 package org.apache.spark
 
 import java.io._
-import java.nio.file.{Files, Paths, StandardCopyOption}
+import java.nio.ByteBuffer
+import java.nio.channels.{Channels, FileChannel}
+import java.nio.file.{Files, Paths, StandardCopyOption, StandardOpenOption}
 import java.util.Base64
 
-import com.google.common.io.ByteStreams
 import org.apache.hadoop.fs.Path
 
 import org.apache.spark.broadcast.Broadcast
@@ -35,23 +36,27 @@ import org.apache.spark.internal.Logging
 import org.apache.spark.network.buffer.FileSegmentManagedBuffer
 import org.apache.spark.scheduler._
 import org.apache.spark.storage.{BlockId, ShuffleIndexBlockId}
+import org.apache.spark.util.Utils
 
-class TaskRecovery(sc: SparkContext, failureTask: FailureTask) extends Logging {
+class TaskRecovery(sc: SparkContext, failureContext: FailureContext) extends Logging {
   import TaskRecovery._
 
+  def this(sc: SparkContext, failureTask: FailureTask) = this(sc, new JsonFailureContext(failureTask))
+
+  private val failureTask = failureContext.failureTask
   private val fs = org.apache.hadoop.fs.FileSystem.get(sc.hadoopConfiguration)
-  private val bcMap: Map[Long, Broadcast[Any]] = failureTask.bcs
-    .sortBy(_.id)
-    .map(bc => {
-      val newBc = sc.broadcast(decodeObj(bc.value))
+  private val bcMap: Map[Long, Broadcast[Any]] = failureContext.broadcastIds
+    .sorted
+    .map(id => {
+      val newBc = sc.broadcast(failureContext.readBroadcastValue(id))
 
-      bc.id -> newBc
+      id -> newBc
     }) toMap
 
   private val taskBinary = bcMap(failureTask.binaryTaskBcId).asInstanceOf[Broadcast[Array[Byte]]]
   private val serializer = SparkEnv.get.closureSerializer.newInstance()
 
-  private val part = decodeObj(failureTask.partitionEnc).asInstanceOf[Partition]
+  private val part = failureContext.readPartition()
   private val locs = failureTask.hosts.map(HostTaskLocation).toSeq
   private val metrics = TaskMetrics.registered
 
@@ -98,8 +103,7 @@ class TaskRecovery(sc: SparkContext, failureTask: FailureTask) extends Logging {
 
         }}
 
-        val recoveryMapStatus = MapOutputTracker.deserializeMapStatuses(
-          Base64.getDecoder.decode(shuffleDep.mapStatusEnc))
+        val recoveryMapStatus = MapOutputTracker.deserializeMapStatuses(failureContext.readMapStatuses(shuffleDep.id))
           .map(loc => loc.getClass.getDeclaredFields
             .find(_.getName.endsWith("$$loc"))
             .map(locationField => {
@@ -167,22 +171,40 @@ object TaskRecovery {
     in.readObject
   }
 
+  val SHUFFLE_IMPORT_CHUNK_SIZE: Long = 8L * 1024 * 1024
+
+  // The block is written at its offset of the data file. Only the last byte before it is written to extend the
+  // file, so everything before the block is a hole of a sparse file instead of padding written byte by byte.
   def importShuffleToLocal(offset: Long,
                            len: Long,
                            reduceId: Int,
                            dataIn: InputStream,
                            outDataFile: File): Unit = {
-    val dataOut = new BufferedOutputStream(new FileOutputStream(outDataFile))
-
-    0.toLong.until(offset).foreach(_ => dataOut.write(20))  // writing SPACE for padding
-
-    ByteStreams.copy(dataIn, dataOut)
-
-    dataOut.close()
+    val dataOut = FileChannel.open(outDataFile.toPath,
+      StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+    val dataInChannel = Channels.newChannel(dataIn)
+
+    Utils.tryWithSafeFinally {
+      // transferFrom doesn't write anything at a position past the end of the file
+      if (offset > 0) {
+        dataOut.write(ByteBuffer.wrap(Array[Byte](0)), offset - 1)
+      }
+
+      var position = offset
+      var transferred = dataOut.transferFrom(dataInChannel, position, SHUFFLE_IMPORT_CHUNK_SIZE)
+      while (transferred > 0) {
+        position += transferred
+        transferred = dataOut.transferFrom(dataInChannel, position, SHUFFLE_IMPORT_CHUNK_SIZE)
+      }
+    } {
+      dataOut.close()
+    }
   }
 
-  def rerun(sc: SparkContext, failureTask: FailureTask): Unit = {
-    val recoveryTask = new TaskRecovery(sc, failureTask)
+  def rerun(sc: SparkContext, failureTask: FailureTask): Unit = rerun(sc, new JsonFailureContext(failureTask))
+
+  def rerun(sc: SparkContext, failureContext: FailureContext): Unit = {
+    val recoveryTask = new TaskRecovery(sc, failureContext)
     recoveryTask.rerun()
 
     while (sc.taskScheduler.rootPool.schedulableQueue.size() != 0) {
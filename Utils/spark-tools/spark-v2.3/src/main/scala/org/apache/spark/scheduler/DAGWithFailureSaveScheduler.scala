@@ -23,21 +23,26 @@
 package org.apache.spark.scheduler
 
 import java.io._
+import java.nio.charset.StandardCharsets
 import java.text.SimpleDateFormat
-import java.util.{Base64, Date}
+import java.util.Date
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
 
 import org.apache.commons.io.IOUtils
 import org.apache.commons.lang3.StringUtils
 import org.apache.hadoop.fs.{FileUtil, Path}
 import org.apache.spark._
 import org.apache.spark.broadcast.Broadcast
+import org.apache.spark.io.CompressionCodec
 import org.apache.spark.network.buffer.ManagedBuffer
 import org.apache.spark.rdd.RDD
 import org.apache.spark.storage._
-import org.apache.spark.util.{Clock, SystemClock, Utils}
-import org.json4s.jackson.Serialization.write
+import org.apache.spark.util.{Clock, SystemClock, ThreadUtils, Utils}
 
 import scala.collection.mutable
+import scala.concurrent.{ExecutionContext, ExecutionContextExecutorService, Future}
+import scala.concurrent.duration.Duration
 import scala.language.postfixOps
 import scala.util.control.NonFatal
 
@@ -71,21 +76,50 @@ class DAGWithFailureSaveScheduler(
   private val wd = org.apache.hadoop.fs.FileSystem.get(sc.hadoopConfiguration).getWorkingDirectory
   private val failureEventsDir = sc.eventLogDir.getOrElse(wd.toUri)
   private val fs = Utils.getHadoopFileSystem(failureEventsDir, sc.hadoopConfiguration)
+  private val failureSavingRoot = new Path(new Path(failureEventsDir), ".spark-failures")
+  private val store = new FailureSaveStore(fs, failureSavingRoot)
+  private val storePruneMinAgeMs = sc.conf.getTimeAsMs("spark.failure.save.store.pruneMinAge", "1h")
+  // The objects of the failure folders removed are pruned from the store once per application
+  private val isStorePruned = new AtomicBoolean(false)
+  private val shuffleSavingParallelism = sc.conf.getInt("spark.failure.save.shuffle.parallelism", 4)
+  private val shuffleSavingBufferSize =
+    sc.conf.getSizeAsBytes("spark.failure.save.shuffle.bufferSize", "1m").toInt
   private val minSizeForBroadcast =
     sc.conf.getSizeAsBytes("spark.shuffle.mapOutput.minSizeForBroadcast", "512k").toInt
 
-  def getEncodedByteArray(buffer: Array[Byte]): String =
-    Base64.getEncoder.encode(buffer)
-      .map(_.toChar)
-      .mkString
+  // The broadcasts a task needs are serialized into its binary, so they are found by deserializing it and
+  // collecting the Broadcast objects met on the way
+  def getReferencedBroadcastIds(taskBinary: Broadcast[Array[Byte]]): Set[Long] = {
+    val bcIds = mutable.Set[Long](taskBinary.id)
 
-  def encodeObject(obj: Any): String = {
-    val bytesOutputStream = new ByteArrayOutputStream()
-    val objOutputStream = new ObjectOutputStream(bytesOutputStream)
-    objOutputStream.writeObject(obj)
-    objOutputStream.close()
+    try {
+      val in = new ObjectInputStream(new ByteArrayInputStream(taskBinary.value)) {
+        enableResolveObject(true)
+
+        override def resolveClass(desc: ObjectStreamClass): Class[_] =
+          try {
+            Class.forName(desc.getName, false, Utils.getContextOrSparkClassLoader)
+          } catch {
+            case _: ClassNotFoundException => super.resolveClass(desc)
+          }
+
+        override def resolveObject(obj: AnyRef): AnyRef = {
+          obj match {
+            case bc: Broadcast[_] => bcIds += bc.id
+            case _ =>
+          }
 
-    getEncodedByteArray(bytesOutputStream.toByteArray)
+          obj
+        }
+      }
+
+      Utils.tryWithSafeFinally(in.readObject())(in.close())
+      bcIds.toSet
+    } catch {
+      case NonFatal(e) =>
+        logWarning(s"Can't find the broadcasts referenced by task binary ${taskBinary.id}, saving all of them", e)
+        sc.bcIdMap.keySet
+    }
   }
 
   def writeIndexFile(outputStream: OutputStream, lengths: Array[Long]): Unit = {
@@ -121,11 +155,52 @@ class DAGWithFailureSaveScheduler(
     }
   }
 
+  // Copies a shuffle block into the failure saving folder along with the index file recovering needs, returns the
+  // saved shuffle data and its size in bytes, or None if the block couldn't be fetched
+  def saveShuffleBlock(blockMgrId: BlockManagerId,
+                       blockId: BlockId,
+                       blockSize: Long,
+                       savingFolder: Path): Option[(ShuffleData, Long)] = {
+    getShuffleBuffer(blockMgrId, blockId)._2.map { buffer =>
+      // Copy the shuffle partition data into a file
+      val shuffleFile = new Path(savingFolder, blockId.toString())
+      logInfo(s"Generate shuffle files: $shuffleFile")
+
+      val shuffleIn = buffer.createInputStream()
+      val savedBytes = Utils.tryWithSafeFinally {
+        val shuffleOut = fs.create(shuffleFile, true, shuffleSavingBufferSize)
+
+        Utils.tryWithSafeFinally {
+          IOUtils.copyLarge(shuffleIn, shuffleOut, new Array[Byte](shuffleSavingBufferSize))
+        } {
+          shuffleOut.close()
+        }
+      } {
+        shuffleIn.close()
+        buffer.release()
+      }
+
+      // Need to prepare the index file for recovering
+      val SHUFFLE = "shuffle_([0-9]+)_([0-9]+)_([0-9]+)".r
+      blockId.toString() match {
+        case SHUFFLE(shuffleId, mapId, reduceId) =>
+          val shuffleIndexId = ShuffleIndexBlockId(shuffleId.toInt, mapId.toInt, 0)
+          val idxFile = driverBlockManager.diskBlockManager.getFile(shuffleIndexId).getName
+          val idxFileOutput = fs.create(new Path(savingFolder, idxFile), true)
+
+          writeIndexFile(idxFileOutput, Array.fill(reduceId.toInt)(0.toLong) :+ blockSize)
+          idxFileOutput.close()
+      }
+
+      (ShuffleData(blockId.toString, blockId.toString, blockMgrId.toString()), savedBytes)
+    }
+  }
+
   def saveFailureTask(task: Task[_], stageId: Int, taskId: String, attemptId: Int, timestamp: String): Unit = {
     def getFailureSavingPath(fileName: String = null): Path = {
       val appFolderName = sc.applicationId + sc.applicationAttemptId.map(attemptId => s"_attempt_${attemptId}_").getOrElse("_") + timestamp
       
-      val savingBase: Path = new Path(new Path(new Path(failureEventsDir), ".spark-failures"), appFolderName)
+      val savingBase: Path = new Path(failureSavingRoot, appFolderName)
 
       if (fileName != null) {
         new Path(savingBase, fileName)
@@ -155,59 +230,52 @@ class DAGWithFailureSaveScheduler(
     }
 
 
-    val shuffleDeps = shuffleMgrBlockIds.flatMap { case (shuffleId, mgrBlockIds) =>
-      mgrBlockIds
-        .map { case (blockMgrId, blockIds) =>
+    // Serialized map statuses by shuffle ID, saved in their own sections of the failure context. They are serialized
+    // once for each shuffle, not for each block manager holding its blocks
+    val mapStatuses = mutable.LinkedHashMap[Int, Array[Byte]]()
+    shuffleMgrBlockIds.filter(_._2.nonEmpty).foreach { case (shuffleId, _) =>
+      mapStatuses.getOrElseUpdate(shuffleId, mapOutputTracker.shuffleStatuses.get(shuffleId).head
+            .serializedMapStatus(SparkEnv.get.broadcastManager, sc.isLocal, minSizeForBroadcast))
+    }
+
+    // The shuffle blocks are fetched and saved concurrently, with at most `shuffleSavingParallelism` blocks in flight
+    // for each block manager
+    val shuffleSavingStart = System.nanoTime()
+    val blockMgrContexts = mutable.HashMap[BlockManagerId, ExecutionContextExecutorService]()
+
+    val savedShuffleDeps = try {
+      val pendingShuffleDeps = shuffleMgrBlockIds.flatMap { case (shuffleId, mgrBlockIds) =>
+        mgrBlockIds.map { case (blockMgrId, blockIds) =>
           logInfo(blockMgrId.toString())
 
-          val mapStatus = mapOutputTracker.shuffleStatuses.get(shuffleId).head
-            .serializedMapStatus(SparkEnv.get.broadcastManager, sc.isLocal, minSizeForBroadcast)
-
-          ShuffleDeps(
-            shuffleId,
-            blockIds
-              .filter(_._2 > 0)
-              .map { case (blockId, blockSize) =>
-                getShuffleBuffer(blockMgrId, blockId)._2 match {
-                  case Some(buffer: ManagedBuffer) =>
-                    // Copy the shuffle partition data into a file
-                    val shuffleFile = getFailureSavingPath(blockId.toString())
-                    val shuffleIn = buffer.createInputStream()
-
-                    logInfo(s"Generate shuffle files: $shuffleFile")
-                    val shuffleOut = fs.create(shuffleFile, true)
-
-                    IOUtils.copy(shuffleIn, shuffleOut)
-
-                    buffer.release()
-                    shuffleIn.close()
-                    shuffleOut.close()
-
-                    // Need to prepare the index file for recovering
-                    val SHUFFLE = "shuffle_([0-9]+)_([0-9]+)_([0-9]+)".r
-                    blockId.toString() match {
-                      case SHUFFLE(shuffleId, mapId, reduceId) =>
-                        val shuffleIndexId = ShuffleIndexBlockId(shuffleId.toInt, mapId.toInt, 0)
-                        val idxFile = driverBlockManager.diskBlockManager.getFile(shuffleIndexId).getName
-                        val idxFileOutput = fs.create(getFailureSavingPath(idxFile), true)
-
-                        writeIndexFile(idxFileOutput, Array.fill(reduceId.toInt)(0.toLong) :+ blockSize)
-                        idxFileOutput.close()
-                    }
-
-                    ShuffleData(blockId.toString, blockId.toString, blockMgrId.toString())
-                }
-              } toArray,
-            getEncodedByteArray(mapStatus))
+          val blockMgrContext = blockMgrContexts.getOrElseUpdate(blockMgrId, ExecutionContext.fromExecutorService(
+            ThreadUtils.newDaemonFixedThreadPool(shuffleSavingParallelism, s"failure-save-${blockMgrId.executorId}")))
+
+          (shuffleId, blockIds
+            .filter(_._2 > 0)
+            .map { case (blockId, blockSize) =>
+              Future(saveShuffleBlock(blockMgrId, blockId, blockSize, getFailureSavingPath()))(blockMgrContext)
+            })
         }
-    } filter(_.shuffleData.nonEmpty) toArray
+      }
+
+      pendingShuffleDeps.map { case (shuffleId, pendingBlocks) =>
+        (shuffleId, pendingBlocks.flatMap(ThreadUtils.awaitResult(_, Duration.Inf)))
+      }
+    } finally {
+      blockMgrContexts.values.foreach(_.shutdown())
+    }
 
-    // Get broadcast values
-    val bcs = sc.bcIdMap.map { case (id, bc) =>
-      BroadcastValue(id, encodeObject(bc.value))
-    } toArray
+    val savedShuffleBytes = savedShuffleDeps.flatMap(_._2).map(_._2).sum
+    logInfo(s"Saved ${Utils.bytesToString(savedShuffleBytes)} of shuffle blocks in " +
+      s"${TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - shuffleSavingStart)} ms")
 
-    implicit val formats = org.json4s.DefaultFormats
+    val shuffleDeps = savedShuffleDeps
+      .map { case (shuffleId, savedBlocks) =>
+        ShuffleDeps(shuffleId, savedBlocks.map(_._1).toArray, "")  // map statuses saved in their own section
+      }
+      .filter(_.shuffleData.nonEmpty)
+      .toArray
 
     val taskName = s"task ${taskId} in stage ${task.stageId}"
     val failureTask = FailureTask(
@@ -216,31 +284,50 @@ class DAGWithFailureSaveScheduler(
       taskName,
       stageId,
       attemptId,
-      encodeObject(partition),
+      "",  // saved in the partition section
       Array(),
       -1,
       task.localProperties,
       task.metrics,
-      bcs,
+      Array(),  // saved in broadcast sections
       shuffleDeps,
       task.isInstanceOf[ResultTask[Any, Any]]
     )
 
-    // Serialize to JSON
-    val json = write(failureTask)
+    // The partition and map statuses are streamed into their own sections instead of being inlined into the task
+    // metadata, the broadcast values the task refers to are kept in the failure save store
     val failureContextFile = getFailureSavingPath("failure_save.ftd")
-    val out = fs.create(failureContextFile, true)
-    val writer = new PrintWriter(out)
+    val codec = if (sc.conf.getBoolean(FailureContext.COMPRESS_CONF, false)) {
+      Some(CompressionCodec.createCodec(sc.conf))
+    } else {
+      None
+    }
+    val writer = new FailureContextWriter(fs.create(failureContextFile, true), codec)
+    val broadcastHashes = mutable.ArrayBuffer[String]()
 
-    writer.write(json)
-    writer.close()
+    Utils.tryWithSafeFinally {
+      writer.writeMeta(failureTask)
+      writer.writePartition(partition)
+      mapStatuses.foreach { case (shuffleId, statuses) => writer.writeMapStatuses(shuffleId, statuses) }
+      val referencedBcIds = getReferencedBroadcastIds(taskBinaryBc)
+      sc.bcIdMap
+        .filterKeys(referencedBcIds.contains)
+        .foreach { case (id, bc) =>
+          val hash = store.putBroadcast(id, bc.value)
+          writer.writeBroadcastRef(id, hash)
+          broadcastHashes += hash
+        }
+    } {
+      writer.close()
+    }
 
     logInfo(s"The working directory is ${fs.getWorkingDirectory.toUri}")
     logInfo("Failure task has been saved into " + failureContextFile.getParent)
 
-    // Save runtime files
+    // Save runtime files, the files go to the failure save store and are listed as `<name>\t<hash>` in
+    // runtime.list, the directories are still copied into runtime/
     val runtimeFolder = getFailureSavingPath("runtime/")
-    sc.runtimeFiles
+    val storedRuntimeFiles = sc.runtimeFiles
       .orElse({
         val schedulingMode = sc.getSchedulingMode.toString
         val addedJarPaths = sc.addedJars.keys.toSeq
@@ -250,23 +337,53 @@ class DAGWithFailureSaveScheduler(
 
         environmentDetails.get("Classpath Entries").map(pairs => pairs.map(_._1))
       })
-      .foreach(_.par.foreach(runtimeFile => {
+      .map(_.par.flatMap(runtimeFile => {
         try {
           val srcUri = Utils.resolveURI(runtimeFile)
           val srcPath = new Path(srcUri)
           val srcFs = Utils.getHadoopFileSystem(srcUri, sc.hadoopConfiguration)
 
-          if (StringUtils.isNotBlank(srcPath.getName)) {
+          if (StringUtils.isBlank(srcPath.getName)) {
+            logWarning(s"Runtime $runtimeFile has been ignored")
+            Seq.empty[(String, String)]
+          } else if (srcFs.getFileStatus(srcPath).isDirectory) {
             val dstPath = new Path(runtimeFolder, srcPath.getName)
             FileUtil.copy(srcFs, srcPath, fs, dstPath, false, sc.hadoopConfiguration)
             logInfo(s"Runtime $srcPath has been saved into $dstPath")
+            Seq.empty[(String, String)]
           } else {
-            logWarning(s"Runtime $runtimeFile has been ignored")
+            val hash = store.putRuntime(srcFs, srcPath)
+            logInfo(s"Runtime $srcPath has been saved as ${store.objectPath(hash)}")
+            Seq(srcPath.getName -> hash)
           }
         } catch {
-          case NonFatal(err) => logWarning(s"Got an error when saving runtime $runtimeFile", err)
+          case NonFatal(err) =>
+            logWarning(s"Got an error when saving runtime $runtimeFile", err)
+            Seq.empty[(String, String)]
         }
-      }))
+      }).seq)
+      .getOrElse(Seq())
+
+    val runtimeListOut = new PrintWriter(new OutputStreamWriter(fs.create(getFailureSavingPath("runtime.list"), true),
+      StandardCharsets.UTF_8))
+    Utils.tryWithSafeFinally {
+      storedRuntimeFiles.foreach { case (name, hash) => runtimeListOut.println(s"$name\t$hash") }
+    } {
+      runtimeListOut.close()
+    }
+
+    store.writeRefs(getFailureSavingPath(), broadcastHashes ++ storedRuntimeFiles.map(_._2))
+    pruneStoreOnce()
+  }
+
+  private def pruneStoreOnce(): Unit = {
+    if (isStorePruned.compareAndSet(false, true)) {
+      try {
+        store.prune(storePruneMinAgeMs)
+      } catch {
+        case NonFatal(e) => logWarning(s"Can't prune the failure save store ${store.storeDir}", e)
+      }
+    }
   }
 
   override private[scheduler] def handleTaskCompletion(event: CompletionEvent): Unit = {
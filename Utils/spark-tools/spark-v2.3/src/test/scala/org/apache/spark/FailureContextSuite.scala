@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.apache.spark
+
+import java.io.{File, FileOutputStream, PrintWriter}
+import java.util.{Base64, Properties}
+
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.{FileSystem, Path}
+import org.apache.spark.executor.TaskMetrics
+import org.apache.spark.io.CompressionCodec
+import org.apache.spark.util.Utils
+import org.json4s.jackson.Serialization.write
+import org.scalatest.MustMatchers._
+
+case class FailureContextTestPartition(index: Int) extends Partition
+
+class FailureContextSuite extends SparkFunSuite with LocalSparkContext {
+  private val mapStatuses = Array.tabulate[Byte](1000)(_.toByte)
+  // spans several chunks
+  private val largeBroadcastValue = Array.tabulate(200 * 1024)(i => i * 31)
+
+  private def failureTask(bcs: Array[BroadcastValue] = Array(), partitionEnc: String = "", mapStatusEnc: String = "") =
+    FailureTask(
+      1,
+      "3.0",
+      "task 3.0 in stage 2",
+      2,
+      0,
+      partitionEnc,
+      Array(),
+      -1,
+      new Properties(),
+      TaskMetrics.empty,
+      bcs,
+      Array(ShuffleDeps(5, Array(ShuffleData("shuffle_5_0_4", "shuffle_5_0_4", "driver")), mapStatusEnc)),
+      isResult = true)
+
+  private def writeBinary(file: File, codec: Option[CompressionCodec]): Unit = {
+    val writer = new FailureContextWriter(new FileOutputStream(file), codec)
+    writer.writeMeta(failureTask())
+    writer.writePartition(FailureContextTestPartition(4))
+    writer.writeMapStatuses(5, mapStatuses)
+    writer.writeBroadcastValue(0, largeBroadcastValue)
+    writer.writeBroadcastValue(1, "hello broadcast world!")
+    writer.close()
+  }
+
+  private def checkContent(failureContext: FailureContext): Unit = {
+    failureContext.broadcastIds.sorted mustBe Seq(0L, 1L)
+    // sections can be read in any order
+    failureContext.readBroadcastValue(1) mustBe "hello broadcast world!"
+    failureContext.readMapStatuses(5) mustBe mapStatuses
+    failureContext.readBroadcastValue(0) mustBe largeBroadcastValue
+    failureContext.readPartition() mustBe FailureContextTestPartition(4)
+    failureContext.failureTask.name mustBe "task 3.0 in stage 2"
+    failureContext.failureTask.shuffleDeps.head.shuffleData.head.name mustBe "shuffle_5_0_4"
+  }
+
+  private def openBinary(file: File, conf: SparkConf): FailureContext =
+    new BinaryFailureContext(conf, FileSystem.getLocal(new Configuration()).open(new Path(file.getAbsolutePath)))
+
+  test("Binary failure context should read back every section") {
+    val file = new File(Utils.createTempDir(), "failure_save.ftd")
+    writeBinary(file, None)
+
+    val failureContext = openBinary(file, new SparkConf())
+    try {
+      checkContent(failureContext)
+    } finally {
+      failureContext.close()
+    }
+  }
+
+  test("Binary failure context should read back compressed sections") {
+    val conf = new SparkConf()
+    val file = new File(Utils.createTempDir(), "failure_save.ftd")
+    writeBinary(file, Some(CompressionCodec.createCodec(conf, "lz4")))
+
+    val failureContext = openBinary(file, conf)
+    try {
+      checkContent(failureContext)
+    } finally {
+      failureContext.close()
+    }
+  }
+
+  test("Broadcast values should be stored once and resolved from the failure save store") {
+    val root = new Path(Utils.createTempDir().getAbsolutePath)
+    val fs = FileSystem.getLocal(new Configuration())
+    val store = new FailureSaveStore(fs, root)
+
+    val hash = store.putBroadcast(0, largeBroadcastValue)
+    // the same content under another broadcast ID shares the stored object
+    store.putBroadcast(7, largeBroadcastValue) mustBe hash
+    fs.listStatus(store.storeDir).map(_.getPath.getName) mustBe Array(hash)
+
+    val appFolder = new Path(root, "app_20180101T000000Z")
+    val file = new Path(appFolder, "failure_save.ftd")
+    val writer = new FailureContextWriter(fs.create(file), None)
+    writer.writeMeta(failureTask())
+    writer.writeBroadcastRef(0, hash)
+    writer.close()
+
+    val failureContext = new BinaryFailureContext(new SparkConf(), fs.open(file), Some(store))
+    try {
+      failureContext.broadcastIds mustBe Seq(0L)
+      failureContext.readBroadcastValue(0) mustBe largeBroadcastValue
+    } finally {
+      failureContext.close()
+    }
+  }
+
+  test("Failure save store should prune the objects no failure folder refers to") {
+    val root = new Path(Utils.createTempDir().getAbsolutePath)
+    val fs = FileSystem.getLocal(new Configuration())
+    val store = new FailureSaveStore(fs, root)
+
+    val keptHash = store.putBroadcast(0, largeBroadcastValue)
+    val prunedHash = store.putBroadcast(1, "hello broadcast world!")
+    store.writeRefs(new Path(root, "app_20180101T000000Z"), Seq(keptHash, keptHash))
+
+    // the objects just written may belong to a failure save not having written its references yet
+    store.prune(60 * 1000) mustBe 0
+
+    store.prune(-1) mustBe 1
+    fs.exists(store.objectPath(keptHash)) mustBe true
+    fs.exists(store.objectPath(prunedHash)) mustBe false
+  }
+
+  test("Failure context should open both the binary and the JSON formats") {
+    sc = new SparkContext(new SparkConf().setAppName("test").setMaster("local"))
+
+    val binaryFile = new File(Utils.createTempDir(), "failure_save.ftd")
+    writeBinary(binaryFile, None)
+    val binaryContext = FailureContext.open(sc, binaryFile.getAbsolutePath)
+    binaryContext mustBe a[BinaryFailureContext]
+    binaryContext.close()
+
+    implicit val formats = org.json4s.DefaultFormats
+
+    def encode(obj: Any): String = {
+      val bytesOut = new java.io.ByteArrayOutputStream()
+      val objOut = new java.io.ObjectOutputStream(bytesOut)
+      objOut.writeObject(obj)
+      objOut.close()
+
+      Base64.getEncoder.encodeToString(bytesOut.toByteArray)
+    }
+
+    val jsonFile = new File(Utils.createTempDir(), "failure_save.ftd")
+    val writer = new PrintWriter(jsonFile)
+    writer.write(write(failureTask(
+      Array(BroadcastValue(0, encode(largeBroadcastValue)), BroadcastValue(1, encode("hello broadcast world!"))),
+      encode(FailureContextTestPartition(4)),
+      Base64.getEncoder.encodeToString(mapStatuses))))
+    writer.close()
+
+    val jsonContext = FailureContext.open(sc, jsonFile.getAbsolutePath)
+    jsonContext mustBe a[JsonFailureContext]
+    checkContent(jsonContext)
+  }
+}